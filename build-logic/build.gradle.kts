@@ -11,5 +11,6 @@ repositories {
 dependencies {
     implementation(libs.kotlin.gradle)
     implementation(libs.gradle.nexus.publish)
+    implementation(libs.jmh.gradle)
     compileOnly(files(libs::class.java.protectionDomain.codeSource.location))
 }
@@ -0,0 +1,23 @@
+plugins {
+    id("java-library")
+    id("me.champeau.jmh")
+}
+
+val libs = extensions.getByType(org.gradle.accessors.dm.LibrariesForLibs::class)
+
+// benchmarks are not part of the regular build
+// ./gradlew jmh
+// ...or run selected benchmarks only
+// ./gradlew jmh -Pjmh.includes=UriParserBenchmark
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    project.findProperty("jmh.includes")?.let { includes.add(it.toString()) }
+}
+
+// generated benchmark sources do not pass strict lint checks
+tasks.matching { it.name == "jmhCompileGeneratedClasses" }.withType<JavaCompile>().configureEach {
+    options.compilerArgs.remove("-Werror")
+}
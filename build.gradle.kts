@@ -3,6 +3,7 @@ plugins {
     id("build.java")
     id("build.test")
     id("build.coverage")
+    id("build.jmh")
     id("build.publish")
 }
 
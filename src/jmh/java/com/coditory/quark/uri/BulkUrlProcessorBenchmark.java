@@ -0,0 +1,68 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkUrlProcessorBenchmark {
+    private static final String[] SAMPLES = {
+            "https://coditory.com/about",
+            "https://api.coditory.com:8080/users/123/orders?page=2&sort=date%20desc#details",
+            "http://coditory.com/a%C3%A9/b?q=caf%C3%A9+au+lait",
+            "http://co ditory.com/invalid",
+            "ftp://coditory.com/file.txt"
+    };
+
+    @Param({"1000000"})
+    public int size;
+
+    private String[] urls;
+    private BulkUrlProcessor forkJoin;
+    private BulkUrlProcessor virtualThreads;
+
+    @Setup
+    public void setup() {
+        urls = new String[size];
+        for (int i = 0; i < size; i++) {
+            urls[i] = SAMPLES[i % SAMPLES.length] + "?id=" + i;
+        }
+        forkJoin = BulkUrlProcessor.create();
+        virtualThreads = BulkUrlProcessor.builder()
+                .virtualThreads(true)
+                .build();
+    }
+
+    @Benchmark
+    public int validateSequentially() {
+        int valid = 0;
+        for (String url : urls) {
+            valid += UrlValidator.isValidUrl(url) ? 1 : 0;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public BulkValidationResult validateWithForkJoin() {
+        return forkJoin.validate(urls);
+    }
+
+    @Benchmark
+    public BulkValidationResult validateWithVirtualThreads() {
+        return virtualThreads.validate(urls);
+    }
+
+    @Benchmark
+    public BulkParseResult parseWithForkJoin() {
+        return forkJoin.parseHttpUrls(urls);
+    }
+}
@@ -0,0 +1,66 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DomainMatcherBenchmark {
+    @Param({"1000", "100000"})
+    public int rules;
+
+    @Param({"api.service-500.coditory.com", "www.unknown-host.org"})
+    public String host;
+
+    private DomainMatcher matcher;
+    private Set<String> exactDomains;
+    private Set<String> subdomainRules;
+
+    @Setup
+    public void setup() {
+        DomainMatcher.DomainMatcherBuilder builder = DomainMatcher.builder();
+        exactDomains = new HashSet<>();
+        subdomainRules = new HashSet<>();
+        for (int i = 0; i < rules; i++) {
+            String domain = "service-" + i + (i % 3 == 0 ? ".coditory.com" : ".example.org");
+            if (i % 2 == 0) {
+                builder.addWithSubdomains(domain);
+                subdomainRules.add(domain);
+            } else {
+                builder.addExact(domain);
+                exactDomains.add(domain);
+            }
+        }
+        matcher = builder.build();
+    }
+
+    @Benchmark
+    public boolean matchWithEndsWith() {
+        // naive approach: iterate rules and check suffixes
+        if (exactDomains.contains(host) || subdomainRules.contains(host)) {
+            return true;
+        }
+        for (String domain : subdomainRules) {
+            if (host.endsWith(domain) && host.charAt(host.length() - domain.length() - 1) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean matchWithDomainMatcher() {
+        return matcher.matches(host);
+    }
+}
@@ -0,0 +1,47 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FormUrlEncodedReaderBenchmark {
+    @Param({"100", "50000"})
+    public int fields;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = IntStream.range(0, fields)
+                .mapToObj(i -> "field_" + i + "=value+" + i + "%2C+caf%C3%A9")
+                .collect(Collectors.joining("&"))
+                .getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public void readStream(Blackhole blackhole) throws IOException {
+        FormUrlEncodedReader.create().read(new ByteArrayInputStream(body), (name, value) -> blackhole.consume(value));
+    }
+
+    @Benchmark
+    public UriComponents parseWholeBody() {
+        return UriComponents.fromQueryString(new String(body, UTF_8));
+    }
+}
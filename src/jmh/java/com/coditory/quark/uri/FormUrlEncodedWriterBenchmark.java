@@ -0,0 +1,40 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FormUrlEncodedWriterBenchmark {
+    @Param({"10", "10000"})
+    public int fields;
+
+    @Benchmark
+    public FormUrlEncodedWriter streamFields() throws IOException {
+        FormUrlEncodedWriter writer = FormUrlEncodedWriter.of(Writer.nullWriter());
+        for (int i = 0; i < fields; i++) {
+            writer.write("field_" + i, "value " + i);
+        }
+        writer.flush();
+        return writer;
+    }
+
+    @Benchmark
+    public String buildQueryString() {
+        UriBuilder builder = UriBuilder.empty();
+        for (int i = 0; i < fields; i++) {
+            builder.addQueryParam("field_" + i, "value " + i);
+        }
+        return builder.toUriComponents().getQueryString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HostValidatorBenchmark {
+    // Regex validation that was used before HostValidator
+    private static final String ATOM = "[^\\s;/@&=,.?:+$]+";
+    private static final Pattern ATOM_PATTERN = Pattern.compile("^(" + ATOM + ").*?$");
+    private static final Pattern DOMAIN_PATTERN = Pattern.compile("^" + ATOM + "(\\." + ATOM + ")*$");
+    private static final Pattern IPV4_PATTERN = Pattern.compile("^(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})$");
+
+    @Param({
+            "coditory.com",
+            "192.168.100.200",
+            "api.eu-west-1.internal.services.staging.coditory.com",
+            "a.b.c.d.e.f.g.h.i.j.k.l.m.n.o.p.q.r.s.t.u.v.w.x.y.z.a.b.c.d.e.f.coditory.com"
+    })
+    public String host;
+
+    @Benchmark
+    public boolean validateWithRegex() {
+        if (IPV4_PATTERN.matcher(host).matches()) {
+            return true;
+        }
+        if (!DOMAIN_PATTERN.matcher(host).matches()) {
+            return false;
+        }
+        String remaining = host;
+        String topLevel = null;
+        int labels = 0;
+        Matcher matcher = ATOM_PATTERN.matcher(remaining);
+        while (matcher.matches()) {
+            topLevel = matcher.group(1);
+            remaining = topLevel.length() + 1 >= remaining.length()
+                    ? ""
+                    : remaining.substring(topLevel.length() + 1);
+            matcher = ATOM_PATTERN.matcher(remaining);
+            labels++;
+        }
+        return labels >= 2 && topLevel.length() >= 2 && topLevel.length() <= 4;
+    }
+
+    @Benchmark
+    public boolean validateWithHostValidator() {
+        return HostValidator.isValid(host);
+    }
+}
@@ -0,0 +1,35 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.IDN;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdnBenchmark {
+    @Param({"www.coditory.com", "www.bücher.example", "例え.テスト"})
+    public String host;
+
+    @Benchmark
+    public String toAsciiWithJdk() {
+        return IDN.toASCII(host, IDN.ALLOW_UNASSIGNED);
+    }
+
+    @Benchmark
+    public String toAsciiWithIdn() {
+        return Idn.toAsciiOrNull(host);
+    }
+
+    @Benchmark
+    public UriComponents parseUrl() {
+        return UriComponents.fromHttpUrl("https://" + host + "/path?q=1");
+    }
+}
@@ -0,0 +1,55 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InetAddressBenchmark {
+    @Param({
+            "192.168.100.200",
+            "2001:db8:3333:4444:5555:6666:7777:8888",
+            "2001:db8::1",
+            "::ffff:192.168.0.1"
+    })
+    public String address;
+
+    private final long[] result = new long[2];
+
+    @Benchmark
+    public boolean validate() {
+        return InetAddressValidator.isValidInetAddress(address);
+    }
+
+    @Benchmark
+    public boolean parseToLongs() {
+        return InetAddressValidator.parseInetV4Address(address) != InetAddressValidator.INVALID_INET_V4_ADDRESS
+                || InetAddressValidator.parseInetV6Address(address, result);
+    }
+
+    @Benchmark
+    public byte[] parseWithInetAddress() throws UnknownHostException {
+        // address is a literal, so there is no dns lookup
+        return InetAddress.getByName(address).getAddress();
+    }
+
+    @Benchmark
+    public String toCanonicalInetAddress() {
+        return InetAddressValidator.toCanonicalInetAddress(address);
+    }
+
+    @Benchmark
+    public String toCanonicalWithInetAddress() throws UnknownHostException {
+        return InetAddress.getByName(address).getHostAddress();
+    }
+}
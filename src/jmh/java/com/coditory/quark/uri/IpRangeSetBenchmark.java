@@ -0,0 +1,76 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IpRangeSetBenchmark {
+    @Param({"1000", "300000"})
+    public int ranges;
+
+    @Param({"10.20.30.40", "2001:db8:1234::1"})
+    public String address;
+
+    private IpRangeSet rangeSet;
+    private long[] cidrStarts;
+    private int[] cidrPrefixes;
+    private long inetV4Address;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> cidrs = new ArrayList<>(ranges);
+        cidrStarts = new long[ranges];
+        cidrPrefixes = new int[ranges];
+        for (int i = 0; i < ranges; i++) {
+            int prefix = 8 + random.nextInt(25);
+            long start = (random.nextInt() & 0xFFFFFFFFL) & ((0xFFFFFFFFL << (32 - prefix)) & 0xFFFFFFFFL);
+            cidrStarts[i] = start;
+            cidrPrefixes[i] = prefix;
+            cidrs.add(InetAddressValidator.formatInetV4Address((int) start) + "/" + prefix);
+            if (i % 4 == 0) {
+                cidrs.add("2001:db8:" + Integer.toHexString(random.nextInt(0x10000)) + "::/48");
+            }
+        }
+        rangeSet = IpRangeSet.of(cidrs);
+        inetV4Address = InetAddressValidator.parseInetV4Address(address);
+    }
+
+    @Benchmark
+    public boolean containsWithLinearScan() {
+        // naive approach: check every CIDR block one by one
+        if (inetV4Address == InetAddressValidator.INVALID_INET_V4_ADDRESS) {
+            return false;
+        }
+        for (int i = 0; i < cidrStarts.length; i++) {
+            long mask = (0xFFFFFFFFL << (32 - cidrPrefixes[i])) & 0xFFFFFFFFL;
+            if ((inetV4Address & mask) == cidrStarts[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean containsParsedAddress() {
+        return rangeSet.containsInetV4Address(inetV4Address);
+    }
+
+    @Benchmark
+    public boolean containsAddressLiteral() {
+        return rangeSet.contains(address);
+    }
+}
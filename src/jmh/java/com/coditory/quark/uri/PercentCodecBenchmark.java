@@ -0,0 +1,35 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PercentCodecBenchmark {
+    @Param({
+            "plain-path-segment_value",
+            "a b/c?d=e&f",
+            "zażółć gęślą jaźń 語"
+    })
+    public String text;
+
+    @Benchmark
+    public String encode() {
+        return PercentCodec.encodeUriComponent(text);
+    }
+
+    @Benchmark
+    public StringBuilder encodeToBuilder() {
+        StringBuilder builder = new StringBuilder(64);
+        PercentCodec.PERCENT_CODEC.encode(text, builder);
+        return builder;
+    }
+}
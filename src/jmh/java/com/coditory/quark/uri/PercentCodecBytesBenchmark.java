@@ -0,0 +1,74 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PercentCodecBytesBenchmark {
+    @Param({
+            "plain-path-segment_value",
+            "zażółć gęślą jaźń 語"
+    })
+    public String text;
+
+    private byte[] raw;
+    private byte[] encoded;
+    private byte[] output;
+    private ByteBuffer rawDirect;
+    private ByteBuffer encodedDirect;
+    private ByteBuffer outputDirect;
+
+    @Setup
+    public void setup() {
+        raw = text.getBytes(UTF_8);
+        encoded = PercentCodec.encodeUriComponent(text).getBytes(US_ASCII);
+        output = new byte[encoded.length];
+        rawDirect = ByteBuffer.allocateDirect(raw.length).put(raw).flip();
+        encodedDirect = ByteBuffer.allocateDirect(encoded.length).put(encoded).flip();
+        outputDirect = ByteBuffer.allocateDirect(encoded.length);
+    }
+
+    @Benchmark
+    public int encodeBytes() {
+        return PercentCodec.PERCENT_CODEC.encode(raw, 0, raw.length, output, 0);
+    }
+
+    @Benchmark
+    public int decodeBytes() {
+        return PercentCodec.PERCENT_CODEC.decode(encoded, 0, encoded.length, output, 0);
+    }
+
+    @Benchmark
+    public byte[] decodeViaString() {
+        String decoded = PercentCodec.decodeUriComponent(new String(encoded, US_ASCII));
+        return decoded.getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeDirectBuffer() {
+        outputDirect.clear();
+        PercentCodec.PERCENT_CODEC.encode(rawDirect.rewind(), outputDirect);
+        return outputDirect;
+    }
+
+    @Benchmark
+    public ByteBuffer decodeDirectBuffer() {
+        outputDirect.clear();
+        PercentCodec.PERCENT_CODEC.decode(encodedDirect.rewind(), outputDirect);
+        return outputDirect;
+    }
+}
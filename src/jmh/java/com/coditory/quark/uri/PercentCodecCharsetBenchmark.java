@@ -0,0 +1,46 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PercentCodecCharsetBenchmark {
+    @Param({"UTF-8", "ISO-8859-2", "Shift_JIS"})
+    public String charset;
+
+    private PercentCodec codec;
+    private String text;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        codec = PercentCodec.builder()
+                .charset(Charset.forName(charset))
+                .build();
+        text = charset.equals("Shift_JIS")
+                ? "東京 タワー ガイド"
+                : "zażółć gęślą jaźń";
+        encoded = codec.encode(text);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(text);
+    }
+
+    @Benchmark
+    public String decode() {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,41 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PercentDecodeBenchmark {
+    @Param({
+            "plain-path-segment_value",
+            "a+b+c+d+e",
+            "a%20b%2Fc%3Fd%3De%26f",
+            "za%C5%BC%C3%B3%C5%82%C4%87%20g%C4%99%C5%9Bl%C4%85%20ja%C5%BA%C5%84%20%E8%AA%9E"
+    })
+    public String text;
+
+    @Benchmark
+    public String decode() {
+        return PercentCodec.decodeUriComponent(text);
+    }
+
+    @Benchmark
+    public String decodeWithPlusAsSpace() {
+        return PercentCodec.decodeUriComponentWithPlusAsSpace(text);
+    }
+
+    @Benchmark
+    public StringBuilder decodeToBuilder() {
+        StringBuilder builder = new StringBuilder(64);
+        PercentCodec.PERCENT_CODEC.decode(text, builder);
+        return builder;
+    }
+}
@@ -0,0 +1,65 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PercentScanBenchmark {
+    @Param({"16", "256", "2048", "8192"})
+    public int length;
+
+    private String plain;
+    private String query;
+    private String encodedQuery;
+
+    @Setup
+    public void setup() {
+        plain = repeat("abcdefghij-klmnopqrstuvwxyz_0123456789.", length);
+        query = repeat("utm_source=newsletter&utm_medium=email&", length);
+        encodedQuery = repeat("q=caf%C3%A9+au+lait&ref=a%2Fb&", length);
+    }
+
+    private static String repeat(String pattern, int length) {
+        return pattern.repeat(length / pattern.length() + 1).substring(0, length);
+    }
+
+    @Benchmark
+    public String encodePlain() {
+        return PercentCodec.encodeUriComponent(plain);
+    }
+
+    @Benchmark
+    public String decodePlain() {
+        return PercentCodec.decodeUriComponentWithPlusAsSpace(plain);
+    }
+
+    @Benchmark
+    public String decodeEncoded() {
+        return PercentCodec.decodeUriComponentWithPlusAsSpace(encodedQuery);
+    }
+
+    @Benchmark
+    public int validateQuery() {
+        return UriRfc.QUERY.indexOfInvalidEncoded(query, 0, query.length());
+    }
+
+    @Benchmark
+    public int validateEncodedQuery() {
+        return UriRfc.QUERY.indexOfInvalidEncoded(encodedQuery, 0, encodedQuery.length());
+    }
+
+    @Benchmark
+    public String validateAndDecodeEncodedQuery() {
+        return UriRfc.QUERY.validateAndDecode(encodedQuery);
+    }
+}
@@ -0,0 +1,91 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PublicSuffixListBenchmark {
+    @Param({
+            "coditory.com",
+            "www.coditory.co.uk",
+            "a.b.c.d.coditory.github.io"
+    })
+    public String host;
+
+    private PublicSuffixList publicSuffixList;
+    private final Set<String> rules = new HashSet<>();
+    private final Set<String> wildcardRules = new HashSet<>();
+    private final Set<String> exceptionRules = new HashSet<>();
+
+    @Setup
+    public void setup() throws IOException {
+        publicSuffixList = PublicSuffixList.bundled();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                PublicSuffixList.class.getResourceAsStream("public_suffix_list.dat"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("//")) {
+                    continue;
+                }
+                if (line.startsWith("!")) {
+                    exceptionRules.add(line.substring(1));
+                } else if (line.startsWith("*.")) {
+                    wildcardRules.add(line.substring(2));
+                } else {
+                    rules.add(line);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public String registrableDomainWithSplit() {
+        // naive approach: split host to labels and check every suffix in hash sets
+        String[] labels = host.toLowerCase().split("\\.");
+        int suffixLabels = 1;
+        for (int i = labels.length - 1; i >= 0; i--) {
+            String suffix = String.join(".", Arrays.copyOfRange(labels, i, labels.length));
+            if (exceptionRules.contains(suffix)) {
+                suffixLabels = labels.length - i - 1;
+                break;
+            }
+            String parent = i + 1 < labels.length
+                    ? String.join(".", Arrays.copyOfRange(labels, i + 1, labels.length))
+                    : null;
+            if (rules.contains(suffix) || (parent != null && wildcardRules.contains(parent))) {
+                suffixLabels = labels.length - i;
+            }
+        }
+        return suffixLabels < labels.length
+                ? String.join(".", Arrays.copyOfRange(labels, labels.length - suffixLabels - 1, labels.length))
+                : null;
+    }
+
+    @Benchmark
+    public String registrableDomain() {
+        return publicSuffixList.registrableDomain(host);
+    }
+
+    @Benchmark
+    public int registrableDomainStart() {
+        return publicSuffixList.registrableDomainStart(host, 0, host.length());
+    }
+}
@@ -0,0 +1,39 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueryStringScannerBenchmark {
+    @Param({
+            "utm_source=x&utm_medium=y&utm_campaign=z&q=a%20b&page=2",
+            "a=a1&a=a2&b=b1&c=c1&d=d1&e=e1&f=f1&g=g1&h=h1&token=abc"
+    })
+    public String query;
+
+    @Benchmark
+    public String parseAndGet() {
+        return UriComponents.fromQueryString(query).getQueryParam("page");
+    }
+
+    @Benchmark
+    public String find() {
+        return QueryStringScanner.find(query, "page");
+    }
+
+    @Benchmark
+    public int forEach() {
+        int[] count = new int[1];
+        QueryStringScanner.forEach(query, (name, value) -> count[0] += value.length());
+        return count[0];
+    }
+}
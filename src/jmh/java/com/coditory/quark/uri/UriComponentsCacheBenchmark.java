@@ -0,0 +1,44 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class UriComponentsCacheBenchmark {
+    private static final int HOT_URIS = 1_000;
+    private final UriComponentsCache cache = UriComponentsCache.builder()
+            .maxSize(2 * HOT_URIS)
+            .build();
+    private final String[] uris = new String[HOT_URIS];
+
+    public UriComponentsCacheBenchmark() {
+        for (int i = 0; i < HOT_URIS; i++) {
+            uris[i] = "https://coditory.com/api/v1/items/" + i + "?a=a1&b=b1";
+        }
+    }
+
+    @Benchmark
+    public UriComponents uncached() {
+        return UriComponents.fromUri(nextUri());
+    }
+
+    @Benchmark
+    public UriComponents cached() {
+        return cache.fromUri(nextUri());
+    }
+
+    private String nextUri() {
+        return uris[ThreadLocalRandom.current().nextInt(HOT_URIS)];
+    }
+}
@@ -0,0 +1,45 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UriFingerprintBenchmark {
+    @Param({
+            "https://www.coditory.com/products/list?page=2&sort=name",
+            "https://www.coditory.com/a/very/long/path/to/some/resource/with/many/segments?utm_source=newsletter&utm_medium=email&utm_campaign=spring&page=12#section"
+    })
+    public String uri;
+
+    private UriComponents uriComponents;
+
+    @Setup
+    public void setup() {
+        uriComponents = UriComponents.fromUri(uri);
+    }
+
+    @Benchmark
+    public int hashUriString() {
+        return uriComponents.toUriString().hashCode();
+    }
+
+    @Benchmark
+    public long fingerprint64() {
+        return uriComponents.fingerprint64();
+    }
+
+    @Benchmark
+    public UriFingerprint fingerprint128() {
+        return uriComponents.fingerprint();
+    }
+}
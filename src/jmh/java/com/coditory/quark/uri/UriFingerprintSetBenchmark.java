@@ -0,0 +1,64 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class UriFingerprintSetBenchmark {
+    private static final int URIS = 100_000;
+    private final String[] uris = new String[URIS];
+    private final Set<String> stringSet = ConcurrentHashMap.newKeySet();
+    private final UriFingerprintSet exactSet = UriFingerprintSet.builder()
+            .expectedSize(URIS)
+            .build();
+    private final UriFingerprintSet bloomFilter = UriFingerprintSet.builder()
+            .expectedSize(URIS)
+            .falsePositiveRate(0.001)
+            .build();
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < URIS; i++) {
+            uris[i] = "https://coditory.com/products/" + i + "?page=" + (i % 10);
+            // half of the uris are seen
+            if (i % 2 == 0) {
+                stringSet.add(uris[i]);
+                exactSet.add(uris[i]);
+                bloomFilter.add(uris[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean containsString() {
+        return stringSet.contains(UriComponents.fromUri(nextUri()).toUriString());
+    }
+
+    @Benchmark
+    public boolean containsExact() {
+        return exactSet.contains(nextUri());
+    }
+
+    @Benchmark
+    public boolean containsBloomFilter() {
+        return bloomFilter.contains(nextUri());
+    }
+
+    private String nextUri() {
+        return uris[ThreadLocalRandom.current().nextInt(URIS)];
+    }
+}
@@ -0,0 +1,46 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UriNormalizerBenchmark {
+    @Param({
+            "https://www.coditory.com/products/list?page=2&sort=name",
+            "HTTPS://WWW.Coditory.com:443/a/./b/../%7eproducts?sort=name&page=2&filter=a%2fb#top"
+    })
+    public String uri;
+
+    private UriNormalizer normalizer;
+
+    @Setup
+    public void setup() {
+        normalizer = UriNormalizer.builder()
+                .sortQueryParams(true)
+                .build();
+    }
+
+    @Benchmark
+    public String normalizeWithUriBuilder() {
+        // manual approach: parse, sort, serialize and parse again to get a canonical string
+        String uriString = UriBuilder.fromUri(uri)
+                .sortQueryParamsAndValues()
+                .toUriString();
+        return UriComponents.fromUri(uriString).toUriString();
+    }
+
+    @Benchmark
+    public String normalizeWithUriNormalizer() {
+        return normalizer.normalize(uri);
+    }
+}
@@ -0,0 +1,42 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UriParseResultBenchmark {
+    @Param({
+            "https://coditory.com/help/test?a=a1&a=a2&b=b1#frag",
+            "https://coditory.com:80a/help/test?a=a1&a=a2&b=b1#frag",
+            "https://coditory.com/help/test?a=a1&a=a2&b=b%zz#frag"
+    })
+    public String uri;
+
+    @Benchmark
+    public UriComponents catchException() {
+        try {
+            return UriComponents.fromUri(uri);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public UriComponents parseResult() {
+        return UriComponents.parseUri(uri).getUriComponentsOrNull();
+    }
+
+    @Benchmark
+    public boolean isValidUrl() {
+        return UrlValidator.isValidUrl(uri);
+    }
+}
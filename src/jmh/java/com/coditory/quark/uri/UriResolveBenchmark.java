@@ -0,0 +1,46 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UriResolveBenchmark {
+    private static final String BASE = "https://www.coditory.com/blog/2024/uri-parsing?page=2";
+
+    @Param({
+            "../2023/older-post",
+            "/products/list?page=2&sort=name",
+            "#comments"
+    })
+    public String reference;
+
+    private URI baseUri;
+    private UriComponents baseComponents;
+
+    @Setup
+    public void setup() {
+        baseUri = URI.create(BASE);
+        baseComponents = UriComponents.fromUri(BASE);
+    }
+
+    @Benchmark
+    public UriComponents resolveWithJavaUri() {
+        return UriComponents.from(baseUri.resolve(reference));
+    }
+
+    @Benchmark
+    public UriComponents resolveWithUriComponents() {
+        return baseComponents.resolve(reference);
+    }
+}
@@ -0,0 +1,35 @@
+package com.coditory.quark.uri;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UrlValidatorBenchmark {
+    @Param({
+            "https://coditory.com",
+            "https://api.coditory.com:8080/users/123/orders?page=2&sort=date%20desc#details",
+            "https://coditory.com/a%C3%A9/b/../c?q=caf%C3%A9+au+lait",
+            "https://coditory..com/invalid"
+    })
+    public String url;
+
+    @Benchmark
+    public boolean validateRaw() {
+        return UrlValidator.isValidUrl(url);
+    }
+
+    @Benchmark
+    public boolean validateParsed() {
+        UriComponents uriComponents = UriComponents.fromHttpUrlOrNull(url);
+        return uriComponents != null && UrlValidator.isValidUrl(uriComponents);
+    }
+}
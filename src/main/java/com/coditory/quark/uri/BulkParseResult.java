@@ -0,0 +1,73 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Outcome of {@link BulkUrlProcessor#parseHttpUrls(String[])}. Holds a parse result for every url, in the input order.
+ */
+public final class BulkParseResult {
+    private final UriParseResult[] results;
+    private final long[] failures;
+
+    BulkParseResult(UriParseResult[] results, long[] failures) {
+        this.results = results;
+        this.failures = failures;
+    }
+
+    public int size() {
+        return results.length;
+    }
+
+    @NotNull
+    public UriParseResult getResult(int index) {
+        return results[index];
+    }
+
+    @Nullable
+    public UriComponents getUriComponentsOrNull(int index) {
+        return results[index].getUriComponentsOrNull();
+    }
+
+    @NotNull
+    public List<UriParseResult> getResults() {
+        return unmodifiableList(Arrays.asList(results));
+    }
+
+    public long getSuccessCount() {
+        return results.length - getFailureCount();
+    }
+
+    public long getFailureCount() {
+        return FailureCounts.sum(failures);
+    }
+
+    public long getFailureCount(@NotNull UriParseError error) {
+        expectNonNull(error, "error");
+        return failures[error.ordinal()];
+    }
+
+    /**
+     * Returns number of failed urls by the reason of failure. Reasons without failures are skipped.
+     */
+    @NotNull
+    public Map<UriParseError, Long> getFailureCounts() {
+        return FailureCounts.toMap(failures);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkParseResult{" +
+                "size=" + results.length +
+                ", failureCount=" + getFailureCount() +
+                ", failureCounts=" + getFailureCounts() +
+                '}';
+    }
+}
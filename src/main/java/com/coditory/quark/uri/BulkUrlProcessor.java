@@ -0,0 +1,274 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Validates and parses large batches of http urls on multiple threads.
+ * <p>
+ * Input is split into chunks processed with fork-join or, when requested, with a virtual thread per chunk.
+ * Results are returned in the input order. Every chunk counts failures locally and merges the counts once,
+ * so threads do not contend with each other. Stream is collected to an array before processing.
+ * <p>
+ * Urls are validated with {@link UrlValidator#isValid(String)} and parsed like {@link UriComponents#parseHttpUrl(String)}.
+ * Null or blank url is not an http url, so both validation and parsing count it as {@link UriParseError#NOT_HTTP_URL}.
+ */
+public final class BulkUrlProcessor {
+    private static final int ERROR_COUNT = UriParseError.values().length;
+    private static final int BITS_PER_WORD = 64;
+
+    @NotNull
+    public static BulkUrlProcessorBuilder builder() {
+        return new BulkUrlProcessorBuilder();
+    }
+
+    @NotNull
+    public static BulkUrlProcessor create() {
+        return builder().build();
+    }
+
+    private final UrlValidator urlValidator;
+    private final ForkJoinPool forkJoinPool;
+    private final boolean virtualThreads;
+    private final int chunkSize;
+
+    private BulkUrlProcessor(UrlValidator urlValidator, ForkJoinPool forkJoinPool, boolean virtualThreads, int chunkSize) {
+        this.urlValidator = urlValidator;
+        this.forkJoinPool = forkJoinPool;
+        this.virtualThreads = virtualThreads;
+        this.chunkSize = chunkSize;
+    }
+
+    @NotNull
+    public BulkValidationResult validate(@NotNull String[] urls) {
+        expectNonNull(urls, "urls");
+        return validate(urls.length, i -> urls[i]);
+    }
+
+    @NotNull
+    public BulkValidationResult validate(@NotNull List<String> urls) {
+        expectNonNull(urls, "urls");
+        return urls instanceof RandomAccess
+                ? validate(urls.size(), urls::get)
+                : validate(urls.toArray(new String[0]));
+    }
+
+    @NotNull
+    public BulkValidationResult validate(@NotNull Stream<String> urls) {
+        expectNonNull(urls, "urls");
+        return validate(urls.toArray(String[]::new));
+    }
+
+    @NotNull
+    public BulkParseResult parseHttpUrls(@NotNull String[] urls) {
+        expectNonNull(urls, "urls");
+        return parseHttpUrls(urls.length, i -> urls[i]);
+    }
+
+    @NotNull
+    public BulkParseResult parseHttpUrls(@NotNull List<String> urls) {
+        expectNonNull(urls, "urls");
+        return urls instanceof RandomAccess
+                ? parseHttpUrls(urls.size(), urls::get)
+                : parseHttpUrls(urls.toArray(new String[0]));
+    }
+
+    @NotNull
+    public BulkParseResult parseHttpUrls(@NotNull Stream<String> urls) {
+        expectNonNull(urls, "urls");
+        return parseHttpUrls(urls.toArray(String[]::new));
+    }
+
+    private BulkValidationResult validate(int size, IntFunction<String> urls) {
+        // chunks start at multiples of 64, so every chunk writes to its own words
+        long[] valid = new long[(int) (((long) size + BITS_PER_WORD - 1) / BITS_PER_WORD)];
+        AtomicLongArray failures = new AtomicLongArray(ERROR_COUNT);
+        process(size, (start, end) -> {
+            long[] chunkFailures = new long[ERROR_COUNT];
+            for (int i = start; i < end; i++) {
+                String url = urls.apply(i);
+                UriParseError error = url == null
+                        ? UriParseError.NOT_HTTP_URL
+                        : urlValidator.findError(url);
+                if (error == null) {
+                    valid[i / BITS_PER_WORD] |= 1L << i;
+                } else {
+                    chunkFailures[error.ordinal()]++;
+                }
+            }
+            merge(chunkFailures, failures);
+        });
+        return new BulkValidationResult(size, valid, toArray(failures));
+    }
+
+    private BulkParseResult parseHttpUrls(int size, IntFunction<String> urls) {
+        UriParseResult[] results = new UriParseResult[size];
+        AtomicLongArray failures = new AtomicLongArray(ERROR_COUNT);
+        process(size, (start, end) -> {
+            long[] chunkFailures = new long[ERROR_COUNT];
+            for (int i = start; i < end; i++) {
+                UriParseResult result = parseHttpUrl(urls.apply(i));
+                if (result.isFailure()) {
+                    chunkFailures[result.getError().ordinal()]++;
+                }
+                results[i] = result;
+            }
+            merge(chunkFailures, failures);
+        });
+        return new BulkParseResult(results, toArray(failures));
+    }
+
+    // UriComponents.parseHttpUrl returns empty components for null or blank url
+    private static UriParseResult parseHttpUrl(String url) {
+        return UriComponentsParser.parseHttpUrl(url == null ? "" : url);
+    }
+
+    private void process(int size, Chunk chunk) {
+        int chunks = (int) (((long) size + chunkSize - 1) / chunkSize);
+        if (chunks <= 1) {
+            chunk.process(0, size);
+        } else if (virtualThreads) {
+            processWithVirtualThreads(size, chunks, chunk);
+        } else {
+            forkJoinPool.invoke(new ChunkAction(size, 0, chunks, chunk));
+        }
+    }
+
+    private void processWithVirtualThreads(int size, int chunks, Chunk chunk) {
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < chunks; i++) {
+                int start = i * chunkSize;
+                int end = chunkEnd(size, start);
+                futures.add(executor.submit(() -> chunk.process(start, end)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing urls", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Could not process urls", e.getCause());
+        }
+    }
+
+    private int chunkEnd(int size, int start) {
+        return (int) Math.min(size, (long) start + chunkSize);
+    }
+
+    private static void merge(long[] chunkFailures, AtomicLongArray failures) {
+        for (int i = 0; i < chunkFailures.length; i++) {
+            if (chunkFailures[i] > 0) {
+                failures.addAndGet(i, chunkFailures[i]);
+            }
+        }
+    }
+
+    private static long[] toArray(AtomicLongArray failures) {
+        long[] result = new long[failures.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = failures.get(i);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+        void process(int start, int end);
+    }
+
+    // Splits chunk range in halves, so idle workers steal large parts of the work
+    private final class ChunkAction extends RecursiveAction {
+        private final int size;
+        private final int fromChunk;
+        private final int toChunk;
+        private final Chunk chunk;
+
+        ChunkAction(int size, int fromChunk, int toChunk, Chunk chunk) {
+            this.size = size;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                int start = fromChunk * chunkSize;
+                chunk.process(start, chunkEnd(size, start));
+                return;
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(
+                    new ChunkAction(size, fromChunk, middle, chunk),
+                    new ChunkAction(size, middle, toChunk, chunk)
+            );
+        }
+    }
+
+    public static class BulkUrlProcessorBuilder {
+        private UrlValidator urlValidator = UrlValidator.instance();
+        private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+        private boolean virtualThreads = false;
+        private int chunkSize = 4096;
+
+        @NotNull
+        public BulkUrlProcessorBuilder urlValidator(@NotNull UrlValidator urlValidator) {
+            this.urlValidator = expectNonNull(urlValidator, "urlValidator");
+            return this;
+        }
+
+        /**
+         * Pool used to process chunks. Default: {@link ForkJoinPool#commonPool()}.
+         */
+        @NotNull
+        public BulkUrlProcessorBuilder forkJoinPool(@NotNull ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = expectNonNull(forkJoinPool, "forkJoinPool");
+            return this;
+        }
+
+        /**
+         * Processes every chunk on a new virtual thread instead of the fork-join pool. Default: false.
+         */
+        @NotNull
+        public BulkUrlProcessorBuilder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Number of urls processed by a single task, rounded up to a multiple of 64. Default: 4096.
+         */
+        @NotNull
+        public BulkUrlProcessorBuilder chunkSize(int chunkSize) {
+            expect(chunkSize > 0, "Expected chunkSize > 0. Got: %d", chunkSize);
+            this.chunkSize = (int) Math.min(Integer.MAX_VALUE - BITS_PER_WORD + 1,
+                    ((long) chunkSize + BITS_PER_WORD - 1) / BITS_PER_WORD * BITS_PER_WORD);
+            return this;
+        }
+
+        @NotNull
+        public BulkUrlProcessor build() {
+            return new BulkUrlProcessor(urlValidator, forkJoinPool, virtualThreads, chunkSize);
+        }
+    }
+}
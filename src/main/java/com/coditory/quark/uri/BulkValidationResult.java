@@ -0,0 +1,63 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Outcome of {@link BulkUrlProcessor#validate(String[])}. Validity is kept as a single bit per url, in the input order.
+ */
+public final class BulkValidationResult {
+    private final int size;
+    private final long[] valid;
+    private final long[] failures;
+
+    BulkValidationResult(int size, long[] valid, long[] failures) {
+        this.size = size;
+        this.valid = valid;
+        this.failures = failures;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isValid(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return (valid[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public long getValidCount() {
+        return size - getInvalidCount();
+    }
+
+    public long getInvalidCount() {
+        return FailureCounts.sum(failures);
+    }
+
+    public long getFailureCount(@NotNull UriParseError error) {
+        expectNonNull(error, "error");
+        return failures[error.ordinal()];
+    }
+
+    /**
+     * Returns number of invalid urls by the reason of failure. Reasons without failures are skipped.
+     */
+    @NotNull
+    public Map<UriParseError, Long> getFailureCounts() {
+        return FailureCounts.toMap(failures);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkValidationResult{" +
+                "size=" + size +
+                ", invalidCount=" + getInvalidCount() +
+                ", failureCounts=" + getFailureCounts() +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package com.coditory.quark.uri;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Per-thread charset encoders and decoders with reusable buffers.
+ * Malformed and unmappable input is replaced, the same way as in {@link String#getBytes(Charset)}
+ * and {@link String#String(byte[], int, int, Charset)}.
+ * Only the most recently used charset is kept per thread, codecs are usually configured with a single one.
+ * Buffers grown above {@link #MAX_REUSED_BUFFER_SIZE} are used only for the current call,
+ * so a single long input does not pin memory on every thread.
+ */
+final class CharsetCoders {
+    private static final int INITIAL_BUFFER_SIZE = 64;
+    private static final int MAX_REUSED_BUFFER_SIZE = 16 * 1024;
+    private static final ThreadLocal<CharsetCoders> CODERS = ThreadLocal.withInitial(CharsetCoders::new);
+
+    private CharsetEncoder encoder;
+    private CharsetDecoder decoder;
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    private CharsetCoders() {
+    }
+
+    /**
+     * Returns encoded bytes in a buffer that is reused by the next call from the same thread.
+     */
+    static ByteBuffer encode(String text, int start, int end, Charset charset) {
+        if (!charset.canEncode()) {
+            return ByteBuffer.wrap(text.substring(start, end).getBytes(charset));
+        }
+        return CODERS.get().encodeWithCachedEncoder(text, start, end, charset);
+    }
+
+    static void decode(byte[] bytes, int length, Charset charset, StringBuilder dst) {
+        CODERS.get().decodeWithCachedDecoder(bytes, length, charset, dst);
+    }
+
+    private ByteBuffer encodeWithCachedEncoder(String text, int start, int end, Charset charset) {
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        encoder.reset();
+        CharBuffer in = CharBuffer.wrap(text, start, end);
+        ByteBuffer out = bytes.clear();
+        while (true) {
+            CoderResult result = encoder.encode(in, out, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(out);
+            }
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (!result.isOverflow()) {
+                throwCharacterCodingException(result);
+            }
+            out = grow(out);
+            if (out.capacity() <= MAX_REUSED_BUFFER_SIZE) {
+                bytes = out;
+            }
+        }
+        return out.flip();
+    }
+
+    private void decodeWithCachedDecoder(byte[] bytes, int length, Charset charset, StringBuilder dst) {
+        if (decoder == null || !decoder.charset().equals(charset)) {
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        decoder.reset();
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+        CharBuffer out = chars.clear();
+        while (true) {
+            CoderResult result = decoder.decode(in, out, true);
+            if (result.isUnderflow()) {
+                result = decoder.flush(out);
+            }
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (!result.isOverflow()) {
+                throwCharacterCodingException(result);
+            }
+            out = grow(out);
+            if (out.capacity() <= MAX_REUSED_BUFFER_SIZE) {
+                chars = out;
+            }
+        }
+        dst.append(out.array(), 0, out.position());
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer grown = ByteBuffer.allocate(2 * buffer.capacity());
+        return grown.put(buffer.flip());
+    }
+
+    private static CharBuffer grow(CharBuffer buffer) {
+        CharBuffer grown = CharBuffer.allocate(2 * buffer.capacity());
+        return grown.put(buffer.flip());
+    }
+
+    // errors are replaced, so this is not expected to happen
+    private static void throwCharacterCodingException(CoderResult result) {
+        try {
+            result.throwException();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not transcode characters", e);
+        }
+        throw new IllegalStateException("Unexpected coder result: " + result);
+    }
+}
@@ -0,0 +1,209 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Immutable matcher of hosts against a large list of domain rules.
+ * <p>
+ * Rule is either an exact domain ("coditory.com") or a domain with all of its subdomains (".coditory.com").
+ * Domains are compared case-insensitively (ASCII only) and a single trailing dot is ignored.
+ * <p>
+ * Labels are kept reversed in a trie stored in primitive arrays, unique labels are stored once.
+ * Host is matched by walking its labels from right to left on the original string, without splitting it.
+ * Instances are safe to use from many threads.
+ */
+public final class DomainMatcher {
+    private static final byte EXACT = 1;
+    private static final byte WITH_SUBDOMAINS = 2;
+    private static final DomainMatcher EMPTY = builder().build();
+
+    @NotNull
+    public static DomainMatcherBuilder builder() {
+        return new DomainMatcherBuilder();
+    }
+
+    @NotNull
+    public static DomainMatcher empty() {
+        return EMPTY;
+    }
+
+    @NotNull
+    public static DomainMatcher of(@NotNull String... rules) {
+        expectNonNull(rules, "rules");
+        return of(Arrays.asList(rules));
+    }
+
+    @NotNull
+    public static DomainMatcher of(@NotNull Collection<String> rules) {
+        return builder()
+                .addAll(rules)
+                .build();
+    }
+
+    private final LabelTrie trie;
+    private final int rules;
+
+    private DomainMatcher(LabelTrie trie, int rules) {
+        this.trie = trie;
+        this.rules = rules;
+    }
+
+    public boolean matches(@Nullable String host) {
+        return host != null && matches(host, 0, host.length());
+    }
+
+    /**
+     * Checks host of the uri. Returns false if the uri has no host.
+     */
+    public boolean matches(@Nullable UriComponents uriComponents) {
+        return uriComponents != null && matches(uriComponents.getHost());
+    }
+
+    /**
+     * Checks host from the source range. Works like {@link #matches(String)}.
+     */
+    public boolean matches(@NotNull String source, int start, int end) {
+        expectNonNull(source, "source");
+        if (end > start && source.charAt(end - 1) == '.') {
+            end--;
+        }
+        if (start >= end || rules == 0) {
+            return false;
+        }
+        int node = LabelTrie.ROOT;
+        int labelEnd = end;
+        while (true) {
+            int hash = 0;
+            int labelStart = labelEnd;
+            while (labelStart > start && source.charAt(labelStart - 1) != '.') {
+                hash = LabelTrie.hash(hash, source.charAt(--labelStart));
+            }
+            if (labelStart == labelEnd) {
+                return false;
+            }
+            node = trie.findChild(node, hash, source, labelStart, labelEnd);
+            if (node == LabelTrie.NO_NODE) {
+                return false;
+            }
+            byte flags = trie.flags(node);
+            if (labelStart == start) {
+                return flags != 0;
+            }
+            if ((flags & WITH_SUBDOMAINS) != 0) {
+                return hasNoEmptyLabels(source, start, labelStart - 1);
+            }
+            labelEnd = labelStart - 1;
+        }
+    }
+
+    public boolean isEmpty() {
+        return rules == 0;
+    }
+
+    /**
+     * Returns number of unique rules.
+     */
+    public int size() {
+        return rules;
+    }
+
+    private static boolean hasNoEmptyLabels(String source, int start, int end) {
+        if (start >= end || source.charAt(start) == '.' || source.charAt(end - 1) == '.') {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            if (source.charAt(i) == '.' && source.charAt(i - 1) == '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DomainMatcher{" +
+                "rules=" + rules +
+                ", nodes=" + trie.nodeCount() +
+                ", labels=" + trie.labelCount() +
+                '}';
+    }
+
+    public static class DomainMatcherBuilder {
+        private final LabelTrie.LabelTrieBuilder trie = new LabelTrie.LabelTrieBuilder();
+        private int rules = 0;
+
+        /**
+         * Adds a rule. Domain prefixed with a dot (".coditory.com") matches the domain and all of its subdomains.
+         * Any other domain ("coditory.com") matches only itself.
+         */
+        @NotNull
+        public DomainMatcherBuilder add(@NotNull String rule) {
+            expectNonNull(rule, "rule");
+            return rule.startsWith(".")
+                    ? add(rule, 1, WITH_SUBDOMAINS)
+                    : add(rule, 0, EXACT);
+        }
+
+        @NotNull
+        public DomainMatcherBuilder addAll(@NotNull Collection<String> rules) {
+            expectNonNull(rules, "rules");
+            for (String rule : rules) {
+                add(rule);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a rule that matches only the domain.
+         */
+        @NotNull
+        public DomainMatcherBuilder addExact(@NotNull String domain) {
+            expectNonNull(domain, "domain");
+            return add(domain, 0, EXACT);
+        }
+
+        /**
+         * Adds a rule that matches the domain and all of its subdomains.
+         */
+        @NotNull
+        public DomainMatcherBuilder addWithSubdomains(@NotNull String domain) {
+            expectNonNull(domain, "domain");
+            return add(domain, 0, WITH_SUBDOMAINS);
+        }
+
+        @NotNull
+        public DomainMatcher build() {
+            return new DomainMatcher(trie.build(), rules);
+        }
+
+        private DomainMatcherBuilder add(String domain, int start, byte flag) {
+            int end = domain.endsWith(".") ? domain.length() - 1 : domain.length();
+            expect(isValidDomain(domain, start, end), "Expected valid domain rule. Got: %s", domain);
+            int node = trie.add(domain, start, end);
+            if (trie.addFlag(node, flag)) {
+                rules++;
+            }
+            return this;
+        }
+
+        private static boolean isValidDomain(String domain, int start, int end) {
+            if (start >= end || domain.charAt(start) == '.') {
+                return false;
+            }
+            for (int i = start + 1; i < end; i++) {
+                char c = domain.charAt(i);
+                if ((c == '.' && domain.charAt(i - 1) == '.') || Character.isWhitespace(c)) {
+                    return false;
+                }
+            }
+            return !Character.isWhitespace(domain.charAt(start));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.coditory.quark.uri;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Helpers for failure counts kept in an array indexed by {@link UriParseError#ordinal()}.
+ */
+final class FailureCounts {
+    private static final UriParseError[] ERRORS = UriParseError.values();
+
+    private FailureCounts() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    static long sum(long[] failures) {
+        long sum = 0;
+        for (long count : failures) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    static Map<UriParseError, Long> toMap(long[] failures) {
+        Map<UriParseError, Long> result = new EnumMap<>(UriParseError.class);
+        for (int i = 0; i < failures.length; i++) {
+            if (failures[i] > 0) {
+                result.put(ERRORS[i], failures[i]);
+            }
+        }
+        return unmodifiableMap(result);
+    }
+}
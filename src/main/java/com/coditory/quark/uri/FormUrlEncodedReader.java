@@ -0,0 +1,150 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.BiConsumer;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads application/x-www-form-urlencoded content, like a form body, in chunks
+ * and passes every decoded field to the visitor as soon as it is complete.
+ * <p>
+ * Fields are split, validated and decoded the same way as in {@link QueryStringScanner#forEach(String, BiConsumer)},
+ * except that a leading "?" is not skipped. Input is read as UTF-8 and is not closed by the reader.
+ * Invalid field and exceeded limit are reported with {@link InvalidUriException}.
+ */
+public final class FormUrlEncodedReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    @NotNull
+    public static FormUrlEncodedReaderBuilder builder() {
+        return new FormUrlEncodedReaderBuilder();
+    }
+
+    @NotNull
+    public static FormUrlEncodedReader create() {
+        return builder().build();
+    }
+
+    private final int maxFieldLength;
+    private final int maxFields;
+
+    private FormUrlEncodedReader(int maxFieldLength, int maxFields) {
+        this.maxFieldLength = maxFieldLength;
+        this.maxFields = maxFields;
+    }
+
+    public void read(@NotNull InputStream inputStream, @NotNull BiConsumer<String, String> visitor) throws IOException {
+        expectNonNull(inputStream, "inputStream");
+        read(new InputStreamReader(inputStream, UTF_8), visitor);
+    }
+
+    public void read(@NotNull ReadableByteChannel channel, @NotNull BiConsumer<String, String> visitor) throws IOException {
+        expectNonNull(channel, "channel");
+        read(Channels.newReader(channel, UTF_8), visitor);
+    }
+
+    public void read(@NotNull Reader reader, @NotNull BiConsumer<String, String> visitor) throws IOException {
+        expectNonNull(reader, "reader");
+        expectNonNull(visitor, "visitor");
+        new FieldReader(visitor).read(reader);
+    }
+
+    private final class FieldReader {
+        private final BiConsumer<String, String> visitor;
+        private final StringBuilder name = new StringBuilder();
+        private final StringBuilder value = new StringBuilder();
+        private boolean inValue;
+        private int fields;
+
+        FieldReader(BiConsumer<String, String> visitor) {
+            this.visitor = visitor;
+        }
+
+        void read(Reader reader) throws IOException {
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    accept(buffer[i]);
+                }
+            }
+            completeField();
+        }
+
+        private void accept(char c) {
+            if (c == '&') {
+                completeField();
+            } else if (c == '=' && !inValue) {
+                // '=' without a name is skipped, the same way as in the query string
+                inValue = !name.isEmpty();
+            } else {
+                if (inValue) {
+                    value.append(c);
+                } else {
+                    name.append(c);
+                }
+                int length = name.length() + (inValue ? value.length() + 1 : 0);
+                if (length > maxFieldLength) {
+                    throw new InvalidUriException("Form field exceeds the limit of " + maxFieldLength + " characters");
+                }
+            }
+        }
+
+        private void completeField() {
+            if (name.isEmpty()) {
+                return;
+            }
+            if (++fields > maxFields) {
+                throw new InvalidUriException("Form exceeds the limit of " + maxFields + " fields");
+            }
+            String decodedName = UriRfc.QUERY_PARAM.validateAndDecode(name.toString());
+            if (!decodedName.isBlank()) {
+                String decodedValue = UriRfc.QUERY_PARAM.validateAndDecode(value.toString());
+                visitor.accept(decodedName, decodedValue);
+            }
+            name.setLength(0);
+            value.setLength(0);
+            inValue = false;
+        }
+    }
+
+    public static class FormUrlEncodedReaderBuilder {
+        private int maxFieldLength = 1 << 20;
+        private int maxFields = Integer.MAX_VALUE;
+
+        /**
+         * Limits encoded length of a single "name=value" field. Default: 1048576.
+         */
+        @NotNull
+        public FormUrlEncodedReaderBuilder maxFieldLength(int maxFieldLength) {
+            expect(maxFieldLength > 0, "Expected maxFieldLength > 0. Got: %d", maxFieldLength);
+            this.maxFieldLength = maxFieldLength;
+            return this;
+        }
+
+        /**
+         * Limits number of fields. Default: no limit.
+         */
+        @NotNull
+        public FormUrlEncodedReaderBuilder maxFields(int maxFields) {
+            expect(maxFields > 0, "Expected maxFields > 0. Got: %d", maxFields);
+            this.maxFields = maxFields;
+            return this;
+        }
+
+        @NotNull
+        public FormUrlEncodedReader build() {
+            return new FormUrlEncodedReader(maxFieldLength, maxFields);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes application/x-www-form-urlencoded content, like a form body or a query string,
+ * field by field to the wrapped output.
+ * <p>
+ * Only a single encoded field and a fixed size buffer are kept in memory,
+ * so memory use does not depend on the number of written fields.
+ * Written content is buffered, use {@link #flush()} or {@link #close()} to pass it to the wrapped output.
+ */
+public final class FormUrlEncodedWriter implements Closeable, Flushable {
+    public static final PercentCodec FORM_CODEC = PercentCodec.builder()
+            .safeCharactersAsUriUnreserved()
+            .spaceAsPlus(true)
+            .build();
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @NotNull
+    public static FormUrlEncodedWriter of(@NotNull Writer writer) {
+        return of(writer, FORM_CODEC);
+    }
+
+    @NotNull
+    public static FormUrlEncodedWriter of(@NotNull Writer writer, @NotNull PercentCodec codec) {
+        expectNonNull(writer, "writer");
+        expectNonNull(codec, "codec");
+        return new FormUrlEncodedWriter(writer, codec);
+    }
+
+    @NotNull
+    public static FormUrlEncodedWriter of(@NotNull OutputStream outputStream) {
+        return of(outputStream, FORM_CODEC);
+    }
+
+    @NotNull
+    public static FormUrlEncodedWriter of(@NotNull OutputStream outputStream, @NotNull PercentCodec codec) {
+        expectNonNull(outputStream, "outputStream");
+        return of(new OutputStreamWriter(outputStream, UTF_8), codec);
+    }
+
+    @NotNull
+    public static FormUrlEncodedWriter of(@NotNull WritableByteChannel channel) {
+        return of(channel, FORM_CODEC);
+    }
+
+    @NotNull
+    public static FormUrlEncodedWriter of(@NotNull WritableByteChannel channel, @NotNull PercentCodec codec) {
+        expectNonNull(channel, "channel");
+        return of(Channels.newWriter(channel, UTF_8), codec);
+    }
+
+    private final Writer writer;
+    private final PercentCodec codec;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private StringBuilder field = new StringBuilder();
+    private int buffered;
+    private boolean empty = true;
+
+    private FormUrlEncodedWriter(Writer writer, PercentCodec codec) {
+        this.writer = writer;
+        this.codec = codec;
+    }
+
+    /**
+     * Writes a field. Field with a null value is written without the "=" sign.
+     */
+    @NotNull
+    public FormUrlEncodedWriter write(@NotNull String name, @Nullable String value) throws IOException {
+        expectNonNull(name, "name");
+        field.setLength(0);
+        if (!empty) {
+            field.append('&');
+        }
+        codec.encode(name, field);
+        if (value != null) {
+            field.append('=');
+            codec.encode(value, field);
+        }
+        writeField();
+        empty = false;
+        return this;
+    }
+
+    /**
+     * Writes a field for every value, in the iteration order of the values.
+     */
+    @NotNull
+    public FormUrlEncodedWriter writeAll(@NotNull String name, @NotNull Iterable<String> values) throws IOException {
+        expectNonNull(values, "values");
+        for (String value : values) {
+            write(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Writes fields in the iteration order of the map. Name with no values is written without the "=" sign.
+     */
+    @NotNull
+    public FormUrlEncodedWriter writeAll(@NotNull Map<String, List<String>> fields) throws IOException {
+        expectNonNull(fields, "fields");
+        for (Map.Entry<String, List<String>> entry : fields.entrySet()) {
+            List<String> values = entry.getValue();
+            if (values == null || values.isEmpty()) {
+                write(entry.getKey(), null);
+            } else {
+                writeAll(entry.getKey(), values);
+            }
+        }
+        return this;
+    }
+
+    private void writeField() throws IOException {
+        int length = field.length();
+        int offset = 0;
+        while (offset < length) {
+            int chunk = Math.min(length - offset, BUFFER_SIZE - buffered);
+            field.getChars(offset, offset + chunk, buffer, buffered);
+            buffered += chunk;
+            offset += chunk;
+            if (buffered == BUFFER_SIZE) {
+                flushBuffer();
+            }
+        }
+        // do not keep a large builder after a single large field
+        if (field.capacity() > BUFFER_SIZE) {
+            field = new StringBuilder();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffered > 0) {
+            writer.write(buffer, 0, buffered);
+            buffered = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            writer.close();
+        }
+    }
+}
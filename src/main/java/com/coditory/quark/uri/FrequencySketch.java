@@ -0,0 +1,64 @@
+package com.coditory.quark.uri;
+
+/**
+ * Count-min sketch with counters saturating at 15 used to estimate how often a key was requested.
+ * Counters are halved periodically, so the estimate follows recent popularity.
+ * Not thread safe, callers synchronize access.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xc3a5c85d, 0x9ae16a3b, 0x2d358dcd};
+
+    private final byte[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(16, capacity * 16) - 1) << 1;
+        this.table = new byte[width];
+        this.mask = width - 1;
+        this.sampleSize = Math.max(16, capacity * 10);
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, table[indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    // Conservative update: only the smallest counters are incremented, which limits overestimation
+    void increment(int hash) {
+        int frequency = frequency(hash);
+        if (frequency == MAX_COUNT) {
+            return;
+        }
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            if (table[index] == frequency) {
+                table[index]++;
+            }
+        }
+        if (++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) (table[i] >>> 1);
+        }
+        additions = additions >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        return h & mask;
+    }
+}
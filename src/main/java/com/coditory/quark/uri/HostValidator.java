@@ -0,0 +1,108 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Classifies and validates a host in a single pass, without regular expressions and substrings.
+ * <p>
+ * Host name is a dot separated list of labels. Label cannot be empty or contain
+ * ASCII whitespaces and any of {@value #SPECIAL_CHARS} characters.
+ * There must be at least two labels and the top level one has to start
+ * with an ASCII letter and have from 2 to 4 characters or be a punycode label ("xn--").
+ * Internationalized host has to be converted with {@link Idn#toAscii(String)} before validation.
+ */
+final class HostValidator {
+    private HostValidator() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    enum HostType {
+        IPV4,
+        IPV6,
+        REG_NAME
+    }
+
+    private static final String SPECIAL_CHARS = ";/@&=,.?:+$";
+    private static final int ASCII_SIZE = 128;
+    private static final boolean[] LABEL_EXCLUDED = labelExcluded();
+    private static final int IPV4_MAX_OCTET_VALUE = 255;
+    private static final int IPV4_OCTETS = 4;
+    private static final int TLD_MIN_LENGTH = 2;
+    private static final int TLD_MAX_LENGTH = 4;
+    private static final String ACE_PREFIX = "xn--";
+
+    private static boolean[] labelExcluded() {
+        boolean[] table = new boolean[ASCII_SIZE];
+        for (char c : (SPECIAL_CHARS + " \t\n\u000B\f\r").toCharArray()) {
+            table[c] = true;
+        }
+        return table;
+    }
+
+    static boolean isValid(@Nullable String host) {
+        return classify(host) != null;
+    }
+
+    /**
+     * Returns type of a valid host or null if the host is not valid.
+     */
+    @Nullable
+    static HostType classify(@Nullable String host) {
+        return host == null ? null : classify(host, 0, host.length());
+    }
+
+    /**
+     * Returns type of a valid host from the source range or null if the host is not valid.
+     */
+    @Nullable
+    static HostType classify(String source, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        if (source.charAt(start) == '[') {
+            return source.charAt(end - 1) == ']'
+                    && InetAddressValidator.isValidInetV6Address(source, start + 1, end - 1)
+                    ? HostType.IPV6
+                    : null;
+        }
+        int labels = 1;
+        int labelStart = start;
+        // ip v4 address is tracked along with labels until the first character that rules it out
+        boolean ipV4 = true;
+        int octetValue = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '.') {
+                if (i == labelStart) {
+                    return null;
+                }
+                labels++;
+                labelStart = i + 1;
+                octetValue = 0;
+            } else if (c < ASCII_SIZE && LABEL_EXCLUDED[c]) {
+                return null;
+            } else if (ipV4) {
+                int digits = i - labelStart;
+                ipV4 = c >= '0' && c <= '9'
+                        && labels <= IPV4_OCTETS
+                        && (digits == 0 || octetValue > 0);
+                octetValue = octetValue * 10 + (c - '0');
+                ipV4 = ipV4 && octetValue <= IPV4_MAX_OCTET_VALUE;
+            }
+        }
+        if (labelStart == end) {
+            return null;
+        }
+        if (ipV4 && labels == IPV4_OCTETS) {
+            return HostType.IPV4;
+        }
+        int tldLength = end - labelStart;
+        char tldStart = source.charAt(labelStart);
+        boolean validTld = ((tldLength >= TLD_MIN_LENGTH && tldLength <= TLD_MAX_LENGTH)
+                || (tldLength > ACE_PREFIX.length() && source.regionMatches(true, labelStart, ACE_PREFIX, 0, ACE_PREFIX.length())))
+                && ((tldStart >= 'a' && tldStart <= 'z') || (tldStart >= 'A' && tldStart <= 'Z'));
+        return labels >= 2 && validTld
+                ? HostType.REG_NAME
+                : null;
+    }
+}
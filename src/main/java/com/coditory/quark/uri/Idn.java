@@ -0,0 +1,269 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Converts internationalized host names between the unicode and the ASCII (punycode) form.
+ * <p>
+ * Unicode labels are mapped like in <a href="https://www.unicode.org/reports/tr46/">UTS #46</a>
+ * non-transitional processing: ideographic full stops are label separators, labels are lower cased
+ * and normalized to NFKC, then encoded with punycode. Bidi and contextual rules are not checked.
+ * <p>
+ * Pure ASCII host is returned as it is, without allocation. Other hosts are converted once
+ * and kept in a small bounded cache of recent conversions.
+ */
+public final class Idn {
+    private Idn() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    private static final String ACE_PREFIX = "xn--";
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int CACHE_SIZE = 1024;
+    // result of decoding a malformed UTF-8 sequence
+    private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final Conversions TO_ASCII = new Conversions();
+    private static final Conversions TO_UNICODE = new Conversions();
+
+    /**
+     * Converts host to the ASCII form. Example: "bücher.example" to "xn--bcher-kva.example".
+     *
+     * @throws IllegalArgumentException if the host cannot be converted
+     */
+    @NotNull
+    public static String toAscii(@NotNull String host) {
+        expectNonNull(host, "host");
+        String ascii = toAsciiOrNull(host);
+        expect(ascii != null, "Expected valid internationalized host. Got: %s", host);
+        return ascii;
+    }
+
+    /**
+     * Converts host to the ASCII form. Returns null if the host is null or cannot be converted.
+     */
+    @Nullable
+    public static String toAsciiOrNull(@Nullable String host) {
+        if (host == null || isAscii(host, 0, host.length())) {
+            return host;
+        }
+        Conversion cached = TO_ASCII.get(host);
+        if (cached != null) {
+            return cached.value;
+        }
+        String ascii = convertToAscii(host);
+        TO_ASCII.put(host, ascii);
+        return ascii;
+    }
+
+    /**
+     * Converts punycode labels of the host to unicode. Example: "xn--bcher-kva.example" to "bücher.example".
+     * Labels that are not valid punycode are left unchanged.
+     */
+    @NotNull
+    public static String toUnicode(@NotNull String host) {
+        expectNonNull(host, "host");
+        if (!containsAceLabel(host)) {
+            return host;
+        }
+        Conversion cached = TO_UNICODE.get(host);
+        if (cached != null) {
+            return cached.value;
+        }
+        String unicode = convertToUnicode(host);
+        TO_UNICODE.put(host, unicode);
+        return unicode;
+    }
+
+    static boolean isAscii(String source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Percent-encodes non-ASCII characters as UTF-8, so a host with raw unicode characters
+     * can be validated and decoded like any other uri component.
+     */
+    static String percentEncodeNonAscii(String source, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start + 16);
+        for (int i = start; i < end; ) {
+            int codePoint = source.codePointAt(i);
+            int next = Math.min(i + Character.charCount(codePoint), end);
+            if (codePoint < 0x80) {
+                builder.append((char) codePoint);
+            } else {
+                for (byte b : source.substring(i, next).getBytes(StandardCharsets.UTF_8)) {
+                    builder.append('%')
+                            .append(HEX_DIGITS[(b >> 4) & 0xF])
+                            .append(HEX_DIGITS[b & 0xF]);
+                }
+            }
+            i = next;
+        }
+        return builder.toString();
+    }
+
+    @Nullable
+    private static String convertToAscii(String host) {
+        StringBuilder builder = new StringBuilder(host.length() + 16);
+        int labelStart = 0;
+        for (int i = 0; i <= host.length(); i++) {
+            if (i == host.length() || isLabelSeparator(host.charAt(i))) {
+                if (!appendAsciiLabel(host.substring(labelStart, i), builder)) {
+                    return null;
+                }
+                if (i < host.length()) {
+                    builder.append('.');
+                }
+                labelStart = i + 1;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean appendAsciiLabel(String label, StringBuilder builder) {
+        if (isAscii(label, 0, label.length())) {
+            builder.append(label.toLowerCase(Locale.ROOT));
+            return label.length() <= MAX_LABEL_LENGTH;
+        }
+        String mapped = Normalizer.normalize(label.toLowerCase(Locale.ROOT), Normalizer.Form.NFKC);
+        if (mapped.indexOf('.') >= 0 || containsInvalidCharacter(mapped)) {
+            return false;
+        }
+        if (isAscii(mapped, 0, mapped.length())) {
+            builder.append(mapped);
+            return mapped.length() <= MAX_LABEL_LENGTH;
+        }
+        int labelStart = builder.length();
+        builder.append(ACE_PREFIX);
+        return Punycode.encode(mapped, builder)
+                && builder.length() - labelStart <= MAX_LABEL_LENGTH;
+    }
+
+    private static boolean containsInvalidCharacter(String label) {
+        for (int i = 0; i < label.length(); ) {
+            int codePoint = label.codePointAt(i);
+            int type = Character.getType(codePoint);
+            if (codePoint == REPLACEMENT_CHARACTER
+                    || Character.isWhitespace(codePoint)
+                    || Character.isISOControl(codePoint)
+                    || type == Character.SURROGATE
+                    || type == Character.UNASSIGNED
+                    || type == Character.PRIVATE_USE) {
+                return true;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return false;
+    }
+
+    private static String convertToUnicode(String host) {
+        StringBuilder builder = new StringBuilder(host.length());
+        int labelStart = 0;
+        for (int i = 0; i <= host.length(); i++) {
+            if (i == host.length() || host.charAt(i) == '.') {
+                appendUnicodeLabel(host, labelStart, i, builder);
+                if (i < host.length()) {
+                    builder.append('.');
+                }
+                labelStart = i + 1;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendUnicodeLabel(String host, int start, int end, StringBuilder builder) {
+        int labelStart = builder.length();
+        if (isAceLabel(host, start, end)
+                && Punycode.decode(host, start + ACE_PREFIX.length(), end, builder)
+                && isReversible(host, start, end, builder.substring(labelStart))) {
+            // basic code points keep the case of the ASCII label
+            for (int i = labelStart; i < builder.length(); i++) {
+                char c = builder.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    builder.setCharAt(i, (char) (c + ('a' - 'A')));
+                }
+            }
+            return;
+        }
+        builder.setLength(labelStart);
+        builder.append(host, start, end);
+    }
+
+    // Decoded label is accepted only if it encodes back to the same ASCII label
+    private static boolean isReversible(String host, int start, int end, String decoded) {
+        if (isAscii(decoded, 0, decoded.length())) {
+            return false;
+        }
+        StringBuilder encoded = new StringBuilder(end - start);
+        String ascii = appendAsciiLabel(decoded, encoded) ? encoded.toString() : null;
+        return ascii != null
+                && ascii.length() == end - start
+                && ascii.regionMatches(true, 0, host, start, end - start);
+    }
+
+    private static boolean containsAceLabel(String host) {
+        int labelStart = 0;
+        for (int i = 0; i <= host.length(); i++) {
+            if (i == host.length() || host.charAt(i) == '.') {
+                if (isAceLabel(host, labelStart, i)) {
+                    return true;
+                }
+                labelStart = i + 1;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAceLabel(String host, int start, int end) {
+        return end - start > ACE_PREFIX.length()
+                && host.regionMatches(true, start, ACE_PREFIX, 0, ACE_PREFIX.length());
+    }
+
+    private static boolean isLabelSeparator(char c) {
+        return c == '.' || c == '\u3002' || c == '\uFF0E' || c == '\uFF61';
+    }
+
+    private static final class Conversion {
+        private final String key;
+        private final String value;
+
+        Conversion(String key, @Nullable String value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // Direct mapped cache, a new conversion replaces the one with the same slot.
+    // Entries are immutable, so they can be read and replaced without locks.
+    private static final class Conversions {
+        private final Conversion[] entries = new Conversion[CACHE_SIZE];
+
+        @Nullable
+        Conversion get(String key) {
+            Conversion entry = entries[slot(key)];
+            return entry != null && entry.key.equals(key) ? entry : null;
+        }
+
+        void put(String key, @Nullable String value) {
+            entries[slot(key)] = new Conversion(key, value);
+        }
+
+        private static int slot(String key) {
+            int h = key.hashCode() * 0x45d9f3b;
+            return (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+        }
+    }
+}
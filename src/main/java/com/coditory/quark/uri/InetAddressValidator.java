@@ -1,27 +1,34 @@
 package com.coditory.quark.uri;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static com.coditory.quark.uri.Strings.isNullOrBlank;
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
 
+/**
+ * Validates, parses and formats ip addresses without regular expressions and allocations.
+ * <p>
+ * Ip v4 address is parsed to an unsigned 32-bit value. Ip v6 address is parsed to two longs,
+ * the high and the low 64 bits. Ip v6 address may end with an embedded ip v4 address.
+ * Ip v6 validation also accepts a zone ("%eth0") and a prefix length ("/64") after the address.
+ */
 public final class InetAddressValidator {
     private InetAddressValidator() {
         throw new UnsupportedOperationException("Do not instantiate utility class");
     }
 
-    private static final int MAX_BYTE = 128;
+    /**
+     * Returned by {@link #parseInetV4Address(String)} for an invalid address.
+     */
+    public static final long INVALID_INET_V4_ADDRESS = -1;
     private static final int IPV4_MAX_OCTET_VALUE = 255;
-    private static final int MAX_UNSIGNED_SHORT = 0xffff;
-    private static final int BASE_16 = 16;
-    private static final Pattern IPV4_REGEX = Pattern.compile("^(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})$");
-    private static final int IPV6_MAX_HEX_GROUPS = 8;
+    private static final int IPV4_OCTETS = 4;
+    private static final int IPV6_MAX_PREFIX_LENGTH = 128;
+    private static final int IPV6_HEX_GROUPS = 8;
     private static final int IPV6_MAX_HEX_DIGITS_PER_GROUP = 4;
+    private static final int BITS_PER_GROUP = 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
     public static void validateInetAddress(String inetAddress) {
         if (!isValidInetV4Address(inetAddress) && !isValidInetV6Address(inetAddress)) {
@@ -46,123 +53,351 @@ public final class InetAddressValidator {
     }
 
     public static boolean isValidInetV4Address(@Nullable String inet4Address) {
-        if (inet4Address == null || inet4Address.isBlank()) {
-            return false;
+        return parseInetV4Address(inet4Address) != INVALID_INET_V4_ADDRESS;
+    }
+
+    public static boolean isValidInetV6Address(@Nullable String inet6Address) {
+        return inet6Address != null && isValidInetV6Address(inet6Address, 0, inet6Address.length());
+    }
+
+    // Accepts address with an optional zone and prefix length
+    static boolean isValidInetV6Address(String source, int start, int end) {
+        int addressEnd = inetV6AddressEnd(source, start, end);
+        return addressEnd >= 0 && parseInetV6(source, start, addressEnd, null);
+    }
+
+    /**
+     * Parses ip v4 address in the dotted decimal form. Octets cannot have leading zeros.
+     *
+     * @return address as an unsigned 32-bit value or {@link #INVALID_INET_V4_ADDRESS} if the address is not valid.
+     * Cast it to int to get the address bits.
+     */
+    public static long parseInetV4Address(@Nullable String address) {
+        return address == null
+                ? INVALID_INET_V4_ADDRESS
+                : parseInetV4Address(address, 0, address.length());
+    }
+
+    /**
+     * Parses ip v4 address from the source range. Works like {@link #parseInetV4Address(String)}.
+     */
+    public static long parseInetV4Address(@NotNull String source, int start, int end) {
+        expectNonNull(source, "source");
+        long address = 0;
+        int octets = 0;
+        int i = start;
+        while (i < end) {
+            int octetStart = i;
+            int octet = 0;
+            char c;
+            while (i < end && (c = source.charAt(i)) >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (octet > IPV4_MAX_OCTET_VALUE || (i > octetStart && source.charAt(octetStart) == '0')) {
+                    return INVALID_INET_V4_ADDRESS;
+                }
+                i++;
+            }
+            if (i == octetStart || ++octets > IPV4_OCTETS) {
+                return INVALID_INET_V4_ADDRESS;
+            }
+            address = (address << 8) | octet;
+            if (i < end) {
+                if (source.charAt(i) != '.' || i + 1 == end) {
+                    return INVALID_INET_V4_ADDRESS;
+                }
+                i++;
+            }
         }
-        Matcher matcher = IPV4_REGEX.matcher(inet4Address);
-        if (!matcher.matches()) {
+        return octets == IPV4_OCTETS ? address : INVALID_INET_V4_ADDRESS;
+    }
+
+    /**
+     * Parses ip v6 address without a zone and a prefix length.
+     *
+     * @param result array with at least 2 elements that receives the high and the low 64 bits of the address
+     * @return true if the address is valid, result is not modified otherwise
+     */
+    public static boolean parseInetV6Address(@Nullable String address, @NotNull long[] result) {
+        expectNonNull(result, "result");
+        expect(result.length >= 2, "Expected result array with at least 2 elements. Got: %d", result.length);
+        return address != null && parseInetV6(address, 0, address.length(), result);
+    }
+
+    /**
+     * Parses ip v6 address from the source range. Works like {@link #parseInetV6Address(String, long[])}.
+     */
+    public static boolean parseInetV6Address(@NotNull String source, int start, int end, @NotNull long[] result) {
+        expectNonNull(source, "source");
+        expectNonNull(result, "result");
+        expect(result.length >= 2, "Expected result array with at least 2 elements. Got: %d", result.length);
+        return parseInetV6(source, start, end, result);
+    }
+
+    // Groups before "::" are collected in (high, low) and groups after it in (tailHigh, tailLow)
+    private static boolean parseInetV6(String source, int start, int end, @Nullable long[] result) {
+        if (start >= end) {
             return false;
         }
-        for (int j = 0; j < matcher.groupCount(); j++) {
-            String ipSegment = matcher.group(j + 1);
-            if (isNullOrBlank(ipSegment)) {
+        long high = 0;
+        long low = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int groups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+        int i = start;
+        if (source.charAt(i) == ':') {
+            if (i + 1 == end || source.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int group = 0;
+            int digit;
+            while (i < end && (digit = hexValue(source.charAt(i))) >= 0) {
+                group = (group << 4) | digit;
+                i++;
+            }
+            int embeddedGroups = 1;
+            if (i < end && source.charAt(i) == '.') {
+                long ipV4 = parseInetV4Address(source, groupStart, end);
+                if (ipV4 == INVALID_INET_V4_ADDRESS) {
+                    return false;
+                }
+                group = (int) ipV4;
+                embeddedGroups = 2;
+                i = end;
+            } else if (i == groupStart || i - groupStart > IPV6_MAX_HEX_DIGITS_PER_GROUP) {
+                return false;
+            }
+            long mask = embeddedGroups == 2 ? 0xFFFF_FFFFL : 0xFFFFL;
+            int shift = embeddedGroups * BITS_PER_GROUP;
+            if (compressed) {
+                tailHigh = (tailHigh << shift) | (tailLow >>> (64 - shift));
+                tailLow = (tailLow << shift) | (group & mask);
+                tailGroups += embeddedGroups;
+            } else {
+                high = (high << shift) | (low >>> (64 - shift));
+                low = (low << shift) | (group & mask);
+                groups += embeddedGroups;
+            }
+            if (groups + tailGroups > IPV6_HEX_GROUPS) {
                 return false;
             }
-            if (ipSegment.length() > 1 && ipSegment.startsWith("0")) {
+            if (i == end) {
+                break;
+            }
+            if (source.charAt(i) != ':' || ++i == end) {
                 return false;
             }
-            Integer iIpSegment = parseIntegerOrNull(ipSegment);
-            if (iIpSegment == null || iIpSegment > IPV4_MAX_OCTET_VALUE) {
+            if (source.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+        if (compressed) {
+            // "::" stands for at least one group of zeros
+            if (groups + tailGroups >= IPV6_HEX_GROUPS) {
                 return false;
             }
+            int shift = (IPV6_HEX_GROUPS - groups) * BITS_PER_GROUP;
+            if (shift >= 64) {
+                high = shift == 128 ? 0 : low << (shift - 64);
+                low = 0;
+            } else {
+                high = (high << shift) | (low >>> (64 - shift));
+                low = low << shift;
+            }
+            high |= tailHigh;
+            low |= tailLow;
+        } else if (groups != IPV6_HEX_GROUPS) {
+            return false;
+        }
+        if (result != null) {
+            result[0] = high;
+            result[1] = low;
         }
         return true;
     }
 
-    private static Integer parseIntegerOrNull(String text) {
-        if (text == null) {
-            return null;
+    // Returns end of the address before the optional zone and prefix length or -1 if any of them is not valid
+    private static int inetV6AddressEnd(String source, int start, int end) {
+        int addressEnd = end;
+        int slash = indexOf(source, '/', start, end);
+        if (slash >= 0) {
+            int digits = end - slash - 1;
+            if (digits < 1 || digits > 3) {
+                return -1;
+            }
+            int prefixLength = 0;
+            for (int i = slash + 1; i < end; i++) {
+                char c = source.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                prefixLength = prefixLength * 10 + (c - '0');
+            }
+            if (prefixLength > IPV6_MAX_PREFIX_LENGTH) {
+                return -1;
+            }
+            addressEnd = slash;
         }
-        try {
-            return Integer.parseInt(text);
-        } catch (RuntimeException e) {
-            return null;
+        int percent = indexOf(source, '%', start, addressEnd);
+        if (percent >= 0) {
+            if (percent + 1 == addressEnd) {
+                return -1;
+            }
+            for (int i = percent + 1; i < addressEnd; i++) {
+                char c = source.charAt(i);
+                if (c == '%' || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                    return -1;
+                }
+            }
+            addressEnd = percent;
         }
+        return addressEnd;
     }
 
-    public static boolean isValidInetV6Address(String inet6Address) {
-        if (inet6Address == null || inet6Address.isBlank()) {
-            return false;
+    private static int indexOf(String source, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == c) {
+                return i;
+            }
         }
-        String[] parts;
-        parts = inet6Address.split("/", -1);
-        if (parts.length > 2) {
-            return false;
+        return -1;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
         }
-        if (parts.length == 2) {
-            if (parts[1].matches("\\d{1,3}")) {
-                int bits = Integer.parseInt(parts[1]);
-                if (bits < 0 || bits > MAX_BYTE) {
-                    return false;
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    @NotNull
+    public static String formatInetV4Address(int address) {
+        StringBuilder builder = new StringBuilder(15);
+        formatInetV4Address(address, builder);
+        return builder.toString();
+    }
+
+    public static void formatInetV4Address(int address, @NotNull StringBuilder out) {
+        expectNonNull(out, "out");
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.append((address >>> shift) & 0xFF);
+            if (shift > 0) {
+                out.append('.');
+            }
+        }
+    }
+
+    /**
+     * Formats ip v6 address in the canonical form from RFC 5952: lower case hex digits without leading zeros
+     * and the longest run of at least two zero groups replaced with "::".
+     * Ip v4-mapped address is formatted with the embedded ip v4 address, like "::ffff:192.0.2.1".
+     *
+     * @link https://datatracker.ietf.org/doc/html/rfc5952#section-4
+     */
+    @NotNull
+    public static String formatInetV6Address(long high, long low) {
+        StringBuilder builder = new StringBuilder(39);
+        formatInetV6Address(high, low, builder);
+        return builder.toString();
+    }
+
+    public static void formatInetV6Address(long high, long low, @NotNull StringBuilder out) {
+        expectNonNull(out, "out");
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            out.append("::ffff:");
+            formatInetV4Address((int) low, out);
+            return;
+        }
+        int zerosStart = -1;
+        int zerosLength = 1;
+        int runStart = -1;
+        for (int i = 0; i < IPV6_HEX_GROUPS; i++) {
+            if (group(high, low, i) == 0) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                if (i - runStart + 1 > zerosLength) {
+                    zerosStart = runStart;
+                    zerosLength = i - runStart + 1;
                 }
             } else {
-                return false;
+                runStart = -1;
             }
         }
-        parts = parts[0].split("%", -1);
-        if (parts.length > 2) {
-            return false;
-        } else if (parts.length == 2) {
-            if (!parts[1].matches("[^\\s/%]+")) {
-                return false;
+        for (int i = 0; i < IPV6_HEX_GROUPS; i++) {
+            if (i == zerosStart) {
+                out.append("::");
+                i += zerosLength - 1;
+                continue;
             }
+            if (i > 0 && i != zerosStart + zerosLength) {
+                out.append(':');
+            }
+            appendHex(group(high, low, i), out);
         }
-        inet6Address = parts[0];
-        boolean containsCompressedZeroes = inet6Address.contains("::");
-        if (containsCompressedZeroes && (inet6Address.indexOf("::") != inet6Address.lastIndexOf("::"))) {
-            return false;
+    }
+
+    /**
+     * Returns canonical form of a valid ip address or null if the address is not valid.
+     * Ip v4 address is returned as it is and ip v6 address is formatted with {@link #formatInetV6Address(long, long)}.
+     * Ip v6 address may be wrapped in brackets, like in a uri host, and may have a zone and a prefix length,
+     * they are kept in the result.
+     */
+    @Nullable
+    public static String toCanonicalInetAddress(@Nullable String address) {
+        if (address == null) {
+            return null;
         }
-        if ((inet6Address.startsWith(":") && !inet6Address.startsWith("::"))
-                || (inet6Address.endsWith(":") && !inet6Address.endsWith("::"))) {
-            return false;
+        if (parseInetV4Address(address) != INVALID_INET_V4_ADDRESS) {
+            return address;
         }
-        String[] octets = inet6Address.split(":");
-        if (containsCompressedZeroes) {
-            List<String> octetList = new ArrayList<>(Arrays.asList(octets));
-            if (inet6Address.endsWith("::")) {
-                octetList.add("");
-            } else if (inet6Address.startsWith("::") && !octetList.isEmpty()) {
-                octetList.removeFirst();
-            }
-            octets = octetList.toArray(new String[0]);
+        int length = address.length();
+        boolean bracketed = length > 1 && address.charAt(0) == '[' && address.charAt(length - 1) == ']';
+        int start = bracketed ? 1 : 0;
+        int end = bracketed ? length - 1 : length;
+        int addressEnd = inetV6AddressEnd(address, start, end);
+        long[] parsed = new long[2];
+        if (addressEnd < 0 || !parseInetV6(address, start, addressEnd, parsed)) {
+            return null;
         }
-        if (octets.length > IPV6_MAX_HEX_GROUPS) {
-            return false;
+        StringBuilder builder = new StringBuilder(length + 2);
+        if (bracketed) {
+            builder.append('[');
         }
-        int validOctets = 0;
-        int emptyOctets = 0; // consecutive empty chunks
-        for (int index = 0; index < octets.length; index++) {
-            String octet = octets[index];
-            if (octet.isEmpty()) {
-                emptyOctets++;
-                if (emptyOctets > 1) {
-                    return false;
-                }
-            } else {
-                emptyOctets = 0;
-                if (index == octets.length - 1 && octet.contains(".")) {
-                    if (!isValidInetV4Address(octet)) {
-                        return false;
-                    }
-                    validOctets += 2;
-                    continue;
-                }
-                if (octet.length() > IPV6_MAX_HEX_DIGITS_PER_GROUP) {
-                    return false;
-                }
-                int octetInt = 0;
-                try {
-                    octetInt = Integer.parseInt(octet, BASE_16);
-                } catch (NumberFormatException e) {
-                    return false;
-                }
-                if (octetInt < 0 || octetInt > MAX_UNSIGNED_SHORT) {
-                    return false;
-                }
+        formatInetV6Address(parsed[0], parsed[1], builder);
+        builder.append(address, addressEnd, length);
+        return builder.toString();
+    }
+
+    private static int group(long high, long low, int index) {
+        long bits = index < 4 ? high : low;
+        return (int) (bits >>> (48 - (index % 4) * BITS_PER_GROUP)) & 0xFFFF;
+    }
+
+    private static void appendHex(int value, StringBuilder out) {
+        boolean leading = true;
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            int digit = (value >>> shift) & 0xF;
+            if (digit != 0 || !leading || shift == 0) {
+                out.append(HEX_DIGITS[digit]);
+                leading = false;
             }
-            validOctets++;
         }
-        return validOctets <= IPV6_MAX_HEX_GROUPS
-                && (validOctets == IPV6_MAX_HEX_GROUPS || containsCompressedZeroes);
     }
 }
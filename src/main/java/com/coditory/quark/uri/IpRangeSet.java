@@ -0,0 +1,397 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Immutable set of ip v4 and ip v6 address ranges built from CIDR blocks.
+ * <p>
+ * Ranges are sorted, merged and kept in primitive arrays. Lookup is a binary search,
+ * so it takes at most one step per address bit and does not allocate.
+ * Ip v4-mapped ip v6 address ("::ffff:10.0.0.1") is matched against ip v4 ranges as well,
+ * and CIDR block inside "::ffff:0:0/96" is stored as an ip v4 range, so both address forms match it.
+ * <p>
+ * Instances are safe to use from many threads.
+ */
+public final class IpRangeSet {
+    private static final IpRangeSet EMPTY = new IpRangeSet(new int[0], new int[0], new long[0], new long[0]);
+    private static final int IPV4_BITS = 32;
+    private static final int IPV6_BITS = 128;
+    private static final long IPV4_MASK = 0xFFFFFFFFL;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL;
+    // Scratch array for parsed ip v6 address, so lookups do not allocate
+    private static final ThreadLocal<long[]> PARSED_INET_V6_ADDRESS = ThreadLocal.withInitial(() -> new long[2]);
+
+    @NotNull
+    public static IpRangeSetBuilder builder() {
+        return new IpRangeSetBuilder();
+    }
+
+    @NotNull
+    public static IpRangeSet empty() {
+        return EMPTY;
+    }
+
+    @NotNull
+    public static IpRangeSet of(@NotNull String... cidrs) {
+        expectNonNull(cidrs, "cidrs");
+        return of(Arrays.asList(cidrs));
+    }
+
+    @NotNull
+    public static IpRangeSet of(@NotNull Collection<String> cidrs) {
+        return builder()
+                .addAll(cidrs)
+                .build();
+    }
+
+    // Values have the sign bit flipped, so signed comparison orders them as unsigned addresses
+    private final int[] v4Starts;
+    private final int[] v4Ends;
+    // Every ip v6 address takes two elements: the high and the low 64 bits
+    private final long[] v6Starts;
+    private final long[] v6Ends;
+
+    private IpRangeSet(int[] v4Starts, int[] v4Ends, long[] v6Starts, long[] v6Ends) {
+        this.v4Starts = v4Starts;
+        this.v4Ends = v4Ends;
+        this.v6Starts = v6Starts;
+        this.v6Ends = v6Ends;
+    }
+
+    /**
+     * Checks an ip address literal. Accepts host from {@link UriComponents#getHost()},
+     * so ip v6 address may be enclosed in brackets and have a zone, which is ignored.
+     *
+     * @return true if address is in any of the ranges, false if it is not or if it is not an ip address
+     */
+    public boolean contains(@Nullable String address) {
+        if (address == null || address.isEmpty()) {
+            return false;
+        }
+        int start = 0;
+        int end = address.length();
+        if (address.charAt(0) == '[') {
+            if (end < 2 || address.charAt(end - 1) != ']') {
+                return false;
+            }
+            start++;
+            end--;
+        }
+        int zone = address.indexOf('%', start, end);
+        if (zone >= 0) {
+            end = zone;
+        }
+        if (address.indexOf(':', start, end) < 0) {
+            return start == 0 && containsInetV4Address(InetAddressValidator.parseInetV4Address(address, start, end));
+        }
+        long[] parsed = PARSED_INET_V6_ADDRESS.get();
+        return InetAddressValidator.parseInetV6Address(address, start, end, parsed)
+                && containsInetV6Address(parsed[0], parsed[1]);
+    }
+
+    /**
+     * Checks host of the uri. Returns false if the host is missing or is not an ip address.
+     */
+    public boolean contains(@Nullable UriComponents uriComponents) {
+        return uriComponents != null && contains(uriComponents.getHost());
+    }
+
+    /**
+     * Checks ip v4 address returned by {@link InetAddressValidator#parseInetV4Address(String)}.
+     * Returns false for {@link InetAddressValidator#INVALID_INET_V4_ADDRESS} and values out of the ip v4 range.
+     */
+    public boolean containsInetV4Address(long address) {
+        if (address < 0 || address > IPV4_MASK || v4Starts.length == 0) {
+            return false;
+        }
+        int value = (int) address ^ Integer.MIN_VALUE;
+        int index = lastV4StartNotAfter(value);
+        return index >= 0 && value <= v4Ends[index];
+    }
+
+    /**
+     * Checks ip v6 address parsed by {@link InetAddressValidator#parseInetV6Address(String, long[])}.
+     */
+    public boolean containsInetV6Address(long high, long low) {
+        if (isInetV4Mapped(high, low) && containsInetV4Address(low & IPV4_MASK)) {
+            return true;
+        }
+        if (v6Starts.length == 0) {
+            return false;
+        }
+        long value = high ^ Long.MIN_VALUE;
+        int index = lastV6StartNotAfter(value, low);
+        return index >= 0 && compare(value, low, v6Ends[2 * index], v6Ends[2 * index + 1]) <= 0;
+    }
+
+    public boolean isEmpty() {
+        return v4Starts.length == 0 && v6Starts.length == 0;
+    }
+
+    /**
+     * Returns number of ip v4 ranges left after merging overlapping and adjacent ones.
+     */
+    public int getInetV4RangeCount() {
+        return v4Starts.length;
+    }
+
+    /**
+     * Returns number of ip v6 ranges left after merging overlapping and adjacent ones.
+     */
+    public int getInetV6RangeCount() {
+        return v6Starts.length / 2;
+    }
+
+    private static boolean isInetV4Mapped(long high, long low) {
+        return high == 0 && (low >>> IPV4_BITS) == IPV4_MAPPED_PREFIX;
+    }
+
+    private int lastV4StartNotAfter(int value) {
+        int low = 0;
+        int high = v4Starts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (v4Starts[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    private int lastV6StartNotAfter(long valueHigh, long valueLow) {
+        int low = 0;
+        int high = v6Starts.length / 2 - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compare(v6Starts[2 * middle], v6Starts[2 * middle + 1], valueHigh, valueLow) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    // High parts have the sign bit flipped, low parts are compared as unsigned
+    private static int compare(long high, long low, long otherHigh, long otherLow) {
+        return high != otherHigh
+                ? Long.compare(high, otherHigh)
+                : Long.compareUnsigned(low, otherLow);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IpRangeSet that = (IpRangeSet) o;
+        return Arrays.equals(v4Starts, that.v4Starts)
+                && Arrays.equals(v4Ends, that.v4Ends)
+                && Arrays.equals(v6Starts, that.v6Starts)
+                && Arrays.equals(v6Ends, that.v6Ends);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(v4Starts);
+        result = 31 * result + Arrays.hashCode(v4Ends);
+        result = 31 * result + Arrays.hashCode(v6Starts);
+        result = 31 * result + Arrays.hashCode(v6Ends);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "IpRangeSet{" +
+                "inetV4RangeCount=" + getInetV4RangeCount() +
+                ", inetV6RangeCount=" + getInetV6RangeCount() +
+                '}';
+    }
+
+    public static class IpRangeSetBuilder {
+        // Every ip v4 range is packed to a single long: start in the high and end in the low 32 bits
+        private long[] v4Ranges = new long[16];
+        private int v4Size = 0;
+        // Every ip v6 range takes four elements: start high, start low, end high, end low
+        private long[] v6Ranges = new long[64];
+        private int v6Size = 0;
+        private final long[] parsed = new long[2];
+
+        /**
+         * Adds a CIDR block ("10.0.0.0/8", "2001:db8::/32") or a single address ("10.0.0.1", "2001:db8::1").
+         * Bits of the address that are not covered by the prefix are ignored.
+         * Ip v4-mapped CIDR block ("::ffff:10.0.0.0/104") is added as the ip v4 block ("10.0.0.0/8").
+         */
+        @NotNull
+        public IpRangeSetBuilder add(@NotNull String cidr) {
+            expectNonNull(cidr, "cidr");
+            int slash = cidr.indexOf('/');
+            int addressEnd = slash < 0 ? cidr.length() : slash;
+            boolean ipV6 = cidr.indexOf(':', 0, addressEnd) >= 0;
+            int maxPrefixLength = ipV6 ? IPV6_BITS : IPV4_BITS;
+            int prefixLength = slash < 0 ? maxPrefixLength : parsePrefixLength(cidr, slash + 1, maxPrefixLength);
+            if (ipV6) {
+                boolean valid = prefixLength >= 0 && InetAddressValidator.parseInetV6Address(cidr, 0, addressEnd, parsed);
+                expect(valid, "Expected valid CIDR. Got: %s", cidr);
+                if (prefixLength >= IPV6_BITS - IPV4_BITS && isInetV4Mapped(parsed[0], parsed[1])) {
+                    addInetV4Range(parsed[1] & IPV4_MASK, prefixLength - (IPV6_BITS - IPV4_BITS));
+                } else {
+                    addInetV6Range(parsed[0], parsed[1], prefixLength);
+                }
+            } else {
+                long address = prefixLength >= 0
+                        ? InetAddressValidator.parseInetV4Address(cidr, 0, addressEnd)
+                        : InetAddressValidator.INVALID_INET_V4_ADDRESS;
+                expect(address != InetAddressValidator.INVALID_INET_V4_ADDRESS, "Expected valid CIDR. Got: %s", cidr);
+                addInetV4Range(address, prefixLength);
+            }
+            return this;
+        }
+
+        @NotNull
+        public IpRangeSetBuilder addAll(@NotNull Collection<String> cidrs) {
+            expectNonNull(cidrs, "cidrs");
+            for (String cidr : cidrs) {
+                add(cidr);
+            }
+            return this;
+        }
+
+        @NotNull
+        public IpRangeSet build() {
+            if (v4Size == 0 && v6Size == 0) {
+                return EMPTY;
+            }
+            return buildV6(buildV4());
+        }
+
+        private static int parsePrefixLength(String cidr, int start, int maxPrefixLength) {
+            int digits = cidr.length() - start;
+            if (digits < 1 || digits > 3) {
+                return -1;
+            }
+            int prefixLength = 0;
+            for (int i = start; i < cidr.length(); i++) {
+                char c = cidr.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                prefixLength = prefixLength * 10 + (c - '0');
+            }
+            return prefixLength <= maxPrefixLength ? prefixLength : -1;
+        }
+
+        private void addInetV4Range(long address, int prefixLength) {
+            long mask = prefixLength == 0 ? 0 : (IPV4_MASK << (IPV4_BITS - prefixLength)) & IPV4_MASK;
+            long start = address & mask;
+            long end = start | (~mask & IPV4_MASK);
+            if (v4Size == v4Ranges.length) {
+                v4Ranges = Arrays.copyOf(v4Ranges, 2 * v4Size);
+            }
+            v4Ranges[v4Size++] = (start << IPV4_BITS) | end;
+        }
+
+        private void addInetV6Range(long high, long low, int prefixLength) {
+            long highMask = mask(Math.min(prefixLength, 64));
+            long lowMask = mask(Math.max(prefixLength - 64, 0));
+            if (v6Size == v6Ranges.length) {
+                v6Ranges = Arrays.copyOf(v6Ranges, 2 * v6Size);
+            }
+            v6Ranges[v6Size++] = high & highMask;
+            v6Ranges[v6Size++] = low & lowMask;
+            v6Ranges[v6Size++] = high | ~highMask;
+            v6Ranges[v6Size++] = low | ~lowMask;
+        }
+
+        private static long mask(int bits) {
+            return bits == 0 ? 0 : -1L << (64 - bits);
+        }
+
+        private int[][] buildV4() {
+            // flipping the sign bit makes signed sort order equal to the unsigned one
+            long[] ranges = new long[v4Size];
+            for (int i = 0; i < v4Size; i++) {
+                ranges[i] = v4Ranges[i] ^ Long.MIN_VALUE;
+            }
+            Arrays.sort(ranges);
+            int[] starts = new int[v4Size];
+            int[] ends = new int[v4Size];
+            int size = 0;
+            for (long range : ranges) {
+                long start = (range ^ Long.MIN_VALUE) >>> IPV4_BITS;
+                long end = range & IPV4_MASK;
+                long lastEnd = size == 0 ? -1 : (ends[size - 1] ^ Integer.MIN_VALUE) & IPV4_MASK;
+                if (size > 0 && start <= lastEnd + 1) {
+                    if (end > lastEnd) {
+                        ends[size - 1] = (int) end ^ Integer.MIN_VALUE;
+                    }
+                } else {
+                    starts[size] = (int) start ^ Integer.MIN_VALUE;
+                    ends[size] = (int) end ^ Integer.MIN_VALUE;
+                    size++;
+                }
+            }
+            return new int[][]{Arrays.copyOf(starts, size), Arrays.copyOf(ends, size)};
+        }
+
+        private IpRangeSet buildV6(int[][] v4) {
+            int count = v6Size / 4;
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compareUnsigned(
+                    v6Ranges[4 * a], v6Ranges[4 * a + 1], v6Ranges[4 * b], v6Ranges[4 * b + 1]));
+            long[] starts = new long[2 * count];
+            long[] ends = new long[2 * count];
+            int size = 0;
+            for (int i : order) {
+                long startHigh = v6Ranges[4 * i];
+                long startLow = v6Ranges[4 * i + 1];
+                long endHigh = v6Ranges[4 * i + 2];
+                long endLow = v6Ranges[4 * i + 3];
+                if (size > 0 && isAdjacentOrOverlapping(ends[2 * size - 2], ends[2 * size - 1], startHigh, startLow)) {
+                    if (compareUnsigned(endHigh, endLow, ends[2 * size - 2], ends[2 * size - 1]) > 0) {
+                        ends[2 * size - 2] = endHigh;
+                        ends[2 * size - 1] = endLow;
+                    }
+                } else {
+                    starts[2 * size] = startHigh;
+                    starts[2 * size + 1] = startLow;
+                    ends[2 * size] = endHigh;
+                    ends[2 * size + 1] = endLow;
+                    size++;
+                }
+            }
+            for (int i = 0; i < 2 * size; i += 2) {
+                starts[i] ^= Long.MIN_VALUE;
+                ends[i] ^= Long.MIN_VALUE;
+            }
+            return new IpRangeSet(v4[0], v4[1], Arrays.copyOf(starts, 2 * size), Arrays.copyOf(ends, 2 * size));
+        }
+
+        // Checks if start <= lastEnd + 1
+        private static boolean isAdjacentOrOverlapping(long lastEndHigh, long lastEndLow, long startHigh, long startLow) {
+            if (lastEndHigh == -1 && lastEndLow == -1) {
+                return true;
+            }
+            long nextLow = lastEndLow + 1;
+            long nextHigh = nextLow == 0 ? lastEndHigh + 1 : lastEndHigh;
+            return compareUnsigned(startHigh, startLow, nextHigh, nextLow) <= 0;
+        }
+
+        private static int compareUnsigned(long high, long low, long otherHigh, long otherLow) {
+            return high != otherHigh
+                    ? Long.compareUnsigned(high, otherHigh)
+                    : Long.compareUnsigned(low, otherLow);
+        }
+    }
+}
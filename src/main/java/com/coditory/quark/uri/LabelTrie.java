@@ -0,0 +1,218 @@
+package com.coditory.quark.uri;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable trie of reversed domain labels stored in primitive arrays.
+ * <p>
+ * Every node keeps a byte of flags defined by the user of the trie. Unique labels are stored once.
+ * Children are found in a single open addressing table keyed by the parent node and the label hash.
+ * Labels are lower cased (ASCII only) and compared case-insensitively.
+ * Label hash is computed from right to left with {@link #hash(int, char)},
+ * so it can be calculated while looking for the beginning of the label.
+ */
+final class LabelTrie {
+    static final int ROOT = 0;
+    static final int NO_NODE = -1;
+
+    private final String[] labels;
+    private final int[] nodeLabels;
+    private final int[] nodeParents;
+    private final int[] nodeHashes;
+    private final byte[] nodeFlags;
+    // 0 marks an empty slot, root is never a child
+    private final int[] children;
+
+    private LabelTrie(String[] labels, int[] nodeLabels, int[] nodeParents, int[] nodeHashes, byte[] nodeFlags, int[] children) {
+        this.labels = labels;
+        this.nodeLabels = nodeLabels;
+        this.nodeParents = nodeParents;
+        this.nodeHashes = nodeHashes;
+        this.nodeFlags = nodeFlags;
+        this.children = children;
+    }
+
+    static int hash(int hash, char c) {
+        return 31 * hash + toLowerCase(c);
+    }
+
+    byte flags(int node) {
+        return nodeFlags[node];
+    }
+
+    int nodeCount() {
+        return nodeFlags.length;
+    }
+
+    int labelCount() {
+        return labels.length;
+    }
+
+    /**
+     * Returns child of the parent with the label from the source range or {@link #NO_NODE}.
+     */
+    int findChild(int parent, int hash, String source, int start, int end) {
+        int mask = children.length - 1;
+        for (int slot = slot(parent, hash, mask); children[slot] != 0; slot = (slot + 1) & mask) {
+            int node = children[slot];
+            if (nodeParents[node] == parent
+                    && nodeHashes[node] == hash
+                    && equalsIgnoreAsciiCase(labels[nodeLabels[node]], source, start, end)) {
+                return node;
+            }
+        }
+        return NO_NODE;
+    }
+
+    private static int slot(int parent, int hash, int mask) {
+        int h = parent * 0x9E3779B9 + hash;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static boolean equalsIgnoreAsciiCase(String label, String source, int start, int end) {
+        if (label.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (label.charAt(i) != toLowerCase(source.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    static final class LabelTrieBuilder {
+        private final Map<String, Integer> labelIds = new HashMap<>();
+        private String[] labels = new String[16];
+        private int[] nodeLabels = new int[16];
+        private int[] nodeParents = new int[16];
+        private int[] nodeHashes = new int[16];
+        private byte[] nodeFlags = new byte[16];
+        private int[] children = new int[32];
+        private int nodes = 1;
+
+        /**
+         * Adds labels of a domain from the source range. Labels cannot be empty.
+         *
+         * @return node of the leftmost label
+         */
+        int add(String domain, int start, int end) {
+            int node = ROOT;
+            int labelEnd = end;
+            while (labelEnd > start) {
+                int labelStart = Math.max(domain.lastIndexOf('.', labelEnd - 1) + 1, start);
+                node = child(node, domain.substring(labelStart, labelEnd));
+                labelEnd = labelStart - 1;
+            }
+            return node;
+        }
+
+        /**
+         * @return true if the flag was not set before
+         */
+        boolean addFlag(int node, byte flag) {
+            if ((nodeFlags[node] & flag) != 0) {
+                return false;
+            }
+            nodeFlags[node] |= flag;
+            return true;
+        }
+
+        LabelTrie build() {
+            return new LabelTrie(
+                    Arrays.copyOf(labels, labelIds.size()),
+                    Arrays.copyOf(nodeLabels, nodes),
+                    Arrays.copyOf(nodeParents, nodes),
+                    Arrays.copyOf(nodeHashes, nodes),
+                    Arrays.copyOf(nodeFlags, nodes),
+                    children.clone()
+            );
+        }
+
+        private int child(int parent, String label) {
+            String lowerCaseLabel = toLowerCase(label);
+            int hash = 0;
+            for (int i = lowerCaseLabel.length() - 1; i >= 0; i--) {
+                hash = hash(hash, lowerCaseLabel.charAt(i));
+            }
+            int mask = children.length - 1;
+            int slot = slot(parent, hash, mask);
+            while (children[slot] != 0) {
+                int node = children[slot];
+                if (nodeParents[node] == parent
+                        && nodeHashes[node] == hash
+                        && labels[nodeLabels[node]].equals(lowerCaseLabel)) {
+                    return node;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int node = nodes++;
+            ensureNodeCapacity();
+            nodeLabels[node] = labelId(lowerCaseLabel);
+            nodeParents[node] = parent;
+            nodeHashes[node] = hash;
+            children[slot] = node;
+            if (2 * nodes > children.length) {
+                rehash();
+            }
+            return node;
+        }
+
+        private int labelId(String label) {
+            Integer id = labelIds.get(label);
+            if (id != null) {
+                return id;
+            }
+            int newId = labelIds.size();
+            if (newId == labels.length) {
+                labels = Arrays.copyOf(labels, 2 * newId);
+            }
+            labels[newId] = label;
+            labelIds.put(label, newId);
+            return newId;
+        }
+
+        private void ensureNodeCapacity() {
+            if (nodes > nodeFlags.length) {
+                int capacity = 2 * nodeFlags.length;
+                nodeLabels = Arrays.copyOf(nodeLabels, capacity);
+                nodeParents = Arrays.copyOf(nodeParents, capacity);
+                nodeHashes = Arrays.copyOf(nodeHashes, capacity);
+                nodeFlags = Arrays.copyOf(nodeFlags, capacity);
+            }
+        }
+
+        private void rehash() {
+            int[] rehashed = new int[2 * children.length];
+            int mask = rehashed.length - 1;
+            for (int node = ROOT + 1; node < nodes; node++) {
+                int slot = slot(nodeParents[node], nodeHashes[node], mask);
+                while (rehashed[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                rehashed[slot] = node;
+            }
+            children = rehashed;
+        }
+
+        private static String toLowerCase(String label) {
+            for (int i = 0; i < label.length(); i++) {
+                char c = label.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    char[] chars = label.toCharArray();
+                    for (int j = i; j < chars.length; j++) {
+                        chars[j] = LabelTrie.toLowerCase(chars[j]);
+                    }
+                    return new String(chars);
+                }
+            }
+            return label;
+        }
+    }
+}
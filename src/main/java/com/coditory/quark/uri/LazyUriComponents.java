@@ -0,0 +1,302 @@
+package com.coditory.quark.uri;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.coditory.quark.uri.Ports.SCHEME_DEFAULT_PORT_NUMBER;
+import static com.coditory.quark.uri.Ports.validatePortNumberOrSchemeDefault;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+import static com.coditory.quark.uri.Strings.emptyToNull;
+import static com.coditory.quark.uri.Strings.lowerCase;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Keeps raw uri and decodes each component when it is read for the first time.
+ * Decoded values are exactly the same as the ones produced by {@link UriBuilder#fromUri(String)}.
+ * <p>
+ * Resolved values are immutable and published with a volatile write, so the instance is safe to share.
+ * Invalid component is reported with the same exception as eager parsing, but only when it is read.
+ */
+final class LazyUriComponents {
+    private static final int SCHEME = 1;
+    private static final int SCHEME_SPECIFIC_PART = 1 << 1;
+    private static final int USER_INFO = 1 << 2;
+    private static final int HOST = 1 << 3;
+    private static final int PORT = 1 << 4;
+    private static final int PATH = 1 << 5;
+    private static final int QUERY = 1 << 6;
+    private static final int FRAGMENT = 1 << 7;
+
+    static LazyUriComponents parse(String uri) {
+        expectNonNull(uri, "uri");
+        RawUri rawUri = RawUri.parse(uri);
+        if (!rawUri.isValid()) {
+            throw new InvalidUriException("Could not parse uri: \"" + uri + "\"");
+        }
+        return new LazyUriComponents(uri, rawUri);
+    }
+
+    private final String uri;
+    private final RawUri rawUri;
+    private volatile int resolved;
+    private String scheme;
+    private boolean protocolRelative;
+    private String ssp;
+    private String userInfo;
+    private String host;
+    private int port = SCHEME_DEFAULT_PORT_NUMBER;
+    private boolean rootPath;
+    private List<String> pathSegments;
+    private Map<String, List<String>> queryParams;
+    private String fragment;
+
+    private LazyUriComponents(String uri, RawUri rawUri) {
+        this.uri = uri;
+        this.rawUri = rawUri;
+    }
+
+    String getScheme() {
+        try {
+            return scheme();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    boolean isProtocolRelative() {
+        try {
+            scheme();
+            return protocolRelative && schemeSpecificPart() == null;
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    String getSchemeSpecificPart() {
+        try {
+            return schemeSpecificPart();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    String getUserInfo() {
+        try {
+            return userInfo();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    String getHost() {
+        try {
+            return host();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    int getPort() {
+        try {
+            return port();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    boolean isRootPath() {
+        try {
+            pathSegments();
+            return rootPath;
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    List<String> getPathSegments() {
+        try {
+            return pathSegments();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    Map<String, List<String>> getQueryMultiParams() {
+        try {
+            return queryParams();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    String getFragment() {
+        try {
+            return fragment();
+        } catch (RuntimeException e) {
+            throw invalidUri(e);
+        }
+    }
+
+    private String scheme() {
+        if (isResolved(SCHEME)) {
+            return scheme;
+        }
+        if (rawUri.isHttpScheme()) {
+            scheme = "http";
+        } else if (rawUri.isHttpsScheme()) {
+            scheme = "https";
+        } else if (rawUri.getScheme() != null) {
+            String decoded = UriRfc.SCHEME.validateAndDecode(rawUri.getScheme());
+            if (decoded.equals("//")) {
+                protocolRelative = true;
+            } else if (!decoded.isBlank()) {
+                scheme = lowerCase(decoded);
+            }
+        } else {
+            protocolRelative = rawUri.isProtocolRelative();
+        }
+        if (scheme != null && schemeSpecificPart() == null) {
+            UriPartValidator.checkScheme(scheme);
+        }
+        markResolved(SCHEME);
+        return scheme;
+    }
+
+    private String schemeSpecificPart() {
+        if (isResolved(SCHEME_SPECIFIC_PART)) {
+            return ssp;
+        }
+        if (rawUri.isOpaque()) {
+            String decoded = UriRfc.SCHEME_SPECIFIC_PART.validateAndDecode(rawUri.getSchemeSpecificPart());
+            ssp = decoded.isBlank() ? null : decoded;
+        }
+        markResolved(SCHEME_SPECIFIC_PART);
+        return ssp;
+    }
+
+    private String userInfo() {
+        if (isResolved(USER_INFO)) {
+            return userInfo;
+        }
+        String rawUserInfo = rawUri.isOpaque() ? null : rawUri.getUserInfo();
+        if (rawUserInfo != null) {
+            String decoded = UriRfc.USER_INFO.validateAndDecode(rawUserInfo);
+            userInfo = decoded.isBlank() ? null : decoded;
+        }
+        if (userInfo != null && host() == null) {
+            throw new InvalidUriException("URI with user info must include host");
+        }
+        markResolved(USER_INFO);
+        return userInfo;
+    }
+
+    private String host() {
+        if (isResolved(HOST)) {
+            return host;
+        }
+        String rawHost = rawUri.isOpaque() ? null : rawUri.getHost();
+        if (rawHost != null) {
+            String decoded = UriRfc.HOST.validateAndDecode(Idn.isAscii(rawHost, 0, rawHost.length())
+                    ? rawHost
+                    : Idn.percentEncodeNonAscii(rawHost, 0, rawHost.length()));
+            if (!decoded.isBlank()) {
+                String asciiHost = Idn.toAsciiOrNull(decoded);
+                String lowerCased = lowerCase(asciiHost != null ? asciiHost : decoded);
+                UriPartValidator.checkHost(lowerCased);
+                host = lowerCased;
+            }
+        }
+        markResolved(HOST);
+        return host;
+    }
+
+    private int port() {
+        if (isResolved(PORT)) {
+            return port;
+        }
+        String rawPort = rawUri.isOpaque() ? null : rawUri.getPort();
+        if (rawPort != null) {
+            int decoded = Integer.parseInt(UriRfc.PORT.validateAndDecode(rawPort));
+            validatePortNumberOrSchemeDefault(decoded);
+            if (decoded >= 0 && host() == null) {
+                throw new InvalidUriException("URI with port must include host");
+            }
+            UriPartValidator.checkPort(decoded);
+            port = decoded;
+        }
+        markResolved(PORT);
+        return port;
+    }
+
+    private List<String> pathSegments() {
+        if (isResolved(PATH)) {
+            return pathSegments;
+        }
+        if (rawUri.isOpaque()) {
+            pathSegments = List.of();
+        } else {
+            String rawPath = rawUri.getPath();
+            List<String> segments = new ArrayList<>();
+            if (!rawPath.isBlank()) {
+                for (String segment : rawPath.split("/")) {
+                    if (!segment.isEmpty()) {
+                        segments.add(UriRfc.PATH_SEGMENT.validateAndDecode(segment));
+                    }
+                }
+            }
+            rootPath = rawPath.startsWith("/") || host() != null;
+            pathSegments = List.copyOf(segments);
+        }
+        markResolved(PATH);
+        return pathSegments;
+    }
+
+    private Map<String, List<String>> queryParams() {
+        if (isResolved(QUERY)) {
+            return queryParams;
+        }
+        String rawQuery = rawUri.isOpaque() ? null : rawUri.getQuery();
+        if (rawQuery == null) {
+            queryParams = Map.of();
+        } else {
+            Map<String, List<String>> result = new LinkedHashMap<>();
+            UriComponentsParser.parseQuery(rawQuery).forEach((name, values) -> {
+                if (!name.isBlank()) {
+                    result.put(name, values);
+                }
+            });
+            queryParams = unmodifiableMap(result);
+        }
+        markResolved(QUERY);
+        return queryParams;
+    }
+
+    private String fragment() {
+        if (isResolved(FRAGMENT)) {
+            return fragment;
+        }
+        String rawFragment = rawUri.getFragment();
+        if (rawFragment != null) {
+            fragment = emptyToNull(UriRfc.FRAGMENT.validateAndDecode(rawFragment));
+        }
+        markResolved(FRAGMENT);
+        return fragment;
+    }
+
+    private boolean isResolved(int component) {
+        return (resolved & component) != 0;
+    }
+
+    private void markResolved(int component) {
+        // Racing threads may drop each other flags. It only leads to resolving a component again.
+        resolved = resolved | component;
+    }
+
+    private InvalidUriException invalidUri(RuntimeException e) {
+        return e instanceof InvalidUriException
+                ? new InvalidUriException("Could not parse uri: \"" + uri + "\". Cause: " + e.getMessage())
+                : new InvalidUriException("Could not parse uri: \"" + uri + "\"");
+    }
+}
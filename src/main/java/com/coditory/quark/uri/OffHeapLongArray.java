@@ -0,0 +1,100 @@
+package com.coditory.quark.uri;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Zero initialized array of longs stored outside the heap, in direct or memory mapped buffers.
+ * Array is split into segments of 1GB, so it can be larger than a single buffer.
+ * All accesses are atomic.
+ */
+final class OffHeapLongArray {
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    static OffHeapLongArray allocateDirect(long length) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes(length, i));
+        }
+        return new OffHeapLongArray(segments, length);
+    }
+
+    /**
+     * Maps a new zero filled file. Previous content of the file is discarded.
+     */
+    static OffHeapLongArray map(Path path, long length) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i << (SEGMENT_SHIFT + 3);
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, segmentBytes(length, i));
+            }
+        }
+        return new OffHeapLongArray(segments, length);
+    }
+
+    private static int segmentCount(long length) {
+        return (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    }
+
+    private static int segmentBytes(long length, int segment) {
+        long remaining = length - ((long) segment << SEGMENT_SHIFT);
+        return (int) (Math.min(remaining, 1L << SEGMENT_SHIFT) << 3);
+    }
+
+    private final ByteBuffer[] segments;
+    private final long length;
+
+    private OffHeapLongArray(ByteBuffer[] segments, long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    long length() {
+        return length;
+    }
+
+    long getVolatile(long index) {
+        return (long) LONGS.getVolatile(segment(index), offset(index));
+    }
+
+    boolean compareAndSet(long index, long expected, long value) {
+        return LONGS.compareAndSet(segment(index), offset(index), expected, value);
+    }
+
+    long getAndBitwiseOr(long index, long mask) {
+        return (long) LONGS.getAndBitwiseOr(segment(index), offset(index), mask);
+    }
+
+    /**
+     * Writes changes of a memory mapped array to the file. Does nothing for a direct array.
+     */
+    void force() {
+        for (ByteBuffer segment : segments) {
+            if (segment instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+    }
+
+    private ByteBuffer segment(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & SEGMENT_MASK) << 3;
+    }
+}
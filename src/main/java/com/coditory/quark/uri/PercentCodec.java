@@ -2,6 +2,7 @@ package com.coditory.quark.uri;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.BitSet;
 
@@ -72,6 +73,81 @@ public final class PercentCodec {
         return decoder.decode(input, out, charset);
     }
 
+    /**
+     * Percent-encodes bytes from the source range into the destination array.
+     * Safe characters are checked byte by byte, so every non-ASCII byte is encoded.
+     *
+     * @return number of bytes written
+     * @throws IndexOutOfBoundsException if any range is out of bounds or the destination is too small
+     */
+    public int encode(@NotNull byte[] src, int offset, int length, @NotNull byte[] dst, int dstOffset) {
+        return encoder.encode(src, offset, length, dst, dstOffset);
+    }
+
+    /**
+     * Returns the number of bytes written by {@link #encode(byte[], int, int, byte[], int)}.
+     */
+    public int encodedLength(@NotNull byte[] src, int offset, int length) {
+        return encoder.encodedLength(src, offset, length);
+    }
+
+    @NotNull
+    public byte[] encode(@NotNull byte[] src) {
+        expectNonNull(src, "src");
+        byte[] dst = new byte[encodedLength(src, 0, src.length)];
+        encode(src, 0, src.length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Percent-encodes remaining bytes of the source buffer into the destination buffer.
+     * Both buffers are advanced only when the whole source is encoded.
+     *
+     * @throws java.nio.BufferOverflowException if the destination has not enough space remaining
+     */
+    public void encode(@NotNull ByteBuffer src, @NotNull ByteBuffer dst) {
+        encoder.encode(src, dst);
+    }
+
+    /**
+     * Decodes percent-encoded bytes from the source range into the destination array.
+     * Decoded bytes are not transcoded, so the configured charset is not used.
+     * Decoded value is never longer than the source, so it may be decoded in place.
+     *
+     * @return number of bytes written
+     * @throws IllegalArgumentException if the source contains an invalid escape sequence
+     * @throws IndexOutOfBoundsException if any range is out of bounds or the destination is too small
+     */
+    public int decode(@NotNull byte[] src, int offset, int length, @NotNull byte[] dst, int dstOffset) {
+        return decoder.decode(src, offset, length, dst, dstOffset);
+    }
+
+    /**
+     * Returns the number of bytes written by {@link #decode(byte[], int, int, byte[], int)}.
+     */
+    public int decodedLength(@NotNull byte[] src, int offset, int length) {
+        return decoder.decodedLength(src, offset, length);
+    }
+
+    @NotNull
+    public byte[] decode(@NotNull byte[] src) {
+        expectNonNull(src, "src");
+        byte[] dst = new byte[decodedLength(src, 0, src.length)];
+        decode(src, 0, src.length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Decodes remaining bytes of the source buffer into the destination buffer.
+     * Both buffers are advanced only when the whole source is decoded.
+     *
+     * @throws IllegalArgumentException if the source contains an invalid escape sequence
+     * @throws java.nio.BufferOverflowException if the destination has not enough space remaining
+     */
+    public void decode(@NotNull ByteBuffer src, @NotNull ByteBuffer dst) {
+        decoder.decode(src, dst);
+    }
+
     @NotNull
     public static PercentCodecBuilder builder() {
         return new PercentCodecBuilder();
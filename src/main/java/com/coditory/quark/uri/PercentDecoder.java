@@ -1,22 +1,42 @@
 package com.coditory.quark.uri;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Objects;
 
 import static com.coditory.quark.uri.Preconditions.expectNonNull;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 final class PercentDecoder {
+    private static final int[] HEX_VALUES = hexValues();
     private final Charset charset;
     private final boolean spaceAsPlus;
+    private final SingleByteCharset singleByteCharset;
 
     private PercentDecoder(boolean spaceAsPlus, Charset charset) {
         this.spaceAsPlus = spaceAsPlus;
         this.charset = expectNonNull(charset, "charset");
+        this.singleByteCharset = SingleByteCharset.of(charset);
+    }
+
+    private static int[] hexValues() {
+        int[] values = new int[128];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = Character.digit(c, 16);
+        }
+        return values;
     }
 
     String decode(String text) {
-        StringBuilder dst = new StringBuilder();
-        decode(text, dst);
+        expectNonNull(text, "text");
+        int first = indexOfEncoded(text, 0);
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder dst = new StringBuilder(text.length());
+        dst.append(text, 0, first);
+        decode(text, first, dst, charset);
         return dst.toString();
     }
 
@@ -28,57 +48,264 @@ final class PercentDecoder {
         expectNonNull(dst, "dst");
         expectNonNull(text, "text");
         expectNonNull(charset, "charset");
-        boolean needToChange = false;
-        int length = text.length();
-        StringBuilder sb = new StringBuilder(length > 500 ? length / 2 : length);
+        int first = indexOfEncoded(text, 0);
+        if (first < 0) {
+            dst.append(text);
+            return false;
+        }
+        int mark = dst.length();
+        dst.append(text, 0, first);
+        try {
+            decode(text, first, dst, charset);
+        } catch (IllegalArgumentException e) {
+            dst.setLength(mark);
+            throw e;
+        }
+        return true;
+    }
+
+    int decodedLength(byte[] src, int offset, int length) {
+        expectNonNull(src, "src");
+        Objects.checkFromIndexSize(offset, length, src.length);
+        int decodedLength = 0;
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (src[i] == '%') {
+                decodeEscape(src, i, end);
+                i += 3;
+            } else {
+                i++;
+            }
+            decodedLength++;
+        }
+        return decodedLength;
+    }
+
+    int decode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        expectNonNull(src, "src");
+        expectNonNull(dst, "dst");
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(dstOffset, 0, dst.length);
+        if (dst.length - dstOffset < length) {
+            Objects.checkFromIndexSize(dstOffset, decodedLength(src, offset, length), dst.length);
+        }
+        int end = offset + length;
+        int i = offset;
+        int j = dstOffset;
+        while (i < end) {
+            byte b = src[i];
+            if (b == '%') {
+                dst[j++] = decodeEscape(src, i, end);
+                i += 3;
+            } else {
+                dst[j++] = b == '+' && spaceAsPlus ? (byte) ' ' : b;
+                i++;
+            }
+        }
+        return j - dstOffset;
+    }
+
+    void decode(ByteBuffer src, ByteBuffer dst) {
+        expectNonNull(src, "src");
+        expectNonNull(dst, "dst");
+        int length = src.remaining();
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) {
+            int offset = src.arrayOffset() + src.position();
+            if (dst.remaining() < length && dst.remaining() < decodedLength(src.array(), offset, length)) {
+                throw new BufferOverflowException();
+            }
+            int written = decode(src.array(), offset, length, dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + written);
+            return;
+        }
+        int start = src.position();
+        int end = src.limit();
+        if (dst.remaining() < length && dst.remaining() < decodedLength(src, start, end)) {
+            throw new BufferOverflowException();
+        }
+        int i = start;
+        int j = dst.position();
+        while (i < end) {
+            byte b = src.get(i);
+            if (b == '%') {
+                dst.put(j++, decodeEscape(src, i, end));
+                i += 3;
+            } else {
+                dst.put(j++, b == '+' && spaceAsPlus ? (byte) ' ' : b);
+                i++;
+            }
+        }
+        src.position(end);
+        dst.position(j);
+    }
+
+    private int decodedLength(ByteBuffer src, int start, int end) {
+        int decodedLength = 0;
+        int i = start;
+        while (i < end) {
+            if (src.get(i) == '%') {
+                decodeEscape(src, i, end);
+                i += 3;
+            } else {
+                i++;
+            }
+            decodedLength++;
+        }
+        return decodedLength;
+    }
+
+    private void appendDecoded(byte[] bytes, int length, Charset charset, StringBuilder dst) {
+        SingleByteCharset table = charset.equals(this.charset)
+                ? singleByteCharset
+                : SingleByteCharset.of(charset);
+        if (table != null) {
+            table.decode(bytes, length, dst);
+        } else {
+            CharsetCoders.decode(bytes, length, charset, dst);
+        }
+    }
+
+    static int hexValue(char high, char low) {
+        return high < HEX_VALUES.length && low < HEX_VALUES.length
+                ? (HEX_VALUES[high] << 4) | HEX_VALUES[low]
+                : -1;
+    }
+
+    static void appendUtf8Decoded(byte[] bytes, int length, StringBuilder dst) {
         int i = 0;
+        while (i < length) {
+            int b1 = bytes[i] & 0xFF;
+            if (b1 < 0x80) {
+                dst.append((char) b1);
+                i++;
+                continue;
+            }
+            int cp = -1;
+            int size = b1 >= 0xF0 ? 4 : b1 >= 0xE0 ? 3 : 2;
+            if (b1 >= 0xC0 && b1 < 0xF8 && i + size <= length) {
+                cp = utf8CodePoint(bytes, i, size, b1);
+            }
+            if (cp < 0) {
+                // malformed sequences are replaced the same way as in String constructor
+                dst.append(new String(bytes, i, length - i, UTF_8));
+                return;
+            }
+            dst.appendCodePoint(cp);
+            i += size;
+        }
+    }
+
+    // Returns -1 for malformed or overlong sequences, surrogates and code points above U+10FFFF
+    private static int utf8CodePoint(byte[] bytes, int index, int size, int b1) {
+        int cp = b1 & (0x7F >> size);
+        for (int i = index + 1; i < index + size; i++) {
+            int b = bytes[i];
+            if ((b & 0xC0) != 0x80) {
+                return -1;
+            }
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        int min = size == 2 ? 0x80 : size == 3 ? 0x800 : 0x10000;
+        return cp < min || cp > Character.MAX_CODE_POINT || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)
+                ? -1
+                : cp;
+    }
+
+    private static byte decodeEscape(byte[] src, int index, int end) {
+        if (index + 2 >= end) {
+            throw new IllegalArgumentException("Incomplete trailing escape (%) pattern");
+        }
+        return decodeEscape(src[index + 1], src[index + 2]);
+    }
+
+    private static byte decodeEscape(ByteBuffer src, int index, int end) {
+        if (index + 2 >= end) {
+            throw new IllegalArgumentException("Incomplete trailing escape (%) pattern");
+        }
+        return decodeEscape(src.get(index + 1), src.get(index + 2));
+    }
+
+    private static byte decodeEscape(byte high, byte low) {
+        int h = Character.digit(high, 16);
+        int l = Character.digit(low, 16);
+        if (h < 0 || l < 0) {
+            throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern");
+        }
+        return (byte) ((h << 4) | l);
+    }
+
+    // String.indexOf is an intrinsic that scans many characters at once
+    private int indexOfEncoded(String text, int from) {
+        int escape = text.indexOf('%', from);
+        if (!spaceAsPlus) {
+            return escape;
+        }
+        int plus = text.indexOf('+', from, escape < 0 ? text.length() : escape);
+        return plus < 0 ? escape : plus;
+    }
+
+    private void decode(String text, int start, StringBuilder dst, Charset charset) {
+        int length = text.length();
+        int i = start;
+        // single scratch buffer for all escaped sequences, the first one is the longest possible
         byte[] bytes = null;
+        int nextEscape = start;
+        int nextPlus = spaceAsPlus ? start : -1;
         while (i < length) {
             char c = text.charAt(i);
-            switch (c) {
-                case '+' -> {
-                    if (!spaceAsPlus) {
-                        sb.append('+');
-                    } else {
-                        sb.append(' ');
-                        needToChange = true;
+            if (c == '+' && spaceAsPlus) {
+                dst.append(' ');
+                i++;
+            } else if (c == '%') {
+                try {
+                    if (bytes == null) {
+                        bytes = new byte[(length - i) / 3];
                     }
-                    i++;
-                }
-                case '%' -> {
-                    try {
-                        if (bytes == null) {
-                            bytes = new byte[(length - i) / 3];
+                    int pos = 0;
+                    while ((i + 2) < length && c == '%') {
+                        int v = hexValue(text.charAt(i + 1), text.charAt(i + 2));
+                        if (v < 0) {
+                            // slow path keeps the exact Integer.parseInt semantics and error messages
+                            v = Integer.parseInt(text, i + 1, i + 3, 16);
                         }
-                        int pos = 0;
-                        while ((i + 2) < length && c == '%') {
-                            int v = Integer.parseInt(text, i + 1, i + 3, 16);
-                            if (v < 0) {
-                                throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern - negative value");
-                            }
-                            bytes[pos++] = (byte) v;
-                            i += 3;
-                            if (i < length) {
-                                c = text.charAt(i);
-                            }
+                        if (v < 0) {
+                            throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern - negative value");
                         }
-                        if (i < length && c == '%') {
-                            throw new IllegalArgumentException("Incomplete trailing escape (%) pattern");
+                        bytes[pos++] = (byte) v;
+                        i += 3;
+                        if (i < length) {
+                            c = text.charAt(i);
                         }
-                        sb.append(new String(bytes, 0, pos, charset));
-                    } catch (NumberFormatException e) {
-                        throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern - " + e.getMessage());
                     }
-                    needToChange = true;
+                    if (i < length && c == '%') {
+                        throw new IllegalArgumentException("Incomplete trailing escape (%) pattern");
+                    }
+                    if (UTF_8.equals(charset)) {
+                        appendUtf8Decoded(bytes, pos, dst);
+                    } else {
+                        appendDecoded(bytes, pos, charset, dst);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern - " + e.getMessage());
+                }
+            } else {
+                // next positions are cached to keep the scan linear, -1 means there is none left
+                if (nextEscape != -1 && nextEscape < i) {
+                    nextEscape = text.indexOf('%', i);
                 }
-                default -> {
-                    sb.append(c);
-                    i++;
+                if (spaceAsPlus && nextPlus != -1 && nextPlus < i) {
+                    nextPlus = text.indexOf('+', i);
                 }
+                int plainEnd = Math.min(
+                        nextEscape < 0 ? length : nextEscape,
+                        nextPlus < 0 ? length : nextPlus
+                );
+                dst.append(text, i, plainEnd);
+                i = plainEnd;
             }
         }
-        dst.append(sb);
-        return needToChange;
     }
 
     static PercentDecoderBuilder builder() {
@@ -1,8 +1,10 @@
 package com.coditory.quark.uri;
 
-import java.io.CharArrayWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.BitSet;
+import java.util.Objects;
 
 import static com.coditory.quark.uri.BitSets.unmodifiableBitSet;
 import static com.coditory.quark.uri.Preconditions.expectNonNull;
@@ -10,20 +12,34 @@ import static com.coditory.quark.uri.UriRfcCharacters.URI_UNRESERVED;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 final class PercentEncoder {
-    private static final int CASE_DIFF = ('a' - 'A');
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final int ASCII_SIZE = 128;
     private final boolean spaceAsPlus;
     private final Charset charset;
     private final BitSet safeCharacters;
+    private final boolean[] safeAscii;
+    private final SingleByteCharset singleByteCharset;
 
     private PercentEncoder(BitSet safeCharacters, boolean spaceAsPlus, Charset charset) {
         this.spaceAsPlus = spaceAsPlus;
         this.charset = expectNonNull(charset, "charset");
         this.safeCharacters = expectNonNull(safeCharacters, "safeCharacters");
+        this.safeAscii = new boolean[ASCII_SIZE];
+        for (int c = 0; c < ASCII_SIZE; c++) {
+            safeAscii[c] = safeCharacters.get(c);
+        }
+        this.singleByteCharset = SingleByteCharset.of(charset);
     }
 
     String encode(String text) {
-        StringBuilder dst = new StringBuilder();
-        encode(text, dst);
+        expectNonNull(text, "text");
+        int unchanged = unchangedPrefixLength(text);
+        if (unchanged == text.length()) {
+            return text;
+        }
+        StringBuilder dst = new StringBuilder(text.length() + 16);
+        dst.append(text, 0, unchanged);
+        encode(text, unchanged, dst, charset);
         return dst.toString();
     }
 
@@ -35,58 +51,205 @@ final class PercentEncoder {
         expectNonNull(dst, "dst");
         expectNonNull(text, "text");
         expectNonNull(charset, "charset");
-        boolean needToChange = false;
-        StringBuilder out = new StringBuilder(text.length());
-        CharArrayWriter charArrayWriter = new CharArrayWriter();
+        int unchanged = unchangedPrefixLength(text);
+        dst.append(text, 0, unchanged);
+        return unchanged < text.length() && encode(text, unchanged, dst, charset);
+    }
+
+    int encodedLength(byte[] src, int offset, int length) {
+        expectNonNull(src, "src");
+        Objects.checkFromIndexSize(offset, length, src.length);
+        int encodedLength = length;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (isEscaped(src[i])) {
+                encodedLength += 2;
+            }
+        }
+        return encodedLength;
+    }
+
+    int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        expectNonNull(src, "src");
+        expectNonNull(dst, "dst");
+        Objects.checkFromIndexSize(offset, length, src.length);
+        Objects.checkFromIndexSize(dstOffset, 0, dst.length);
+        if (dst.length - dstOffset < 3L * length) {
+            Objects.checkFromIndexSize(dstOffset, encodedLength(src, offset, length), dst.length);
+        }
+        int end = offset + length;
+        int j = dstOffset;
+        for (int i = offset; i < end; i++) {
+            byte b = src[i];
+            if (b == ' ' && spaceAsPlus) {
+                dst[j++] = '+';
+            } else if (b >= 0 && safeAscii[b]) {
+                dst[j++] = b;
+            } else {
+                dst[j++] = '%';
+                dst[j++] = (byte) HEX_DIGITS[(b >> 4) & 0xF];
+                dst[j++] = (byte) HEX_DIGITS[b & 0xF];
+            }
+        }
+        return j - dstOffset;
+    }
+
+    void encode(ByteBuffer src, ByteBuffer dst) {
+        expectNonNull(src, "src");
+        expectNonNull(dst, "dst");
+        int length = src.remaining();
+        if (src.hasArray() && dst.hasArray() && !dst.isReadOnly()) {
+            int offset = src.arrayOffset() + src.position();
+            int required = dst.remaining() < 3L * length
+                    ? encodedLength(src.array(), offset, length)
+                    : 0;
+            if (dst.remaining() < required) {
+                throw new BufferOverflowException();
+            }
+            int written = encode(src.array(), offset, length, dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + written);
+            return;
+        }
+        int start = src.position();
+        int end = src.limit();
+        if (dst.remaining() < 3L * length && dst.remaining() < encodedLength(src, start, end)) {
+            throw new BufferOverflowException();
+        }
+        int j = dst.position();
+        for (int i = start; i < end; i++) {
+            byte b = src.get(i);
+            if (b == ' ' && spaceAsPlus) {
+                dst.put(j++, (byte) '+');
+            } else if (b >= 0 && safeAscii[b]) {
+                dst.put(j++, b);
+            } else {
+                dst.put(j++, (byte) '%');
+                dst.put(j++, (byte) HEX_DIGITS[(b >> 4) & 0xF]);
+                dst.put(j++, (byte) HEX_DIGITS[b & 0xF]);
+            }
+        }
+        src.position(end);
+        dst.position(j);
+    }
+
+    private int encodedLength(ByteBuffer src, int start, int end) {
+        int encodedLength = end - start;
+        for (int i = start; i < end; i++) {
+            if (isEscaped(src.get(i))) {
+                encodedLength += 2;
+            }
+        }
+        return encodedLength;
+    }
+
+    private boolean isEscaped(byte b) {
+        return b < 0 || (!safeAscii[b] && !(b == ' ' && spaceAsPlus));
+    }
+
+    private int unchangedPrefixLength(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= ASCII_SIZE || !safeAscii[c] || (c == ' ' && spaceAsPlus)) {
+                return i;
+            }
+        }
+        return length;
+    }
 
-        for (int i = 0; i < text.length(); ) {
+    private boolean encode(String text, int start, StringBuilder dst, Charset charset) {
+        boolean needToChange = false;
+        int length = text.length();
+        int i = start;
+        while (i < length) {
             int cp = text.codePointAt(i);
             if (cp == ' ' && spaceAsPlus) {
-                out.append('+');
+                dst.append('+');
                 needToChange = true;
                 i++;
-            } else if (safeCharacters.get(cp) && (cp != '+' || !spaceAsPlus)) {
-                out.appendCodePoint(cp);
+            } else if (isSafe(cp)) {
+                dst.appendCodePoint(cp);
                 i += Character.charCount(cp);
             } else {
+                int runStart = i;
                 do {
-                    char c = text.charAt(i);
-                    charArrayWriter.write(c);
-                    if (c >= 0xD800 && c <= 0xDBFF) {
-                        if ((i + 1) < text.length()) {
-                            char d = text.charAt(i + 1);
-                            if (d >= 0xDC00 && d <= 0xDFFF) {
-                                charArrayWriter.write(d);
-                                i++;
-                            }
-                        }
-                    }
-                    i++;
-                } while (i < text.length() && !safeCharacters.get(text.codePointAt(i)));
-                charArrayWriter.flush();
-                byte[] bytes = new String(charArrayWriter.toCharArray())
-                        .getBytes(charset);
-                for (byte aByte : bytes) {
-                    out.append('%');
-                    char c = Character.forDigit((aByte >> 4) & 0xF, 16);
-                    if (Character.isLetter(c)) {
-                        c -= CASE_DIFF;
-                    }
-                    out.append(c);
-                    c = Character.forDigit(aByte & 0xF, 16);
-                    if (Character.isLetter(c)) {
-                        c -= CASE_DIFF;
-                    }
-                    out.append(c);
+                    i += Character.isHighSurrogate(text.charAt(i))
+                            && i + 1 < length
+                            && Character.isLowSurrogate(text.charAt(i + 1)) ? 2 : 1;
+                } while (i < length && !isSafe(text.codePointAt(i)) && !(text.charAt(i) == ' ' && spaceAsPlus));
+                if (UTF_8.equals(charset)) {
+                    appendUtf8Encoded(text, runStart, i, dst);
+                } else if (!appendSingleByteEncoded(text, runStart, i, charset, dst)) {
+                    appendEncoded(CharsetCoders.encode(text, runStart, i, charset), dst);
                 }
-                charArrayWriter.reset();
                 needToChange = true;
             }
         }
-        dst.append(out);
         return needToChange;
     }
 
+    private boolean isSafe(int cp) {
+        return cp < ASCII_SIZE ? safeAscii[cp] : safeCharacters.get(cp);
+    }
+
+    private static void appendUtf8Encoded(String text, int start, int end, StringBuilder dst) {
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i++);
+            if (c < 0x80) {
+                appendEncoded(c, dst);
+            } else if (c < 0x800) {
+                appendEncoded(0xC0 | (c >> 6), dst);
+                appendEncoded(0x80 | (c & 0x3F), dst);
+            } else if (!Character.isSurrogate(c)) {
+                appendEncoded(0xE0 | (c >> 12), dst);
+                appendEncoded(0x80 | ((c >> 6) & 0x3F), dst);
+                appendEncoded(0x80 | (c & 0x3F), dst);
+            } else if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                int cp = Character.toCodePoint(c, text.charAt(i++));
+                appendEncoded(0xF0 | (cp >> 18), dst);
+                appendEncoded(0x80 | ((cp >> 12) & 0x3F), dst);
+                appendEncoded(0x80 | ((cp >> 6) & 0x3F), dst);
+                appendEncoded(0x80 | (cp & 0x3F), dst);
+            } else {
+                // malformed surrogate is replaced the same way as in String.getBytes
+                appendEncoded('?', dst);
+            }
+        }
+    }
+
+    private boolean appendSingleByteEncoded(String text, int start, int end, Charset charset, StringBuilder dst) {
+        SingleByteCharset table = charset.equals(this.charset)
+                ? singleByteCharset
+                : SingleByteCharset.of(charset);
+        if (table == null) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (table.encode(text.charAt(i)) < 0) {
+                // unmappable characters are replaced by the charset encoder
+                return false;
+            }
+        }
+        for (int i = start; i < end; i++) {
+            appendEncoded(table.encode(text.charAt(i)), dst);
+        }
+        return true;
+    }
+
+    private static void appendEncoded(ByteBuffer bytes, StringBuilder dst) {
+        while (bytes.hasRemaining()) {
+            appendEncoded(bytes.get() & 0xFF, dst);
+        }
+    }
+
+    private static void appendEncoded(int b, StringBuilder dst) {
+        dst.append('%')
+                .append(HEX_DIGITS[b >> 4])
+                .append(HEX_DIGITS[b & 0xF]);
+    }
+
     static PercentEncoderBuilder builder() {
         return new PercentEncoderBuilder();
     }
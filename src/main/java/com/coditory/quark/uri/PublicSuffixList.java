@@ -0,0 +1,341 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * <a href="https://publicsuffix.org">Public Suffix List</a> used to find public suffixes (eTLD)
+ * and registrable domains (eTLD+1) of hosts.
+ * <p>
+ * Rules are compiled to a trie of reversed labels. Host is looked up by walking its labels from right to left
+ * on the original string, without splitting it. The longest matching rule wins, exception rules win over
+ * wildcard rules and a host that matches no rule is treated as if its top level label was a public suffix.
+ * Ip addresses have no public suffix. Rules with unicode labels are matched in the punycode form as well.
+ * <p>
+ * Copy of the list is bundled with the library and compiled on first use.
+ * A newer list can be loaded from a file and installed as the default one without restarting the application.
+ * Instances are immutable and safe to use from many threads.
+ */
+public final class PublicSuffixList {
+    private static final byte RULE = 1;
+    // every child of the node is a public suffix
+    private static final byte WILDCARD = 2;
+    private static final byte EXCEPTION = 4;
+    private static final String BUNDLED_LIST = "public_suffix_list.dat";
+    private static final String PRIVATE_DOMAINS_START = "===BEGIN PRIVATE DOMAINS===";
+    private static volatile PublicSuffixList instance;
+
+    /**
+     * Returns the default list. It is the bundled one, unless it was replaced with {@link #setInstance(PublicSuffixList)}.
+     */
+    @NotNull
+    public static PublicSuffixList instance() {
+        PublicSuffixList current = instance;
+        return current != null ? current : bundled();
+    }
+
+    /**
+     * Replaces the default list, for example with a newer one loaded by {@link #load(Path)}.
+     */
+    public static void setInstance(@NotNull PublicSuffixList publicSuffixList) {
+        instance = expectNonNull(publicSuffixList, "publicSuffixList");
+    }
+
+    /**
+     * Returns the list bundled with the library, including private domains.
+     */
+    @NotNull
+    public static PublicSuffixList bundled() {
+        return BundledPublicSuffixList.INSTANCE;
+    }
+
+    /**
+     * Loads list in the <a href="https://publicsuffix.org/list/">publicsuffix.org format</a>, including private domains.
+     */
+    @NotNull
+    public static PublicSuffixList load(@NotNull Path path) throws IOException {
+        return load(path, true);
+    }
+
+    @NotNull
+    public static PublicSuffixList load(@NotNull Path path, boolean includePrivateDomains) throws IOException {
+        expectNonNull(path, "path");
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader, includePrivateDomains);
+        }
+    }
+
+    @NotNull
+    public static PublicSuffixList read(@NotNull Reader reader, boolean includePrivateDomains) throws IOException {
+        expectNonNull(reader, "reader");
+        PublicSuffixListBuilder builder = new PublicSuffixListBuilder();
+        BufferedReader lines = reader instanceof BufferedReader bufferedReader
+                ? bufferedReader
+                : new BufferedReader(reader);
+        boolean privateDomains = false;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.strip();
+            if (line.startsWith("//")) {
+                privateDomains = privateDomains || line.contains(PRIVATE_DOMAINS_START);
+            } else if (!line.isEmpty() && (includePrivateDomains || !privateDomains)) {
+                int ruleEnd = 0;
+                while (ruleEnd < line.length() && !Character.isWhitespace(line.charAt(ruleEnd))) {
+                    ruleEnd++;
+                }
+                builder.add(line.substring(0, ruleEnd));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates list from rules like "com", "*.ck" or "!www.ck".
+     */
+    @NotNull
+    public static PublicSuffixList of(@NotNull String... rules) {
+        expectNonNull(rules, "rules");
+        return of(Arrays.asList(rules));
+    }
+
+    @NotNull
+    public static PublicSuffixList of(@NotNull Collection<String> rules) {
+        expectNonNull(rules, "rules");
+        PublicSuffixListBuilder builder = new PublicSuffixListBuilder();
+        for (String rule : rules) {
+            builder.add(expectNonNull(rule, "rule"));
+        }
+        return builder.build();
+    }
+
+    private final LabelTrie trie;
+    private final int rules;
+
+    private PublicSuffixList(LabelTrie trie, int rules) {
+        this.trie = trie;
+        this.rules = rules;
+    }
+
+    /**
+     * Returns public suffix of the host ("co.uk" for "www.coditory.co.uk")
+     * or null if the host is an ip address or is not valid.
+     */
+    @Nullable
+    public String publicSuffix(@Nullable String host) {
+        if (host == null) {
+            return null;
+        }
+        int start = publicSuffixStart(host, 0, host.length());
+        return start < 0 ? null : host.substring(start, hostEnd(host, 0, host.length()));
+    }
+
+    @Nullable
+    public String publicSuffix(@Nullable UriComponents uriComponents) {
+        return uriComponents == null ? null : publicSuffix(uriComponents.getHost());
+    }
+
+    /**
+     * Returns registrable domain of the host ("coditory.co.uk" for "www.coditory.co.uk")
+     * or null if the host is a public suffix, an ip address or is not valid.
+     */
+    @Nullable
+    public String registrableDomain(@Nullable String host) {
+        if (host == null) {
+            return null;
+        }
+        int start = registrableDomainStart(host, 0, host.length());
+        return start < 0 ? null : host.substring(start, hostEnd(host, 0, host.length()));
+    }
+
+    @Nullable
+    public String registrableDomain(@Nullable UriComponents uriComponents) {
+        return uriComponents == null ? null : registrableDomain(uriComponents.getHost());
+    }
+
+    public boolean isPublicSuffix(@Nullable String host) {
+        return host != null && publicSuffixStart(host, 0, host.length()) == 0;
+    }
+
+    /**
+     * Returns index where the public suffix of the host from the source range starts
+     * or -1 if the host is an ip address or is not valid. Single trailing dot of the host is ignored.
+     */
+    public int publicSuffixStart(@NotNull String source, int start, int end) {
+        expectNonNull(source, "source");
+        end = hostEnd(source, start, end);
+        if (start >= end || source.charAt(start) == '[' || isInetV4Address(source, start, end)) {
+            return -1;
+        }
+        int node = LabelTrie.ROOT;
+        int suffixStart = -1;
+        int labelEnd = end;
+        while (true) {
+            int hash = 0;
+            int labelStart = labelEnd;
+            while (labelStart > start && source.charAt(labelStart - 1) != '.') {
+                hash = LabelTrie.hash(hash, source.charAt(--labelStart));
+            }
+            if (labelStart == labelEnd) {
+                return -1;
+            }
+            boolean wildcard = (trie.flags(node) & WILDCARD) != 0;
+            int child = trie.findChild(node, hash, source, labelStart, labelEnd);
+            byte flags = child == LabelTrie.NO_NODE ? 0 : trie.flags(child);
+            if ((flags & EXCEPTION) != 0) {
+                // exception rule without its leftmost label is the public suffix
+                suffixStart = labelEnd + 1;
+                break;
+            }
+            if (node == LabelTrie.ROOT || wildcard || (flags & RULE) != 0) {
+                suffixStart = labelStart;
+            }
+            if (child == LabelTrie.NO_NODE || labelStart == start) {
+                break;
+            }
+            node = child;
+            labelEnd = labelStart - 1;
+        }
+        return suffixStart == start || hasNoEmptyLabels(source, start, suffixStart - 1)
+                ? suffixStart
+                : -1;
+    }
+
+    /**
+     * Returns index where the registrable domain of the host from the source range starts
+     * or -1 if the host is a public suffix, an ip address or is not valid.
+     */
+    public int registrableDomainStart(@NotNull String source, int start, int end) {
+        int suffixStart = publicSuffixStart(source, start, end);
+        if (suffixStart <= start) {
+            return -1;
+        }
+        return Math.max(source.lastIndexOf('.', suffixStart - 2) + 1, start);
+    }
+
+    /**
+     * Returns number of unique rules.
+     */
+    public int size() {
+        return rules;
+    }
+
+    private static int hostEnd(String source, int start, int end) {
+        return end > start && source.charAt(end - 1) == '.' ? end - 1 : end;
+    }
+
+    private static boolean isInetV4Address(String source, int start, int end) {
+        char last = source.charAt(end - 1);
+        return last >= '0' && last <= '9'
+                && InetAddressValidator.parseInetV4Address(source, start, end) != InetAddressValidator.INVALID_INET_V4_ADDRESS;
+    }
+
+    private static boolean hasNoEmptyLabels(String source, int start, int end) {
+        if (start >= end || source.charAt(start) == '.' || source.charAt(end - 1) == '.') {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            if (source.charAt(i) == '.' && source.charAt(i - 1) == '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "PublicSuffixList{" +
+                "rules=" + rules +
+                ", nodes=" + trie.nodeCount() +
+                '}';
+    }
+
+    private static final class PublicSuffixListBuilder {
+        private final LabelTrie.LabelTrieBuilder trie = new LabelTrie.LabelTrieBuilder();
+        private int rules = 0;
+
+        void add(String rule) {
+            if (rule.equals("*")) {
+                // default rule is always applied
+                return;
+            }
+            if (rule.startsWith("!")) {
+                add(rule, 1, EXCEPTION);
+            } else if (rule.startsWith("*.")) {
+                add(rule, 2, WILDCARD);
+            } else {
+                add(rule, 0, RULE);
+            }
+        }
+
+        private void add(String rule, int start, byte flag) {
+            expect(isValidRule(rule, start), "Expected valid public suffix rule. Got: %s", rule);
+            boolean added = trie.addFlag(trie.add(rule, start, rule.length()), flag);
+            String asciiRule = toAscii(rule, start);
+            if (asciiRule != null) {
+                trie.addFlag(trie.add(asciiRule, 0, asciiRule.length()), flag);
+            }
+            if (added) {
+                rules++;
+            }
+        }
+
+        private static boolean isValidRule(String rule, int start) {
+            int end = rule.length();
+            if (start >= end || rule.charAt(start) == '.' || rule.charAt(end - 1) == '.') {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                char c = rule.charAt(i);
+                if (c == '*' || c == '!' || Character.isWhitespace(c) || (c == '.' && rule.charAt(i - 1) == '.')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Returns punycode form of a rule with unicode labels or null if the rule is already in ascii
+        @Nullable
+        private static String toAscii(String rule, int start) {
+            for (int i = start; i < rule.length(); i++) {
+                if (rule.charAt(i) >= 0x80) {
+                    return Idn.toAsciiOrNull(rule.substring(start));
+                }
+            }
+            return null;
+        }
+
+        PublicSuffixList build() {
+            return new PublicSuffixList(trie.build(), rules);
+        }
+    }
+
+    private static final class BundledPublicSuffixList {
+        static final PublicSuffixList INSTANCE = loadBundled();
+
+        private static PublicSuffixList loadBundled() {
+            try (InputStream inputStream = PublicSuffixList.class.getResourceAsStream(BUNDLED_LIST)) {
+                if (inputStream == null) {
+                    throw new IllegalStateException("Missing bundled public suffix list: " + BUNDLED_LIST);
+                }
+                return read(new InputStreamReader(inputStream, StandardCharsets.UTF_8), true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read bundled public suffix list", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.coditory.quark.uri;
+
+/**
+ * Punycode encoding of a single domain label as specified in <a href="https://www.rfc-editor.org/rfc/rfc3492">RFC 3492</a>.
+ * Encoded label does not include the "xn--" prefix.
+ */
+final class Punycode {
+    private Punycode() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    private static final int BASE = 36;
+    private static final int T_MIN = 1;
+    private static final int T_MAX = 26;
+    private static final int SKEW = 38;
+    private static final int DAMP = 700;
+    private static final int INITIAL_BIAS = 72;
+    private static final int INITIAL_N = 0x80;
+    private static final char DELIMITER = '-';
+
+    /**
+     * Appends encoded label to the output.
+     *
+     * @return false if the label is too long to be encoded
+     */
+    static boolean encode(String label, StringBuilder out) {
+        int codePoints = 0;
+        int basic = 0;
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c < INITIAL_N) {
+                out.append(c);
+                basic++;
+            }
+            if (!Character.isLowSurrogate(c) || i == 0 || !Character.isHighSurrogate(label.charAt(i - 1))) {
+                codePoints++;
+            }
+        }
+        if (basic > 0) {
+            out.append(DELIMITER);
+        }
+        int n = INITIAL_N;
+        int delta = 0;
+        int bias = INITIAL_BIAS;
+        int handled = basic;
+        while (handled < codePoints) {
+            int next = Integer.MAX_VALUE;
+            for (int i = 0; i < label.length(); ) {
+                int codePoint = label.codePointAt(i);
+                if (codePoint >= n && codePoint < next) {
+                    next = codePoint;
+                }
+                i += Character.charCount(codePoint);
+            }
+            if (next - n > (Integer.MAX_VALUE - delta) / (handled + 1)) {
+                return false;
+            }
+            delta += (next - n) * (handled + 1);
+            n = next;
+            for (int i = 0; i < label.length(); ) {
+                int codePoint = label.codePointAt(i);
+                i += Character.charCount(codePoint);
+                if (codePoint < n && ++delta == 0) {
+                    return false;
+                }
+                if (codePoint == n) {
+                    int q = delta;
+                    for (int k = BASE; ; k += BASE) {
+                        int t = threshold(k, bias);
+                        if (q < t) {
+                            break;
+                        }
+                        out.append(digit(t + (q - t) % (BASE - t)));
+                        q = (q - t) / (BASE - t);
+                    }
+                    out.append(digit(q));
+                    bias = adapt(delta, handled + 1, handled == basic);
+                    delta = 0;
+                    handled++;
+                }
+            }
+            delta++;
+            n++;
+        }
+        return true;
+    }
+
+    /**
+     * Appends decoded label from the source range to the output.
+     *
+     * @return false if the range is not a valid punycode
+     */
+    static boolean decode(String source, int start, int end, StringBuilder out) {
+        int delimiter = source.lastIndexOf(DELIMITER, end - 1);
+        int basicEnd = delimiter >= start ? delimiter : start;
+        // every encoded code point takes at least one character
+        int[] codePoints = new int[end - start];
+        int length = 0;
+        for (int i = start; i < basicEnd; i++) {
+            char c = source.charAt(i);
+            if (c >= INITIAL_N) {
+                return false;
+            }
+            codePoints[length++] = c;
+        }
+        int n = INITIAL_N;
+        int i = 0;
+        int bias = INITIAL_BIAS;
+        int position = delimiter >= start ? delimiter + 1 : start;
+        while (position < end) {
+            int previousI = i;
+            int weight = 1;
+            for (int k = BASE; ; k += BASE) {
+                if (position >= end) {
+                    return false;
+                }
+                int digit = digitValue(source.charAt(position++));
+                if (digit < 0 || digit > (Integer.MAX_VALUE - i) / weight) {
+                    return false;
+                }
+                i += digit * weight;
+                int t = threshold(k, bias);
+                if (digit < t) {
+                    break;
+                }
+                if (weight > Integer.MAX_VALUE / (BASE - t)) {
+                    return false;
+                }
+                weight *= BASE - t;
+            }
+            bias = adapt(i - previousI, length + 1, previousI == 0);
+            if (i / (length + 1) > Integer.MAX_VALUE - n) {
+                return false;
+            }
+            n += i / (length + 1);
+            i %= length + 1;
+            if (n > Character.MAX_CODE_POINT || (n >= Character.MIN_SURROGATE && n <= Character.MAX_SURROGATE)) {
+                return false;
+            }
+            System.arraycopy(codePoints, i, codePoints, i + 1, length - i);
+            codePoints[i++] = n;
+            length++;
+        }
+        for (int j = 0; j < length; j++) {
+            out.appendCodePoint(codePoints[j]);
+        }
+        return true;
+    }
+
+    private static int threshold(int k, int bias) {
+        if (k <= bias) {
+            return T_MIN;
+        }
+        return k >= bias + T_MAX ? T_MAX : k - bias;
+    }
+
+    private static int adapt(int delta, int codePoints, boolean first) {
+        delta = first ? delta / DAMP : delta / 2;
+        delta += delta / codePoints;
+        int k = 0;
+        while (delta > ((BASE - T_MIN) * T_MAX) / 2) {
+            delta /= BASE - T_MIN;
+            k += BASE;
+        }
+        return k + (BASE - T_MIN + 1) * delta / (delta + SKEW);
+    }
+
+    private static char digit(int value) {
+        return (char) (value < 26 ? 'a' + value : '0' + value - 26);
+    }
+
+    private static int digitValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 26;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        return -1;
+    }
+}
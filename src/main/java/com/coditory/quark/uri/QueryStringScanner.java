@@ -0,0 +1,144 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiConsumer;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Reads query parameters straight from a raw (encoded) query string,
+ * without building a map of all parameters.
+ * <p>
+ * Query is split and decoded the same way as in {@link UriComponents#fromQueryString(String)}:
+ * leading "?" is skipped and parameters with blank names are ignored.
+ * Only the decoded parts are validated, so an invalid parameter
+ * is reported with {@link InvalidUriException} only when it is visited or matched.
+ */
+public final class QueryStringScanner {
+    private QueryStringScanner() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    /**
+     * Passes decoded name and value of every query parameter to the visitor, in the query order.
+     * Parameter without a value is visited with an empty value.
+     */
+    public static void forEach(@NotNull String rawQuery, @NotNull BiConsumer<String, String> visitor) {
+        expectNonNull(rawQuery, "rawQuery");
+        expectNonNull(visitor, "visitor");
+        int end = rawQuery.length();
+        int i = skipQuestionMark(rawQuery);
+        while (i < end) {
+            int nameEnd = nameEnd(rawQuery, i, end);
+            if (nameEnd == i) {
+                i++;
+                continue;
+            }
+            int valueEnd = valueEnd(rawQuery, nameEnd, end);
+            String name = UriRfc.QUERY_PARAM.validateAndDecode(rawQuery, i, nameEnd);
+            if (!name.isBlank()) {
+                visitor.accept(name, decodeValue(rawQuery, nameEnd, valueEnd));
+            }
+            i = valueEnd;
+        }
+    }
+
+    /**
+     * Returns decoded value of the first parameter with the given name or null if there is no such parameter.
+     * Names are compared against the encoded form, only the matching value is decoded.
+     */
+    @Nullable
+    public static String find(@NotNull String rawQuery, @NotNull String name) {
+        expectNonNull(rawQuery, "rawQuery");
+        expectNonNull(name, "name");
+        if (name.isBlank()) {
+            return null;
+        }
+        int end = rawQuery.length();
+        int i = skipQuestionMark(rawQuery);
+        while (i < end) {
+            int nameEnd = nameEnd(rawQuery, i, end);
+            if (nameEnd == i) {
+                i++;
+                continue;
+            }
+            int valueEnd = valueEnd(rawQuery, nameEnd, end);
+            if (encodedNameEquals(rawQuery, i, nameEnd, name)) {
+                UriRfc.QUERY_PARAM.checkValidEncoded(rawQuery, i, nameEnd);
+                return decodeValue(rawQuery, nameEnd, valueEnd);
+            }
+            i = valueEnd;
+        }
+        return null;
+    }
+
+    private static int skipQuestionMark(String query) {
+        return query.startsWith("?") ? 1 : 0;
+    }
+
+    private static int nameEnd(String query, int start, int end) {
+        int i = start;
+        char c;
+        while (i < end && (c = query.charAt(i)) != '&' && c != '=') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int valueEnd(String query, int nameEnd, int end) {
+        if (nameEnd == end || query.charAt(nameEnd) != '=') {
+            return nameEnd;
+        }
+        int i = nameEnd + 1;
+        while (i < end && query.charAt(i) != '&') {
+            i++;
+        }
+        return i;
+    }
+
+    private static String decodeValue(String query, int nameEnd, int valueEnd) {
+        return nameEnd == valueEnd
+                ? ""
+                : UriRfc.QUERY_PARAM.validateAndDecode(query, nameEnd + 1, valueEnd);
+    }
+
+    private static boolean encodedNameEquals(String query, int start, int end, String name) {
+        int length = name.length();
+        int j = 0;
+        int i = start;
+        while (i < end) {
+            char c = query.charAt(i);
+            if (c == '%') {
+                int decoded = decodeHexByte(query, i, end);
+                if (decoded < 0) {
+                    return false;
+                }
+                if (decoded >= 0x80) {
+                    // multibyte character, compare the decoded form
+                    return name.equals(UriRfc.QUERY_PARAM.decodeIfValid(query, start, end));
+                }
+                c = (char) decoded;
+                i += 3;
+            } else {
+                c = c == '+' ? ' ' : c;
+                i++;
+            }
+            if (j == length || name.charAt(j) != c) {
+                return false;
+            }
+            j++;
+        }
+        return j == length;
+    }
+
+    private static int decodeHexByte(String query, int index, int end) {
+        if (index + 2 >= end) {
+            return -1;
+        }
+        int high = Character.digit(query.charAt(index + 1), 16);
+        int low = Character.digit(query.charAt(index + 2), 16);
+        return high < 0 || low < 0 ? -1 : (high << 4) + low;
+    }
+}
@@ -0,0 +1,316 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.Nullable;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Boundaries of raw (still encoded) uri components found in a single pass over the input.
+ * Splits input the same way as the regex from RFC 3986, appendix B.
+ *
+ * @link https://datatracker.ietf.org/doc/html/rfc3986#appendix-B
+ */
+final class RawUri {
+    private static final int NONE = -1;
+
+    static RawUri parse(String uri) {
+        expectNonNull(uri, "uri");
+        RawUri result = new RawUri(uri);
+        result.scan();
+        return result;
+    }
+
+    private final String uri;
+    private int schemeEnd = NONE;
+    private int authorityStart = NONE;
+    private int userInfoEnd = NONE;
+    private int hostStart = NONE;
+    private int hostEnd = NONE;
+    private int portStart = NONE;
+    private int pathStart = 0;
+    private int pathEnd = 0;
+    private int queryStart = NONE;
+    private int queryEnd = NONE;
+    private int fragmentStart = NONE;
+    private int errorPosition = NONE;
+
+    private RawUri(String uri) {
+        this.uri = uri;
+    }
+
+    private void scan() {
+        int length = uri.length();
+        int i = scanScheme();
+        if (uri.startsWith("//", i)) {
+            i = scanAuthority(i + 2);
+        }
+        pathStart = i;
+        while (i < length && !isPathEnd(uri.charAt(i))) {
+            i++;
+        }
+        pathEnd = i;
+        if (i < length && uri.charAt(i) == '?') {
+            queryStart = ++i;
+            while (i < length && uri.charAt(i) != '#') {
+                i++;
+            }
+            queryEnd = i;
+        }
+        if (i < length) {
+            fragmentStart = ++i;
+            // Regex "." does not match line terminators, so such fragment does not match the pattern
+            for (; i < length; i++) {
+                if (isLineTerminator(uri.charAt(i))) {
+                    errorPosition = i;
+                    return;
+                }
+            }
+        }
+    }
+
+    private int scanScheme() {
+        if (uri.startsWith("http://")) {
+            schemeEnd = 4;
+            return 5;
+        }
+        if (uri.startsWith("https://")) {
+            schemeEnd = 5;
+            return 6;
+        }
+        int length = uri.length();
+        for (int i = 0; i < length; i++) {
+            char c = uri.charAt(i);
+            if (c == ':') {
+                if (i > 0) {
+                    schemeEnd = i;
+                    return i + 1;
+                }
+                return 0;
+            }
+            if (c == '/' || c == '?' || c == '#') {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private int scanAuthority(int start) {
+        int length = uri.length();
+        authorityStart = start;
+        int i = start;
+        while (i < length && !isUserInfoEnd(uri.charAt(i))) {
+            i++;
+        }
+        if (i < length && uri.charAt(i) == '@') {
+            userInfoEnd = i;
+            i++;
+        } else {
+            i = start;
+        }
+        hostStart = i;
+        hostEnd = i < length && uri.charAt(i) == '['
+                ? scanIpV6Host(i)
+                : scanRegularHost(i);
+        i = hostEnd;
+        if (i < length && uri.charAt(i) == ':') {
+            portStart = ++i;
+            while (i < length && !isAuthorityEnd(uri.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private int scanIpV6Host(int start) {
+        int end = ipV6HostEnd(uri, start);
+        if (end < 0) {
+            // not a valid ip v6 literal - fall back to an empty host like the regex alternative does
+            return start;
+        }
+        // text right after the literal stays in the host, so it fails host validation instead of becoming a path
+        return isIpV6HostSuffix(uri, end) ? end : scanRegularHost(end);
+    }
+
+    /**
+     * Checks if the bracketed ip v6 literal that ends at the given index is followed by a port or the authority end.
+     */
+    static boolean isIpV6HostSuffix(String uri, int end) {
+        return end == uri.length() || uri.charAt(end) == ':' || isAuthorityEnd(uri.charAt(end));
+    }
+
+    /**
+     * Returns end of the bracketed ip v6 literal that starts at the given index or -1 if it is not terminated.
+     */
+    static int ipV6HostEnd(String uri, int start) {
+        int length = uri.length();
+        int i = start + 1;
+        while (i < length && isIpV6AddressChar(uri.charAt(i))) {
+            i++;
+        }
+        while (i < length && isIpV6ZoneChar(uri.charAt(i))) {
+            i++;
+        }
+        return i < length && uri.charAt(i) == ']'
+                ? i + 1
+                : -1;
+    }
+
+    private int scanRegularHost(int start) {
+        int length = uri.length();
+        int i = start;
+        while (i < length && !isHostEnd(uri.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    boolean isValid() {
+        return errorPosition == NONE;
+    }
+
+    int getErrorPosition() {
+        return errorPosition;
+    }
+
+    @Nullable
+    String getScheme() {
+        return schemeEnd == NONE ? null : uri.substring(0, schemeEnd);
+    }
+
+    boolean isHttpScheme() {
+        return schemeEnd == 4 && uri.startsWith("http");
+    }
+
+    boolean isHttpsScheme() {
+        return schemeEnd == 5 && uri.startsWith("https");
+    }
+
+    boolean isOpaque() {
+        return schemeEnd != NONE && !uri.startsWith(":/", schemeEnd);
+    }
+
+    boolean isProtocolRelative() {
+        return schemeEnd == NONE && authorityStart != NONE;
+    }
+
+    @Nullable
+    String getSchemeSpecificPart() {
+        return schemeEnd == NONE ? null : uri.substring(getSchemeSpecificPartStart(), getSchemeSpecificPartEnd());
+    }
+
+    @Nullable
+    String getUserInfo() {
+        return userInfoEnd == NONE ? null : uri.substring(authorityStart, userInfoEnd);
+    }
+
+    @Nullable
+    String getHost() {
+        return hostStart == NONE ? null : uri.substring(hostStart, hostEnd);
+    }
+
+    @Nullable
+    String getPort() {
+        return portStart == NONE ? null : uri.substring(portStart, pathStart);
+    }
+
+    String getPath() {
+        return uri.substring(pathStart, pathEnd);
+    }
+
+    @Nullable
+    String getQuery() {
+        return queryStart == NONE ? null : uri.substring(queryStart, queryEnd);
+    }
+
+    @Nullable
+    String getFragment() {
+        return fragmentStart == NONE ? null : uri.substring(fragmentStart);
+    }
+
+    int getSchemeEnd() {
+        return schemeEnd;
+    }
+
+    int getSchemeSpecificPartStart() {
+        return schemeEnd + 1;
+    }
+
+    int getSchemeSpecificPartEnd() {
+        // empty fragment stays part of the scheme specific part
+        return fragmentStart != NONE && fragmentStart < uri.length()
+                ? fragmentStart - 1
+                : uri.length();
+    }
+
+    int getUserInfoStart() {
+        return authorityStart;
+    }
+
+    int getUserInfoEnd() {
+        return userInfoEnd;
+    }
+
+    int getHostStart() {
+        return hostStart;
+    }
+
+    int getHostEnd() {
+        return hostEnd;
+    }
+
+    int getPortStart() {
+        return portStart;
+    }
+
+    int getPortEnd() {
+        return pathStart;
+    }
+
+    int getPathStart() {
+        return pathStart;
+    }
+
+    int getPathEnd() {
+        return pathEnd;
+    }
+
+    int getQueryStart() {
+        return queryStart;
+    }
+
+    int getQueryEnd() {
+        return queryEnd;
+    }
+
+    int getFragmentStart() {
+        return fragmentStart;
+    }
+
+    private static boolean isPathEnd(char c) {
+        return c == '?' || c == '#';
+    }
+
+    static boolean isAuthorityEnd(char c) {
+        return c == '/' || c == '?' || c == '#';
+    }
+
+    static boolean isUserInfoEnd(char c) {
+        return c == '@' || c == '[' || isAuthorityEnd(c);
+    }
+
+    static boolean isHostEnd(char c) {
+        return c == '[' || c == ':' || isAuthorityEnd(c);
+    }
+
+    static boolean isIpV6AddressChar(char c) {
+        return c == ':' || c == '.' || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    static boolean isIpV6ZoneChar(char c) {
+        return c == '%' || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
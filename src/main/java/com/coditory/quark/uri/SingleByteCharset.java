@@ -0,0 +1,78 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lookup tables for charsets that map every character to a single byte, like ISO-8859-2 or windows-1250.
+ * Characters without a table entry are left to the charset, so the result is the same as in
+ * {@link String#getBytes(Charset)} and {@link String#String(byte[], int, int, Charset)}.
+ */
+final class SingleByteCharset {
+    private static final int TABLE_SIZE = 256;
+    private static final SingleByteCharset NONE = new SingleByteCharset(new char[0], new char[0][]);
+    private static final Map<Charset, SingleByteCharset> CACHE = new ConcurrentHashMap<>();
+
+    @Nullable
+    static SingleByteCharset of(Charset charset) {
+        SingleByteCharset result = CACHE.computeIfAbsent(charset, SingleByteCharset::create);
+        return result == NONE ? null : result;
+    }
+
+    private static SingleByteCharset create(Charset charset) {
+        if (!charset.canEncode()
+                || charset.newDecoder().maxCharsPerByte() != 1
+                || charset.newEncoder().maxBytesPerChar() != 1) {
+            return NONE;
+        }
+        byte[] bytes = new byte[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            bytes[i] = (byte) i;
+        }
+        char[] decoded = new String(bytes, charset).toCharArray();
+        if (decoded.length != TABLE_SIZE) {
+            return NONE;
+        }
+        // reverse mapping split into pages of 256 characters, stored as (byte | 0x100) so 0 means no entry
+        char[][] encodePages = new char[TABLE_SIZE][];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            char c = decoded[i];
+            if (c != '\uFFFD' && Arrays.equals(String.valueOf(c).getBytes(charset), new byte[]{(byte) i})) {
+                char[] page = encodePages[c >>> 8];
+                if (page == null) {
+                    page = encodePages[c >>> 8] = new char[TABLE_SIZE];
+                }
+                page[c & 0xFF] = (char) (i | 0x100);
+            }
+        }
+        return new SingleByteCharset(decoded, encodePages);
+    }
+
+    private final char[] decodeTable;
+    private final char[][] encodePages;
+
+    private SingleByteCharset(char[] decodeTable, char[][] encodePages) {
+        this.decodeTable = decodeTable;
+        this.encodePages = encodePages;
+    }
+
+    void decode(byte[] bytes, int length, StringBuilder dst) {
+        for (int i = 0; i < length; i++) {
+            dst.append(decodeTable[bytes[i] & 0xFF]);
+        }
+    }
+
+    /**
+     * Returns the byte for the character or -1 if the character has no entry in the table.
+     */
+    int encode(char c) {
+        char[] page = encodePages[c >>> 8];
+        return page == null || page[c & 0xFF] == 0
+                ? -1
+                : page[c & 0xFF] & 0xFF;
+    }
+}
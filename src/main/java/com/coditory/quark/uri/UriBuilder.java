@@ -28,20 +28,7 @@ public final class UriBuilder {
     @NotNull
     public static UriBuilder from(UriComponents uriComponents) {
         if (uriComponents == null) return empty();
-        UriBuilder builder = new UriBuilder();
-        builder.scheme = uriComponents.getScheme();
-        builder.ssp = uriComponents.getSchemeSpecificPart();
-        builder.fragment = uriComponents.getFragment();
-        if (!uriComponents.isOpaque()) {
-            builder.userInfo = uriComponents.getUserInfo();
-            builder.protocolRelative = uriComponents.isProtocolRelative();
-            builder.host = uriComponents.getHost();
-            builder.port = uriComponents.getPort();
-            builder.setRootPath(uriComponents.isRootPath());
-            builder.setPathSegments(uriComponents.getPathSegments());
-            builder.setQueryMultiParams(uriComponents.getQueryMultiParams());
-        }
-        return builder;
+        return new UriBuilder().setUriComponents(uriComponents);
     }
 
     @NotNull
@@ -76,11 +63,7 @@ public final class UriBuilder {
     @Nullable
     public static UriBuilder fromUriOrNull(String uri) {
         if (uri == null) return null;
-        try {
-            return fromUri(uri);
-        } catch (RuntimeException e) {
-            return null;
-        }
+        return UriComponentsParser.parseUriOrNull(uri);
     }
 
     @NotNull
@@ -92,11 +75,7 @@ public final class UriBuilder {
     @Nullable
     public static UriBuilder fromUrlOrNull(String url) {
         if (url == null) return null;
-        try {
-            return fromUrl(url);
-        } catch (RuntimeException e) {
-            return null;
-        }
+        return UriComponentsParser.parseUrlOrNull(url);
     }
 
     @NotNull
@@ -109,11 +88,8 @@ public final class UriBuilder {
     @Nullable
     public static UriBuilder fromQueryStringOrNull(String query) {
         if (query == null) return null;
-        try {
-            return fromQueryString(query);
-        } catch (RuntimeException e) {
-            return null;
-        }
+        UriComponents components = UriComponentsParser.parseQueryString(query).getUriComponentsOrNull();
+        return components == null ? null : from(components);
     }
 
     private String scheme;
@@ -162,6 +138,44 @@ public final class UriBuilder {
         return this;
     }
 
+    private UriBuilder setUriComponents(UriComponents uriComponents) {
+        this.scheme = uriComponents.getScheme();
+        this.ssp = uriComponents.getSchemeSpecificPart();
+        this.fragment = uriComponents.getFragment();
+        if (uriComponents.isOpaque()) {
+            this.protocolRelative = false;
+            this.rootPath = false;
+            resetHierarchicalComponents();
+        } else {
+            this.userInfo = uriComponents.getUserInfo();
+            this.protocolRelative = uriComponents.isProtocolRelative();
+            this.host = uriComponents.getHost();
+            this.port = uriComponents.getPort();
+            setRootPath(uriComponents.isRootPath());
+            setPathSegments(uriComponents.getPathSegments());
+            setQueryMultiParams(uriComponents.getQueryMultiParams());
+        }
+        return this;
+    }
+
+    /**
+     * Replaces this uri with the uri reference resolved against it.
+     * <p>
+     * Builder does not keep a trailing slash of the path, so the last path segment is always replaced
+     * by a relative path. Example: "post" resolved against a builder created from "https://coditory.com/blog/"
+     * is "https://coditory.com/post", not "https://coditory.com/blog/post".
+     * Use {@link UriReferenceResolver#of(String)} to resolve against a base uri that ends with a slash,
+     * like a page url of extracted links.
+     *
+     * @throws InvalidUriException if the reference cannot be parsed
+     * @see UriComponents#resolve(String)
+     */
+    @NotNull
+    public UriBuilder resolve(@NotNull String reference) {
+        expectNonNull(reference, "reference");
+        return setUriComponents(UriReferenceResolver.of(toUriComponents()).resolve(reference));
+    }
+
     @NotNull
     public UriBuilder copy() {
         return from(toUriComponents());
@@ -259,7 +273,8 @@ public final class UriBuilder {
         if (host == null || host.isBlank()) {
             this.host = null;
         } else {
-            this.host = lowerCase(host);
+            String asciiHost = Idn.toAsciiOrNull(host);
+            this.host = lowerCase(asciiHost != null ? asciiHost : host);
             this.rootPath = true;
         }
         resetSchemeSpecificPart();
@@ -527,8 +542,4 @@ public final class UriBuilder {
     private void resetSchemeSpecificPart() {
         this.ssp = null;
     }
-
-    void validate() {
-        toUriComponents();
-    }
 }
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Objects;
 
 import static com.coditory.quark.uri.Nullable.onNotNull;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
 import static com.coditory.quark.uri.Strings.isNotNullOrEmpty;
 import static com.coditory.quark.uri.Strings.isNullOrEmpty;
 import static com.coditory.quark.uri.UriPartValidator.checkPort;
@@ -21,7 +22,6 @@ import static com.coditory.quark.uri.UriRfc.SCHEME;
 import static com.coditory.quark.uri.UriRfc.SCHEME_SPECIFIC_PART;
 import static com.coditory.quark.uri.UriRfc.USER_INFO;
 import static java.util.Collections.unmodifiableMap;
-import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
 public final class UriComponents {
@@ -33,49 +33,75 @@ public final class UriComponents {
     @NotNull
     public static UriComponents fromUri(String uri) {
         if (uri == null || uri.isBlank()) return empty();
-        return builderFromUri(uri).toUriComponents();
+        return UriComponentsParser.parse(uri).getUriComponents();
+    }
+
+    /**
+     * Parses uri without throwing {@link InvalidUriException}.
+     * Failed result describes the problem with {@link UriParseError} and its position in the uri.
+     */
+    @NotNull
+    public static UriParseResult parseUri(String uri) {
+        if (uri == null || uri.isBlank()) return UriParseResult.success(empty());
+        return UriComponentsParser.parse(uri);
+    }
+
+    /**
+     * Parses uri lazily. Only boundaries of uri components are found upfront.
+     * Each component is decoded and validated when it is read for the first time.
+     * Returned values are the same as the ones from {@link #fromUri(String)},
+     * but an invalid component is reported with {@link InvalidUriException} when it is read.
+     */
+    @NotNull
+    public static UriComponents fromUriLazily(String uri) {
+        if (uri == null || uri.isBlank()) return empty();
+        return new UriComponents(LazyUriComponents.parse(uri));
     }
 
     @Nullable
     public static UriComponents fromUriOrNull(String uri) {
         if (uri == null) return null;
-        try {
-            return fromUri(uri);
-        } catch (RuntimeException e) {
-            return null;
-        }
+        return parseUri(uri).getUriComponentsOrNull();
     }
 
     @NotNull
     public static UriComponents fromHttpUrl(String url) {
         if (url == null || url.isBlank()) return empty();
-        return builderFromHttpUrl(url).toUriComponents();
+        return UriComponentsParser.parseHttpUrl(url).getUriComponents();
+    }
+
+    /**
+     * Parses http url without throwing {@link InvalidHttpUrlException}.
+     * Uri that is not an http url results in {@link UriParseError#NOT_HTTP_URL}.
+     */
+    @NotNull
+    public static UriParseResult parseHttpUrl(String url) {
+        if (url == null || url.isBlank()) return UriParseResult.success(empty());
+        return UriComponentsParser.parseHttpUrl(url);
     }
 
     @Nullable
     static UriComponents fromHttpUrlOrNull(String url) {
         if (url == null) return null;
-        try {
-            return fromHttpUrl(url);
-        } catch (RuntimeException e) {
-            return null;
-        }
+        return parseHttpUrl(url).getUriComponentsOrNull();
     }
 
     @Nullable
     public static UriComponents fromQueryStringOrNull(String query) {
         if (query == null) return null;
-        try {
-            return fromQueryString(query);
-        } catch (RuntimeException e) {
-            return null;
-        }
+        return parseQueryString(query).getUriComponentsOrNull();
     }
 
     @NotNull
     public static UriComponents fromQueryString(String query) {
         if (query == null) return empty();
-        return builderFromQueryString(query).toUriComponents();
+        return UriComponentsParser.parseQueryString(query).getUriComponents();
+    }
+
+    @NotNull
+    public static UriParseResult parseQueryString(String query) {
+        if (query == null) return UriParseResult.success(empty());
+        return UriComponentsParser.parseQueryString(query);
     }
 
     @NotNull
@@ -90,6 +116,21 @@ public final class UriComponents {
         return builderFrom(url).toUriComponents();
     }
 
+    /**
+     * Resolves uri reference against the base uri as specified in RFC 3986, section 5.2.
+     * Example: "../d?x=1" resolved against "https://coditory.com/a/b/" is "https://coditory.com/a/d?x=1".
+     * Unlike in {@link #resolve(String)} a base that ends with a slash keeps its last path segment.
+     * Use {@link UriReferenceResolver#of(String)} to parse the base once and resolve many references.
+     *
+     * @throws InvalidUriException if the base or the reference cannot be parsed
+     */
+    @NotNull
+    public static UriComponents resolve(@NotNull String base, @NotNull String reference) {
+        expectNonNull(base, "base");
+        expectNonNull(reference, "reference");
+        return UriReferenceResolver.of(base).resolve(reference);
+    }
+
     @NotNull
     public static UriBuilder builder() {
         return new UriBuilder();
@@ -160,6 +201,20 @@ public final class UriComponents {
         if (port >= 0) {
             checkPort(port);
         }
+        return buildValidatedHierarchical(scheme, userInfo, host, port, protocolRelative, rootRelative, pathSegments, queryParams, fragment);
+    }
+
+    static UriComponents buildValidatedHierarchical(
+            String scheme,
+            String userInfo,
+            String host,
+            int port,
+            boolean protocolRelative,
+            boolean rootRelative,
+            List<String> pathSegments,
+            Map<String, List<String>> queryParams,
+            String fragment
+    ) {
         return new UriComponents(scheme, null, userInfo, host, port, protocolRelative, rootRelative, pathSegments, queryParams, fragment);
     }
 
@@ -173,6 +228,21 @@ public final class UriComponents {
     private final List<String> pathSegments;
     private final Map<String, List<String>> queryParams;
     private final String fragment;
+    private final LazyUriComponents lazy;
+
+    private UriComponents(LazyUriComponents lazy) {
+        this.scheme = null;
+        this.ssp = null;
+        this.userInfo = null;
+        this.host = null;
+        this.port = -1;
+        this.protocolRelative = false;
+        this.rootPath = false;
+        this.pathSegments = List.of();
+        this.queryParams = Map.of();
+        this.fragment = null;
+        this.lazy = lazy;
+    }
 
     private UriComponents(
             String scheme,
@@ -195,57 +265,58 @@ public final class UriComponents {
         this.pathSegments = pathSegments == null ? List.of() : List.copyOf(pathSegments);
         this.queryParams = queryParams == null ? Map.of() : unmodifiableMap(new LinkedHashMap<>(queryParams));
         this.fragment = fragment;
+        this.lazy = null;
     }
 
     public boolean isOpaque() {
-        return ssp != null;
+        return getSchemeSpecificPart() != null;
     }
 
     @Nullable
     public String getSchemeSpecificPart() {
-        return ssp;
+        return lazy != null ? lazy.getSchemeSpecificPart() : ssp;
     }
 
     @Nullable
     public String getScheme() {
-        return scheme;
+        return lazy != null ? lazy.getScheme() : scheme;
     }
 
     @Nullable
     public String getUserInfo() {
-        return userInfo;
+        return lazy != null ? lazy.getUserInfo() : userInfo;
     }
 
     @Nullable
     public String getHost() {
-        return host;
+        return lazy != null ? lazy.getHost() : host;
     }
 
     public int getPort() {
-        return port;
+        return lazy != null ? lazy.getPort() : port;
     }
 
     public boolean isRootPath() {
-        return rootPath;
+        return lazy != null ? lazy.isRootPath() : rootPath;
     }
 
     public boolean isProtocolRelative() {
-        return protocolRelative;
+        return lazy != null ? lazy.isProtocolRelative() : protocolRelative;
     }
 
     @NotNull
     public List<String> getPathSegments() {
-        return pathSegments;
+        return lazy != null ? lazy.getPathSegments() : pathSegments;
     }
 
     @NotNull
     public Map<String, List<String>> getQueryMultiParams() {
-        return queryParams;
+        return lazy != null ? lazy.getQueryMultiParams() : queryParams;
     }
 
     @NotNull
     public Map<String, String> getQueryParams() {
-        return queryParams.entrySet()
+        return getQueryMultiParams().entrySet()
                 .stream()
                 .collect(toMap(Map.Entry::getKey, e -> e.getValue().getFirst()));
     }
@@ -253,13 +324,13 @@ public final class UriComponents {
     @Nullable
     public List<String> getQueryMultiParam(String name) {
         if (name == null) return null;
-        return queryParams.get(name);
+        return getQueryMultiParams().get(name);
     }
 
     @Nullable
     public String getQueryParam(String name) {
         if (name == null) return null;
-        List<String> values = queryParams.get(name);
+        List<String> values = getQueryMultiParams().get(name);
         return (values != null && !values.isEmpty()) ? values.getFirst() : null;
     }
 
@@ -268,54 +339,72 @@ public final class UriComponents {
         if (isOpaque()) {
             return null;
         }
-        UriAuthority authority = UriAuthority.of(userInfo, host, port);
+        UriAuthority authority = UriAuthority.of(getUserInfo(), getHost(), getPort());
         return authority.isEmpty() ? null : authority;
     }
 
     @Nullable
     public String getQueryString() {
-        if (this.queryParams.isEmpty()) {
+        Map<String, List<String>> queryParams = getQueryMultiParams();
+        if (queryParams.isEmpty()) {
             return null;
         }
         StringBuilder queryBuilder = new StringBuilder();
-        this.queryParams.forEach((name, values) -> {
+        appendQueryString(queryParams, queryBuilder);
+        return queryBuilder.toString();
+    }
+
+    private static void appendQueryString(Map<String, List<String>> queryParams, StringBuilder queryBuilder) {
+        int queryStart = queryBuilder.length();
+        queryParams.forEach((name, values) -> {
             if (values == null || values.isEmpty()) {
-                if (!queryBuilder.isEmpty()) {
+                if (queryBuilder.length() > queryStart) {
                     queryBuilder.append('&');
                 }
-                queryBuilder.append(QUERY_PARAM_NARROW.encode(name));
+                QUERY_PARAM_NARROW.encode(name, queryBuilder);
             } else {
                 for (Object value : values) {
-                    if (!queryBuilder.isEmpty()) {
+                    if (queryBuilder.length() > queryStart) {
                         queryBuilder.append('&');
                     }
-                    queryBuilder.append(QUERY_PARAM_NARROW.encode(name))
-                            .append('=')
-                            .append(QUERY_PARAM_NARROW.encode(value.toString()));
+                    QUERY_PARAM_NARROW.encode(name, queryBuilder);
+                    queryBuilder.append('=');
+                    QUERY_PARAM_NARROW.encode(value.toString(), queryBuilder);
                 }
             }
         });
-        return queryBuilder.toString();
     }
 
     @Nullable
     public String getPath() {
+        List<String> pathSegments = getPathSegments();
         if (pathSegments.isEmpty()) {
             return null;
         }
-        String path = pathSegments.stream()
-                .map(PATH_SEGMENT::encode)
-                .collect(joining("/"));
-        String prefix = rootPath ? "/" : "";
-        return prefix + path;
+        StringBuilder pathBuilder = new StringBuilder();
+        appendPath(pathSegments, pathBuilder);
+        return pathBuilder.toString();
+    }
+
+    private void appendPath(List<String> pathSegments, StringBuilder pathBuilder) {
+        if (isRootPath()) {
+            pathBuilder.append('/');
+        }
+        for (int i = 0; i < pathSegments.size(); i++) {
+            if (i > 0) {
+                pathBuilder.append('/');
+            }
+            PATH_SEGMENT.encode(pathSegments.get(i), pathBuilder);
+        }
     }
 
     @Nullable
     public String getFragment() {
-        return fragment;
+        return lazy != null ? lazy.getFragment() : fragment;
     }
 
     public boolean isHttpUrl() {
+        String scheme = getScheme();
         return !isOpaque() && ("http".equals(scheme) || "https".equals(scheme));
     }
 
@@ -323,6 +412,24 @@ public final class UriComponents {
         return UrlValidator.isValidUrl(this);
     }
 
+    /**
+     * Resolves uri reference against this uri as specified in RFC 3986, section 5.2, including removal of dot segments.
+     * Example: "../d?x=1" resolved against "https://coditory.com/a/b/c" is "https://coditory.com/a/d?x=1".
+     * <p>
+     * Parsed path does not keep a trailing slash, so the last path segment of this uri is always replaced
+     * by a relative path, like when resolving against {@link #toUriString()}. Example: "post" resolved against
+     * a uri parsed from "https://coditory.com/blog/" is "https://coditory.com/post", not "https://coditory.com/blog/post".
+     * Use {@link UriReferenceResolver#of(String)} to resolve against a base uri that ends with a slash,
+     * like a page url of extracted links.
+     *
+     * @throws InvalidUriException if the reference cannot be parsed
+     */
+    @NotNull
+    public UriComponents resolve(@NotNull String reference) {
+        expectNonNull(reference, "reference");
+        return UriReferenceResolver.of(this).resolve(reference);
+    }
+
     @NotNull
     public URL toUrl() {
         try {
@@ -343,64 +450,107 @@ public final class UriComponents {
 
     @NotNull
     public String toUriString() {
-        return ssp != null
-                ? toOpaqueUriString()
-                : toHierarchicalUriString();
+        StringBuilder uriBuilder = new StringBuilder();
+        appendUriString(uriBuilder);
+        return uriBuilder.toString();
     }
 
-    private String toOpaqueUriString() {
-        StringBuilder uriBuilder = new StringBuilder();
+    /**
+     * Returns fingerprint of the uri. Uris with the same {@link #toUriString()} have the same fingerprint.
+     *
+     * @see UriFingerprint
+     */
+    @NotNull
+    public UriFingerprint fingerprint() {
+        return UriFingerprint.of(this);
+    }
+
+    /**
+     * Returns 64-bit fingerprint of the uri, the high half of {@link #fingerprint()}.
+     */
+    public long fingerprint64() {
+        return UriFingerprint.fingerprint64(this);
+    }
+
+    void appendUriString(StringBuilder uriBuilder) {
+        if (isOpaque()) {
+            appendOpaqueUriString(uriBuilder);
+        } else {
+            appendHierarchicalUriString(uriBuilder);
+        }
+    }
+
+    private void appendOpaqueUriString(StringBuilder uriBuilder) {
+        String scheme = getScheme();
+        String fragment = getFragment();
         if (scheme != null) {
-            uriBuilder.append(SCHEME.encode(scheme))
-                    .append(':');
+            SCHEME.encode(scheme, uriBuilder);
+            uriBuilder.append(':');
         }
-        uriBuilder.append(SCHEME_SPECIFIC_PART.encode(ssp));
+        SCHEME_SPECIFIC_PART.encode(getSchemeSpecificPart(), uriBuilder);
         if (fragment != null) {
-            uriBuilder.append('#')
-                    .append(FRAGMENT.encode(fragment));
+            uriBuilder.append('#');
+            FRAGMENT.encode(fragment, uriBuilder);
         }
-        return uriBuilder.toString();
     }
 
-    private String toHierarchicalUriString() {
-        StringBuilder uriBuilder = new StringBuilder();
+    // Ip v6 zone is decoded, so its "%" delimiter is encoded again
+    private static void appendHost(String host, StringBuilder uriBuilder) {
+        int zone = host.startsWith("[") ? host.indexOf('%') : -1;
+        if (zone < 0) {
+            uriBuilder.append(host);
+            return;
+        }
+        uriBuilder.append(host, 0, zone).append("%25");
+        USER_INFO.encode(host.substring(zone + 1, host.length() - 1), uriBuilder);
+        uriBuilder.append(']');
+    }
+
+    private void appendHierarchicalUriString(StringBuilder uriBuilder) {
+        String scheme = getScheme();
+        String userInfo = getUserInfo();
+        String host = getHost();
+        int port = getPort();
+        String fragment = getFragment();
         if (scheme != null) {
-            uriBuilder.append(SCHEME.encode(scheme))
-                    .append("://");
-        } else if (protocolRelative) {
+            SCHEME.encode(scheme, uriBuilder);
+            uriBuilder.append("://");
+        } else if (isProtocolRelative()) {
             uriBuilder.append("//");
         }
         if (userInfo != null || host != null) {
             if (userInfo != null) {
-                uriBuilder.append(USER_INFO.encode(this.userInfo))
-                        .append('@');
+                USER_INFO.encode(userInfo, uriBuilder);
+                uriBuilder.append('@');
             }
             if (host != null) {
-                uriBuilder.append(this.host);
+                appendHost(host, uriBuilder);
             }
             if (port != -1) {
                 uriBuilder.append(':')
-                        .append(this.port);
+                        .append(port);
             }
         }
-        String path = getPath();
-        String query = getQueryString();
-        if (path != null) {
-            if (!path.equals("/") || query != null || fragment != null || host == null) {
-                uriBuilder.append(path);
+        List<String> pathSegments = getPathSegments();
+        Map<String, List<String>> queryParams = getQueryMultiParams();
+        if (!pathSegments.isEmpty()) {
+            int pathStart = uriBuilder.length();
+            appendPath(pathSegments, uriBuilder);
+            boolean rootOnly = uriBuilder.length() == pathStart + 1 && uriBuilder.charAt(pathStart) == '/';
+            if (rootOnly && queryParams.isEmpty() && fragment == null && host != null) {
+                uriBuilder.setLength(pathStart);
             }
-        } else if (rootPath && host == null) {
+        } else if (isRootPath() && host == null) {
             uriBuilder.append("/");
         }
-        if (query != null) {
-            uriBuilder.append('?')
-                    .append(query);
+        if (!queryParams.isEmpty()) {
+            uriBuilder.append('?');
+            appendQueryString(queryParams, uriBuilder);
         }
         if (fragment != null) {
-            uriBuilder.append('#')
-                    .append(FRAGMENT.encode(fragment));
+            uriBuilder.append('#');
+            FRAGMENT.encode(fragment, uriBuilder);
         }
-        return uriBuilder.toString();
     }
 
     @Override
@@ -408,22 +558,23 @@ public final class UriComponents {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         UriComponents that = (UriComponents) o;
-        return port == that.port
-                && protocolRelative == that.protocolRelative
-                && rootPath == that.rootPath
-                && Objects.equals(ssp, that.ssp)
-                && Objects.equals(scheme, that.scheme)
-                && Objects.equals(userInfo, that.userInfo)
-                && Objects.equals(host, that.host)
-                && Objects.equals(pathSegments, that.pathSegments)
-                && Objects.equals(queryParams, that.queryParams)
-                && Objects.equals(fragment, that.fragment);
+        return getPort() == that.getPort()
+                && isProtocolRelative() == that.isProtocolRelative()
+                && isRootPath() == that.isRootPath()
+                && Objects.equals(getSchemeSpecificPart(), that.getSchemeSpecificPart())
+                && Objects.equals(getScheme(), that.getScheme())
+                && Objects.equals(getUserInfo(), that.getUserInfo())
+                && Objects.equals(getHost(), that.getHost())
+                && Objects.equals(getPathSegments(), that.getPathSegments())
+                && Objects.equals(getQueryMultiParams(), that.getQueryMultiParams())
+                && Objects.equals(getFragment(), that.getFragment());
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(
-                ssp, scheme, userInfo, host, port, protocolRelative, rootPath, pathSegments, queryParams, fragment
+                getSchemeSpecificPart(), getScheme(), getUserInfo(), getHost(), getPort(),
+                isProtocolRelative(), isRootPath(), getPathSegments(), getQueryMultiParams(), getFragment()
         );
     }
 
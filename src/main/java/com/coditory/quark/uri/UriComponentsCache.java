@@ -0,0 +1,213 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+
+/**
+ * Bounded cache of parsed uris keyed by the input string.
+ * <p>
+ * Entries are split into independently locked shards. When a shard is full a new entry is admitted
+ * only if it was requested more often than a sampled victim, so a burst of unique uris does not flush
+ * the popular ones. Both successful and failed parse results are cached.
+ */
+public final class UriComponentsCache {
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    @NotNull
+    public static UriComponentsCacheBuilder builder() {
+        return new UriComponentsCacheBuilder();
+    }
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private UriComponentsCache(int maxSize, int concurrencyLevel) {
+        int shardCount = Integer.highestOneBit(Math.min(maxSize, concurrencyLevel));
+        this.shards = new Shard[shardCount];
+        this.shardMask = shardCount - 1;
+        for (int i = 0; i < shardCount; i++) {
+            int shardCapacity = maxSize / shardCount + (i < maxSize % shardCount ? 1 : 0);
+            shards[i] = new Shard(shardCapacity);
+        }
+    }
+
+    @NotNull
+    public UriComponents fromUri(String uri) {
+        if (uri == null || uri.isBlank()) return UriComponents.fromUri(uri);
+        return parseUri(uri).getUriComponents();
+    }
+
+    @Nullable
+    public UriComponents fromUriOrNull(String uri) {
+        if (uri == null) return null;
+        return parseUri(uri).getUriComponentsOrNull();
+    }
+
+    @NotNull
+    public UriComponents fromHttpUrl(String url) {
+        if (url == null || url.isBlank()) return UriComponents.fromHttpUrl(url);
+        UriComponents uriComponents = parseUri(url).getUriComponentsOrNull();
+        return uriComponents != null && uriComponents.isHttpUrl()
+                ? uriComponents
+                : UriComponentsParser.parseHttpUrl(url).getUriComponents();
+    }
+
+    @Nullable
+    public UriComponents fromHttpUrlOrNull(String url) {
+        if (url == null) return null;
+        UriComponents uriComponents = parseUri(url).getUriComponentsOrNull();
+        return uriComponents != null && uriComponents.isHttpUrl() ? uriComponents : null;
+    }
+
+    @NotNull
+    public UriParseResult parseUri(String uri) {
+        if (uri == null || uri.isBlank()) return UriComponents.parseUri(uri);
+        int hash = spread(uri.hashCode());
+        Shard shard = shards[hash & shardMask];
+        UriParseResult result = shard.get(uri, hash);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = UriComponentsParser.parse(uri);
+        if (shard.put(uri, hash, result)) {
+            evictions.increment();
+        }
+        return result;
+    }
+
+    @NotNull
+    public UriComponentsCacheStats getStats() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return new UriComponentsCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Node {
+        private final String key;
+        private final int hash;
+        private final UriParseResult value;
+        private final int index;
+
+        Node(String key, int hash, UriParseResult value, int index) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.index = index;
+        }
+    }
+
+    private static final class Shard {
+        private final Map<String, Node> nodesByKey;
+        private final Node[] nodes;
+        private final FrequencySketch sketch;
+        private int size;
+
+        Shard(int capacity) {
+            this.nodesByKey = new HashMap<>(capacity * 2);
+            this.nodes = new Node[capacity];
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        synchronized UriParseResult get(String key, int hash) {
+            sketch.increment(hash);
+            Node node = nodesByKey.get(key);
+            return node == null ? null : node.value;
+        }
+
+        // Returns true if another entry was evicted to make room for the new one
+        synchronized boolean put(String key, int hash, UriParseResult value) {
+            if (nodesByKey.containsKey(key)) {
+                return false;
+            }
+            if (size < nodes.length) {
+                Node node = new Node(key, hash, value, size);
+                nodes[size++] = node;
+                nodesByKey.put(key, node);
+                return false;
+            }
+            Node victim = sampleVictim();
+            if (sketch.frequency(hash) <= sketch.frequency(victim.hash)) {
+                return false;
+            }
+            nodesByKey.remove(victim.key);
+            Node node = new Node(key, hash, value, victim.index);
+            nodes[victim.index] = node;
+            nodesByKey.put(key, node);
+            return true;
+        }
+
+        private Node sampleVictim() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Node victim = nodes[random.nextInt(size)];
+            int victimFrequency = sketch.frequency(victim.hash);
+            for (int i = 1; i < EVICTION_SAMPLE_SIZE; i++) {
+                Node candidate = nodes[random.nextInt(size)];
+                int frequency = sketch.frequency(candidate.hash);
+                if (frequency < victimFrequency) {
+                    victim = candidate;
+                    victimFrequency = frequency;
+                }
+            }
+            return victim;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            nodesByKey.clear();
+            for (int i = 0; i < size; i++) {
+                nodes[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    public static class UriComponentsCacheBuilder {
+        private static final int MAX_SIZE_LIMIT = 1 << 24;
+        private int maxSize = 10_000;
+        private int concurrencyLevel = 4 * Runtime.getRuntime().availableProcessors();
+
+        public UriComponentsCacheBuilder maxSize(int maxSize) {
+            expect(maxSize > 0 && maxSize <= MAX_SIZE_LIMIT, "Expected maxSize in range [1, %d]. Got: %d", MAX_SIZE_LIMIT, maxSize);
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public UriComponentsCacheBuilder concurrencyLevel(int concurrencyLevel) {
+            expect(concurrencyLevel > 0, "Expected concurrencyLevel > 0. Got: %d", concurrencyLevel);
+            this.concurrencyLevel = concurrencyLevel;
+            return this;
+        }
+
+        public UriComponentsCache build() {
+            return new UriComponentsCache(maxSize, concurrencyLevel);
+        }
+    }
+}
@@ -4,145 +4,386 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import static com.coditory.quark.uri.Nullable.onNotNull;
+import static com.coditory.quark.uri.Ports.MAX_PORT_VALUE;
+import static com.coditory.quark.uri.Ports.SCHEME_DEFAULT_PORT_NUMBER;
 import static com.coditory.quark.uri.Preconditions.expectNonNull;
-import static com.coditory.quark.uri.Strings.isNotNullOrEmpty;
+import static com.coditory.quark.uri.Strings.lowerCase;
 
+/**
+ * Parses uri without throwing exceptions. The first problem is recorded as an error code with a position
+ * and the error message is created only when {@link UriParseResult} is asked for it.
+ */
 class UriComponentsParser {
-    private static final Pattern QUERY_PARAM_PATTERN = Pattern.compile("([^&=]+)(=?)([^&]+)?");
-    private static final String SCHEME_PATTERN = "([^:/?#]+):";
-    private static final String USERINFO_PATTERN = "([^@\\[/?#]*)";
-    private static final String HOST_IPV4_PATTERN = "[^\\[/?#:]*";
-    private static final String HOST_IPV6_PATTERN = "\\[[\\p{XDigit}:.]*[%\\p{Alnum}]*]";
-    private static final String HOST_PATTERN = "(" + HOST_IPV6_PATTERN + "|" + HOST_IPV4_PATTERN + ")";
-    private static final String PORT_PATTERN = "([^/?#]*)";
-    private static final String PATH_PATTERN = "([^?#]*)";
-    private static final String QUERY_PATTERN = "([^#]*)";
-    private static final String LAST_PATTERN = "(.*)";
-
-    // Regex patterns that matches URIs. See RFC 3986, appendix B
-    private static final Pattern URI_PATTERN = Pattern.compile(
-            "^(" + SCHEME_PATTERN + ")?" +
-                    "(//(" + USERINFO_PATTERN + "@)?" + HOST_PATTERN + "(:" + PORT_PATTERN + ")?" + ")?" +
-                    PATH_PATTERN + "(\\?" + QUERY_PATTERN + ")?" + "(#" + LAST_PATTERN + ")?");
+    private static final int INVALID_PORT = Integer.MIN_VALUE;
 
     static UriBuilder parseUrl(String uri) {
         expectNonNull(uri, "uri");
-        try {
-            UriBuilder builder = UriComponentsParser.parseUri(uri);
-            UriComponents components = builder.toUriComponents();
-            if (!components.isHttpUrl()) {
-                throw new InvalidHttpUrlException("Invalid http url: \"" + uri + "\"");
-            }
-            return builder;
-        } catch (InvalidUriException e) {
-            InvalidUriException root = Throwables.getRootCauseOfType(e, InvalidUriException.class);
-            String suffix = root == null ? "" : ". Cause: " + root.getMessage();
-            throw new InvalidHttpUrlException("Could not parse http url: \"" + uri + "\"" + suffix, root);
-        } catch (RuntimeException e) {
-            throw new InvalidHttpUrlException("Could not parse http url: \"" + uri + "\"", e);
-        }
+        return UriBuilder.from(parseHttpUrl(uri).getUriComponents());
     }
 
     static UriBuilder parseUrlOrNull(String uri) {
         expectNonNull(uri, "uri");
-        UriBuilder builder = UriComponentsParser.parseUriOrNull(uri);
-        if (builder == null) {
-            return null;
-        }
-        UriComponents components = builder.toUriComponents();
-        if (!components.isHttpUrl()) {
-            return null;
-        }
-        return builder;
+        UriComponents components = parseHttpUrl(uri).getUriComponentsOrNull();
+        return components == null ? null : UriBuilder.from(components);
     }
 
     static UriBuilder parseUri(String uri) {
         expectNonNull(uri, "uri");
-        Matcher matcher = URI_PATTERN.matcher(uri);
-        if (!matcher.matches()) {
-            throw new InvalidUriException("Could not parse uri: \"" + uri + "\"");
-        }
-        try {
-            return parseUri(uri, matcher);
-        } catch (InvalidUriException e) {
-            throw new InvalidUriException("Could not parse uri: \"" + uri + "\". Cause: " + e.getMessage());
-        } catch (RuntimeException e) {
-            throw new InvalidUriException("Could not parse uri: \"" + uri + "\"");
-        }
+        return UriBuilder.from(parse(uri).getUriComponents());
     }
 
     static UriBuilder parseUriOrNull(String uri) {
         expectNonNull(uri, "uri");
-        Matcher matcher = URI_PATTERN.matcher(uri);
-        if (!matcher.matches()) {
+        UriComponents components = parse(uri).getUriComponentsOrNull();
+        return components == null ? null : UriBuilder.from(components);
+    }
+
+    static UriParseResult parse(String uri) {
+        expectNonNull(uri, "uri");
+        return new UriComponentsParser(UriParseResult.Input.URI, uri).parseUri();
+    }
+
+    static UriParseResult parseHttpUrl(String uri) {
+        expectNonNull(uri, "uri");
+        UriComponentsParser parser = new UriComponentsParser(UriParseResult.Input.HTTP_URL, uri);
+        UriParseResult result = parser.parseUri();
+        if (result.isSuccess() && !result.getUriComponents().isHttpUrl()) {
+            return parser.failure(UriParseError.NOT_HTTP_URL, 0, null, 0, uri.length());
+        }
+        return result;
+    }
+
+    static UriParseResult parseQueryString(String query) {
+        expectNonNull(query, "query");
+        UriComponentsParser parser = new UriComponentsParser(UriParseResult.Input.QUERY_STRING, query);
+        Map<String, List<String>> params = parser.parseQuery(0, query.length());
+        if (params == null) {
+            return parser.result;
+        }
+        UriComponents components = UriComponents.buildValidatedHierarchical(
+                null, null, null, SCHEME_DEFAULT_PORT_NUMBER, false, false, List.of(), withoutBlankNames(params), null);
+        return UriParseResult.success(components);
+    }
+
+    static Map<String, List<String>> parseQuery(String query) {
+        expectNonNull(query, "query");
+        UriComponentsParser parser = new UriComponentsParser(UriParseResult.Input.QUERY_STRING, query);
+        Map<String, List<String>> params = parser.parseQuery(0, query.length());
+        if (params == null) {
+            throw parser.result.toException();
+        }
+        return params;
+    }
+
+    private final UriParseResult.Input inputType;
+    private final String input;
+    private UriParseResult result;
+
+    private UriComponentsParser(UriParseResult.Input inputType, String input) {
+        this.inputType = inputType;
+        this.input = input;
+    }
+
+    private UriParseResult parseUri() {
+        RawUri rawUri = RawUri.parse(input);
+        if (!rawUri.isValid()) {
+            return failure(UriParseError.MALFORMED_URI, rawUri.getErrorPosition(), null, 0, input.length());
+        }
+        String scheme = null;
+        boolean protocolRelative = false;
+        if (rawUri.isHttpScheme()) {
+            scheme = "http";
+        } else if (rawUri.isHttpsScheme()) {
+            scheme = "https";
+        } else if (rawUri.getSchemeEnd() >= 0) {
+            String decoded = decode(UriRfc.SCHEME, UriParseError.INVALID_SCHEME, 0, rawUri.getSchemeEnd());
+            if (decoded == null) {
+                return result;
+            }
+            if (decoded.equals("//")) {
+                protocolRelative = true;
+            } else if (!decoded.isBlank()) {
+                scheme = lowerCase(decoded);
+            }
+        } else {
+            protocolRelative = rawUri.isProtocolRelative();
+        }
+        if (rawUri.isOpaque()) {
+            String ssp = decode(UriRfc.SCHEME_SPECIFIC_PART, UriParseError.INVALID_SCHEME_SPECIFIC_PART,
+                    rawUri.getSchemeSpecificPartStart(), rawUri.getSchemeSpecificPartEnd());
+            if (ssp == null) {
+                return result;
+            }
+            String fragment = decodeFragment(rawUri);
+            if (result != null) {
+                return result;
+            }
+            if (!ssp.isBlank()) {
+                return UriParseResult.success(UriComponents.buildOpaque(scheme, ssp, fragment));
+            }
+            return buildHierarchical(rawUri, scheme, protocolRelative, null, null, SCHEME_DEFAULT_PORT_NUMBER,
+                    false, List.of(), Map.of(), fragment);
+        }
+        String userInfo = null;
+        if (rawUri.getUserInfoEnd() >= 0) {
+            userInfo = decode(UriRfc.USER_INFO, UriParseError.INVALID_USER_INFO,
+                    rawUri.getUserInfoStart(), rawUri.getUserInfoEnd());
+            if (userInfo == null) {
+                return result;
+            }
+            userInfo = userInfo.isBlank() ? null : userInfo;
+        }
+        String host = null;
+        if (rawUri.getHostStart() >= 0) {
+            host = decodeHost(rawUri.getHostStart(), rawUri.getHostEnd());
+            if (host == null) {
+                return result;
+            }
+            host = host.isBlank() ? null : lowerCase(host);
+        }
+        int port = SCHEME_DEFAULT_PORT_NUMBER;
+        if (rawUri.getPortStart() >= 0) {
+            String decoded = decode(UriRfc.PORT, UriParseError.INVALID_PORT, rawUri.getPortStart(), rawUri.getPortEnd());
+            if (decoded == null) {
+                return result;
+            }
+            port = parsePort(decoded);
+            if (port == INVALID_PORT) {
+                return failure(UriParseError.INVALID_PORT, rawUri.getPortStart(), null, rawUri.getPortStart(), rawUri.getPortEnd());
+            }
+        }
+        List<String> pathSegments = parsePathSegments(rawUri.getPathStart(), rawUri.getPathEnd());
+        if (pathSegments == null) {
+            return result;
+        }
+        boolean rootPath = host != null
+                || (rawUri.getPathEnd() > rawUri.getPathStart() && input.charAt(rawUri.getPathStart()) == '/');
+        Map<String, List<String>> queryParams = Map.of();
+        if (rawUri.getQueryStart() >= 0) {
+            queryParams = parseQuery(rawUri.getQueryStart(), rawUri.getQueryEnd());
+            if (queryParams == null) {
+                return result;
+            }
+            queryParams = withoutBlankNames(queryParams);
+        }
+        String fragment = decodeFragment(rawUri);
+        if (result != null) {
+            return result;
+        }
+        return buildHierarchical(rawUri, scheme, protocolRelative, userInfo, host, port,
+                rootPath, pathSegments, queryParams, fragment);
+    }
+
+    // Same checks as UriComponents.buildHierarchical, but reported without exceptions
+    private UriParseResult buildHierarchical(
+            RawUri rawUri,
+            String scheme,
+            boolean protocolRelative,
+            String userInfo,
+            String host,
+            int port,
+            boolean rootPath,
+            List<String> pathSegments,
+            Map<String, List<String>> queryParams,
+            String fragment
+    ) {
+        if (host == null) {
+            if (userInfo != null) {
+                return failure(UriParseError.USER_INFO_WITHOUT_HOST, rawUri.getUserInfoStart(), null, 0, 0);
+            }
+            if (port >= 0) {
+                return failure(UriParseError.PORT_WITHOUT_HOST, rawUri.getPortStart(), null, 0, 0);
+            }
+        }
+        if (scheme != null && !UriPartValidator.isValidScheme(scheme)) {
+            return failure(UriParseError.INVALID_SCHEME, 0, null, 0, rawUri.getSchemeEnd());
+        }
+        if (host != null && !UriPartValidator.isValidHost(host)) {
+            return failure(UriParseError.INVALID_HOST, rawUri.getHostStart(), null, rawUri.getHostStart(), rawUri.getHostEnd());
+        }
+        UriComponents components = UriComponents.buildValidatedHierarchical(
+                scheme, userInfo, host, port, protocolRelative, rootPath, pathSegments, queryParams, fragment);
+        return UriParseResult.success(components);
+    }
+
+    private String decodeFragment(RawUri rawUri) {
+        if (rawUri.getFragmentStart() < 0) {
             return null;
         }
-        try {
-            return parseUri(uri, matcher);
-        } catch (RuntimeException e) {
+        String fragment = decode(UriRfc.FRAGMENT, UriParseError.INVALID_FRAGMENT, rawUri.getFragmentStart(), input.length());
+        return fragment == null || fragment.isEmpty() ? null : fragment;
+    }
+
+    private List<String> parsePathSegments(int start, int end) {
+        List<String> segments = new ArrayList<>();
+        if (isBlank(start, end)) {
+            return segments;
+        }
+        int segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || input.charAt(i) == '/') {
+                if (i > segmentStart) {
+                    String segment = decode(UriRfc.PATH_SEGMENT, UriParseError.INVALID_PATH, segmentStart, i);
+                    if (segment == null) {
+                        return null;
+                    }
+                    segments.add(segment);
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private Map<String, List<String>> parseQuery(int start, int end) {
+        if (start < end && input.charAt(start) == '?') {
+            start++;
+        }
+        Map<String, List<String>> params = new LinkedHashMap<>();
+        int i = start;
+        while (i < end) {
+            char c = input.charAt(i);
+            if (c == '&' || c == '=') {
+                i++;
+                continue;
+            }
+            int nameStart = i;
+            while (i < end && (c = input.charAt(i)) != '&' && c != '=') {
+                i++;
+            }
+            int nameEnd = i;
+            int valueStart = i;
+            if (i < end && c == '=') {
+                valueStart = ++i;
+                while (i < end && input.charAt(i) != '&') {
+                    i++;
+                }
+            }
+            String name = decodeQueryParam(start, end, nameStart, nameEnd);
+            if (name == null) {
+                return null;
+            }
+            String value = decodeQueryParam(start, end, valueStart, i);
+            if (value == null) {
+                return null;
+            }
+            params.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    // The whole query is validated only after a param fails, so the error points at its first invalid character
+    private String decodeQueryParam(int queryStart, int queryEnd, int start, int end) {
+        String decoded = UriRfc.QUERY_PARAM.decodeIfValid(input, start, end);
+        if (decoded == null && validate(UriRfc.QUERY, UriParseError.INVALID_QUERY, queryStart, queryEnd)) {
+            validate(UriRfc.QUERY_PARAM, UriParseError.INVALID_QUERY, start, end);
+        }
+        return decoded;
+    }
+
+    // Internationalized host is converted to the ASCII form
+    private String decodeHost(int start, int end) {
+        String host;
+        if (Idn.isAscii(input, start, end)) {
+            host = UriRfc.HOST.decodeIfValid(input, start, end);
+        } else {
+            String encoded = Idn.percentEncodeNonAscii(input, start, end);
+            host = UriRfc.HOST.decodeIfValid(encoded, 0, encoded.length());
+        }
+        if (host == null) {
+            failHost(start, end);
             return null;
         }
+        String asciiHost = Idn.toAsciiOrNull(host);
+        if (asciiHost == null) {
+            failure(UriParseError.INVALID_HOST, start, null, start, end);
+        }
+        return asciiHost;
     }
 
-    private static UriBuilder parseUri(String uri, Matcher matcher) {
-        UriBuilder builder = new UriBuilder();
-        String scheme = matcher.group(2);
-        String userInfo = matcher.group(5);
-        String host = matcher.group(6);
-        String port = matcher.group(8);
-        String path = matcher.group(9);
-        String query = matcher.group(11);
-        String fragment = matcher.group(13);
-        boolean opaque = false;
-        if (isNotNullOrEmpty(scheme)) {
-            String rest = uri.substring(scheme.length());
-            if (!rest.startsWith(":/")) {
-                opaque = true;
-            }
-            builder.setScheme(UriRfc.SCHEME.validateAndDecode(scheme));
-        } else if (uri.startsWith("//")) {
-            builder.setProtocolRelative(true);
-        }
-        if (opaque) {
-            String ssp = uri.substring(scheme.length()).substring(1);
-            if (isNotNullOrEmpty(fragment)) {
-                ssp = ssp.substring(0, ssp.length() - (fragment.length() + 1));
-            }
-            builder.setSchemeSpecificPart(UriRfc.SCHEME_SPECIFIC_PART.validateAndDecode(ssp));
+    // Unicode characters are allowed in a host, so the error points at the first other invalid character
+    private void failHost(int start, int end) {
+        int invalid = start;
+        while ((invalid = UriRfc.HOST.indexOfInvalidEncoded(input, invalid, end)) >= 0 && input.charAt(invalid) >= 0x80) {
+            invalid++;
+        }
+        if (invalid < 0) {
+            failure(UriParseError.INVALID_HOST, start, UriRfc.HOST, start, end);
+        } else if (input.charAt(invalid) == '%') {
+            failure(UriParseError.INVALID_PERCENT_ENCODING, invalid, UriRfc.HOST, start, end);
         } else {
-            onNotNull(userInfo, it -> builder.setUserInfo(UriRfc.USER_INFO.validateAndDecode(it)));
-            onNotNull(host, it -> builder.setHost(UriRfc.HOST.validateAndDecode(it)));
-            onNotNull(port, it -> {
-                String decodedPort = UriRfc.PORT.validateAndDecode(it);
-                builder.setPort(Integer.parseInt(decodedPort));
-            });
-            onNotNull(path, builder::setPath);
-            onNotNull(query, q -> builder.setQueryMultiParams(parseQuery(q)));
+            failure(UriParseError.INVALID_HOST, invalid, UriRfc.HOST, start, end);
         }
-        onNotNull(fragment, it -> builder.setFragment(UriRfc.FRAGMENT.validateAndDecode(it)));
-        builder.validate();
-        return builder;
     }
 
-    static Map<String, List<String>> parseQuery(String query) {
-        expectNonNull(query, "query");
-        query = query.startsWith("?") ? query.substring(1) : query;
-        Matcher matcher = QUERY_PARAM_PATTERN.matcher(query);
-        UriRfc.QUERY.checkValidEncoded(query);
-        Map<String, List<String>> result = new LinkedHashMap<>();
-        while (matcher.find()) {
-            String name = matcher.group(1);
-            String decodedName = UriRfc.QUERY_PARAM.validateAndDecode(name);
-            String value = matcher.group(3);
-            String normalizedValue = value != null ? value : "";
-            result
-                    .computeIfAbsent(decodedName, k -> new ArrayList<>())
-                    .add(UriRfc.QUERY_PARAM.validateAndDecode(normalizedValue));
+    private String decode(UriRfc rfc, UriParseError error, int start, int end) {
+        String decoded = rfc.decodeIfValid(input, start, end);
+        if (decoded == null) {
+            validate(rfc, error, start, end);
         }
+        return decoded;
+    }
+
+    private boolean validate(UriRfc rfc, UriParseError error, int start, int end) {
+        int invalid = rfc.indexOfInvalidEncoded(input, start, end);
+        if (invalid < 0) {
+            return true;
+        }
+        UriParseError reported = input.charAt(invalid) == '%'
+                ? UriParseError.INVALID_PERCENT_ENCODING
+                : error;
+        failure(reported, invalid, rfc, start, end);
+        return false;
+    }
+
+    private UriParseResult failure(UriParseError error, int position, UriRfc rfc, int sourceStart, int sourceEnd) {
+        result = UriParseResult.failure(inputType, input, error, position, rfc, sourceStart, sourceEnd);
         return result;
     }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, List<String>> withoutBlankNames(Map<String, List<String>> params) {
+        params.keySet().removeIf(String::isBlank);
+        return params;
+    }
+
+    // Accepts the same input as Integer.parseInt, limited to the scheme default and valid port numbers
+    private static int parsePort(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return INVALID_PORT;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) {
+                return INVALID_PORT;
+            }
+            negative = first == '-';
+            i++;
+        }
+        int value = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0) {
+                return INVALID_PORT;
+            }
+            value = value * 10 + digit;
+            if (value > MAX_PORT_VALUE) {
+                return INVALID_PORT;
+            }
+        }
+        int port = negative ? -value : value;
+        return port < SCHEME_DEFAULT_PORT_NUMBER ? INVALID_PORT : port;
+    }
 }
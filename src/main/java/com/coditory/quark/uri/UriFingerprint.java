@@ -0,0 +1,215 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Stable 128-bit fingerprint of a uri, for example to key crawler frontiers and deduplication stores.
+ * <p>
+ * Fingerprint is the <a href="https://github.com/aappleby/smhasher/wiki/MurmurHash3">MurmurHash3</a> x64 128-bit
+ * hash (seed 0) of the UTF-8 bytes of {@link UriComponents#toUriString()}, so uris that serialize equally
+ * have equal fingerprints and values do not change between JVM runs and library versions.
+ * Uri is serialized to a per-thread reusable buffer and hashed from there, without building the uri string.
+ * 64-bit fingerprint is the high half of the 128-bit one.
+ */
+public final class UriFingerprint {
+    private static final int MAX_REUSED_BUFFER_SIZE = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    @NotNull
+    public static UriFingerprint of(@NotNull UriComponents uriComponents) {
+        expectNonNull(uriComponents, "uriComponents");
+        Murmur3 hash = hash(uriComponents);
+        return new UriFingerprint(hash.h1, hash.h2);
+    }
+
+    /**
+     * Returns fingerprint of the parsed uri, the same as for {@link UriComponents#fromUri(String)}.
+     *
+     * @throws InvalidUriException if the uri cannot be parsed
+     */
+    @NotNull
+    public static UriFingerprint of(@NotNull String uri) {
+        expectNonNull(uri, "uri");
+        return of(UriComponents.fromUri(uri));
+    }
+
+    public static long fingerprint64(@NotNull UriComponents uriComponents) {
+        expectNonNull(uriComponents, "uriComponents");
+        return hash(uriComponents).h1;
+    }
+
+    /**
+     * Returns 64-bit fingerprint of the parsed uri, the same as for {@link UriComponents#fromUri(String)}.
+     *
+     * @throws InvalidUriException if the uri cannot be parsed
+     */
+    public static long fingerprint64(@NotNull String uri) {
+        expectNonNull(uri, "uri");
+        return fingerprint64(UriComponents.fromUri(uri));
+    }
+
+    private static Murmur3 hash(UriComponents uriComponents) {
+        StringBuilder buffer = BUFFERS.get();
+        buffer.setLength(0);
+        uriComponents.appendUriString(buffer);
+        Murmur3 hash = Murmur3.hashUtf8(buffer);
+        if (buffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+            BUFFERS.remove();
+        }
+        return hash;
+    }
+
+    private final long high;
+    private final long low;
+
+    private UriFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Returns 32 hex digits, the high half first.
+     */
+    @NotNull
+    public String toHexString() {
+        String highHex = Long.toHexString(high);
+        String lowHex = Long.toHexString(low);
+        return "0".repeat(16 - highHex.length()) + highHex
+                + "0".repeat(16 - lowHex.length()) + lowHex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UriFingerprint that = (UriFingerprint) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high);
+    }
+
+    @Override
+    public String toString() {
+        return "UriFingerprint{" + toHexString() + '}';
+    }
+
+    /**
+     * MurmurHash3 x64 128-bit consuming UTF-8 bytes of characters one by one.
+     */
+    private static final class Murmur3 {
+        private long h1 = 0;
+        private long h2 = 0;
+        private long k1 = 0;
+        private long k2 = 0;
+        // bytes in the current 16-byte block
+        private int blockLength = 0;
+        private long length = 0;
+
+        static Murmur3 hashUtf8(CharSequence text) {
+            Murmur3 hash = new Murmur3();
+            int textLength = text.length();
+            for (int i = 0; i < textLength; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    hash.put(c);
+                } else if (c < 0x800) {
+                    hash.put(0xC0 | (c >> 6));
+                    hash.put(0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < textLength && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    hash.put(0xF0 | (codePoint >> 18));
+                    hash.put(0x80 | ((codePoint >> 12) & 0x3F));
+                    hash.put(0x80 | ((codePoint >> 6) & 0x3F));
+                    hash.put(0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // malformed input is encoded as '?' like in String.getBytes
+                    hash.put('?');
+                } else {
+                    hash.put(0xE0 | (c >> 12));
+                    hash.put(0x80 | ((c >> 6) & 0x3F));
+                    hash.put(0x80 | (c & 0x3F));
+                }
+            }
+            hash.finish();
+            return hash;
+        }
+
+        private void put(int b) {
+            long value = b & 0xFFL;
+            if (blockLength < 8) {
+                k1 |= value << (8 * blockLength);
+            } else {
+                k2 |= value << (8 * (blockLength - 8));
+            }
+            length++;
+            if (++blockLength == 16) {
+                mixBlock();
+            }
+        }
+
+        private void mixBlock() {
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+            k1 = 0;
+            k2 = 0;
+            blockLength = 0;
+        }
+
+        private void finish() {
+            if (blockLength > 0) {
+                h1 ^= mixK1(k1);
+                h2 ^= mixK2(k2);
+            }
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+            h1 += h2;
+            h2 += h1;
+        }
+
+        private static long mixK1(long k1) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            return k1 * C2;
+        }
+
+        private static long mixK2(long k2) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            return k2 * C1;
+        }
+
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.coditory.quark.uri.Preconditions.expect;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Set of seen uris, for example visited urls of a crawler, keyed by {@link UriFingerprint#fingerprint64(UriComponents) 64-bit uri fingerprints}.
+ * <p>
+ * Fingerprints are stored outside the heap, in direct memory or in a memory mapped file, so even
+ * hundreds of millions of entries do not add to the garbage collection time. Set can work in two modes:
+ * <ul>
+ * <li>exact - open addressing hash table of fingerprints with linear probing, 8 bytes per slot.
+ * Capacity is fixed, the table is sized for the expected size at 75% load factor.</li>
+ * <li>bloom filter - bit array sized for the expected size and false positive rate.
+ * It takes much less memory, but {@link #contains(long)} may report a uri that was never added.</li>
+ * </ul>
+ * Uris are distinct only if their fingerprints differ, so even the exact mode may confuse two uris
+ * with a probability of about n<sup>2</sup>/2<sup>65</sup>.
+ * <p>
+ * Inserts and lookups are lock-free and can be performed concurrently from many threads.
+ * Entries cannot be removed.
+ */
+public final class UriFingerprintSet {
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final int MAX_HASH_FUNCTIONS = 32;
+    private static final long EMPTY = 0;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    @NotNull
+    public static UriFingerprintSetBuilder builder() {
+        return new UriFingerprintSetBuilder();
+    }
+
+    private final OffHeapLongArray table;
+    private final boolean exact;
+    // exact mode: log2 of the slot count, bloom filter mode: bit count
+    private final long bits;
+    private final int hashFunctions;
+    private final long expectedSize;
+    private final LongAdder size = new LongAdder();
+    // zero marks an empty slot, so the zero fingerprint is tracked separately
+    private final AtomicBoolean containsZero = new AtomicBoolean();
+
+    private UriFingerprintSet(OffHeapLongArray table, boolean exact, long bits, int hashFunctions, long expectedSize) {
+        this.table = table;
+        this.exact = exact;
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+        this.expectedSize = expectedSize;
+    }
+
+    /**
+     * Adds fingerprint of the uri.
+     *
+     * @return true if the uri was not in the set
+     * @throws InvalidUriException if the uri cannot be parsed
+     */
+    public boolean add(@NotNull String uri) {
+        expectNonNull(uri, "uri");
+        return add(UriFingerprint.fingerprint64(uri));
+    }
+
+    public boolean add(@NotNull UriComponents uriComponents) {
+        expectNonNull(uriComponents, "uriComponents");
+        return add(uriComponents.fingerprint64());
+    }
+
+    /**
+     * Adds the fingerprint.
+     *
+     * @return true if the fingerprint was not in the set
+     * @throws IllegalStateException if the set is in the exact mode and all slots are taken
+     */
+    public boolean add(long fingerprint) {
+        boolean added = exact
+                ? addExact(fingerprint)
+                : addToBloomFilter(fingerprint);
+        if (added) {
+            size.increment();
+        }
+        return added;
+    }
+
+    /**
+     * Checks if the uri was added. In the bloom filter mode it may return true for a uri that was not added.
+     *
+     * @throws InvalidUriException if the uri cannot be parsed
+     */
+    public boolean contains(@NotNull String uri) {
+        expectNonNull(uri, "uri");
+        return contains(UriFingerprint.fingerprint64(uri));
+    }
+
+    public boolean contains(@Nullable UriComponents uriComponents) {
+        return uriComponents != null && contains(uriComponents.fingerprint64());
+    }
+
+    public boolean contains(long fingerprint) {
+        return exact
+                ? containsExact(fingerprint)
+                : bloomFilterContains(fingerprint);
+    }
+
+    /**
+     * Returns number of added fingerprints. In the bloom filter mode adding a fingerprint
+     * that is reported as present is not counted, so the size may be lower than the number of unique uris.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Returns number of bytes used to store fingerprints.
+     */
+    public long memorySize() {
+        return table.length() * Long.BYTES;
+    }
+
+    /**
+     * Writes changes of a memory mapped set to its file. Does nothing if the set is not memory mapped.
+     */
+    public void flush() {
+        table.force();
+    }
+
+    private boolean addExact(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            return containsZero.compareAndSet(false, true);
+        }
+        long mask = table.length() - 1;
+        long slot = slot(fingerprint);
+        for (long probes = 0; probes <= mask; probes++) {
+            long current = table.getVolatile(slot);
+            if (current == EMPTY) {
+                if (table.compareAndSet(slot, EMPTY, fingerprint)) {
+                    return true;
+                }
+                // slot was taken by a concurrent insert, maybe of the same fingerprint
+                current = table.getVolatile(slot);
+            }
+            if (current == fingerprint) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("Uri fingerprint set is full. Expected size: " + expectedSize);
+    }
+
+    private boolean containsExact(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            return containsZero.get();
+        }
+        long mask = table.length() - 1;
+        long slot = slot(fingerprint);
+        for (long probes = 0; probes <= mask; probes++) {
+            long current = table.getVolatile(slot);
+            if (current == fingerprint) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    // Fibonacci hashing, so sequential fingerprints passed to add(long) are spread as well
+    private long slot(long fingerprint) {
+        return (fingerprint * GOLDEN_RATIO) >>> (64 - bits);
+    }
+
+    // Double hashing (Kirsch, Mitzenmacher) derives all bit positions from the single fingerprint
+    private boolean addToBloomFilter(long fingerprint) {
+        long hash = fingerprint;
+        long step = Long.rotateLeft(fingerprint * GOLDEN_RATIO, 32) | 1;
+        boolean added = false;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(hash, bits);
+            long mask = 1L << bit;
+            if ((table.getVolatile(bit >>> 6) & mask) == 0) {
+                added |= (table.getAndBitwiseOr(bit >>> 6, mask) & mask) == 0;
+            }
+            hash += step;
+        }
+        return added;
+    }
+
+    private boolean bloomFilterContains(long fingerprint) {
+        long hash = fingerprint;
+        long step = Long.rotateLeft(fingerprint * GOLDEN_RATIO, 32) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(hash, bits);
+            if ((table.getVolatile(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+            hash += step;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "UriFingerprintSet{" +
+                "exact=" + exact +
+                ", size=" + size() +
+                ", expectedSize=" + expectedSize +
+                ", memorySize=" + memorySize() +
+                '}';
+    }
+
+    public static class UriFingerprintSetBuilder {
+        private static final long MAX_EXPECTED_SIZE = 1L << 40;
+        private long expectedSize = 1_000_000;
+        private double falsePositiveRate = 0;
+        private Path file;
+
+        public UriFingerprintSetBuilder expectedSize(long expectedSize) {
+            expect(expectedSize > 0 && expectedSize <= MAX_EXPECTED_SIZE, "Expected expectedSize in range [1, %d]. Got: %d", MAX_EXPECTED_SIZE, expectedSize);
+            this.expectedSize = expectedSize;
+            return this;
+        }
+
+        /**
+         * Switches the set to the bloom filter mode with the given false positive rate.
+         */
+        public UriFingerprintSetBuilder falsePositiveRate(double falsePositiveRate) {
+            expect(falsePositiveRate > 0 && falsePositiveRate < 1, "Expected falsePositiveRate in range (0, 1). Got: %s", falsePositiveRate);
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        public UriFingerprintSetBuilder exact() {
+            this.falsePositiveRate = 0;
+            return this;
+        }
+
+        /**
+         * Stores fingerprints in a memory mapped file instead of direct memory.
+         * Previous content of the file is discarded.
+         */
+        public UriFingerprintSetBuilder memoryMapped(@NotNull Path file) {
+            this.file = expectNonNull(file, "file");
+            return this;
+        }
+
+        public UriFingerprintSet build() {
+            return falsePositiveRate == 0
+                    ? buildExact()
+                    : buildBloomFilter();
+        }
+
+        private UriFingerprintSet buildExact() {
+            long minSlots = (long) Math.ceil(expectedSize / MAX_LOAD_FACTOR);
+            int slotBits = Math.max(4, 64 - Long.numberOfLeadingZeros(minSlots - 1));
+            return new UriFingerprintSet(allocate(1L << slotBits), true, slotBits, 0, expectedSize);
+        }
+
+        private UriFingerprintSet buildBloomFilter() {
+            double ln2 = Math.log(2);
+            long bits = (long) Math.ceil(-expectedSize * Math.log(falsePositiveRate) / (ln2 * ln2));
+            bits = Math.max(64, (bits + 63) & ~63L);
+            int hashFunctions = (int) Math.round((double) bits / expectedSize * ln2);
+            hashFunctions = Math.max(1, Math.min(MAX_HASH_FUNCTIONS, hashFunctions));
+            return new UriFingerprintSet(allocate(bits / 64), false, bits, hashFunctions, expectedSize);
+        }
+
+        private OffHeapLongArray allocate(long length) {
+            if (file == null) {
+                return OffHeapLongArray.allocateDirect(length);
+            }
+            try {
+                return OffHeapLongArray.map(file, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map uri fingerprint set file: " + file, e);
+            }
+        }
+    }
+}
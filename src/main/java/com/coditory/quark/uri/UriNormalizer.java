@@ -0,0 +1,565 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.coditory.quark.uri.Ports.MAX_PORT_VALUE;
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Produces canonical uris, for example to use them as cache keys,
+ * as described in <a href="https://datatracker.ietf.org/doc/html/rfc3986#section-6">RFC 3986, section 6</a>.
+ * <p>
+ * Normalization lower cases scheme and host, upper cases hex digits of percent-encoded sequences,
+ * decodes percent-encoded unreserved characters, removes dot segments from absolute paths, uses "/" for
+ * an empty path of a uri with a host and drops empty and default ports (http, https, ws, wss, ftp).
+ * Ip v6 address is written in the canonical form, internationalized host is converted to punycode
+ * and non-ASCII characters of other components are percent-encoded as UTF-8.
+ * Query params can be sorted by name and value and fragment can be removed.
+ * <p>
+ * Raw uri is normalized in a single pass straight to the output, without building {@link UriComponents}.
+ * {@link UriComponents} are normalized from their decoded values, so characters encoded only to be
+ * on the safe side are encoded like in {@link UriComponents#toUriString()}. Relative path that does not
+ * start with a slash keeps its dot segments, as they cannot be resolved without a base uri.
+ * <p>
+ * Keys produced from a raw uri and from {@link UriComponents} must not be mixed. Parsed query params
+ * do not distinguish a name without a value from a name with an empty value and they are encoded
+ * more strictly, so for example "?a&amp;b=:" is normalized to "?a&amp;b=:" from a raw uri
+ * and to "?a=&amp;b=%3A" from {@link UriComponents}.
+ */
+public final class UriNormalizer {
+    private static final UriNormalizer INSTANCE = builder().build();
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    @NotNull
+    public static UriNormalizer instance() {
+        return INSTANCE;
+    }
+
+    @NotNull
+    public static String normalizeUri(@NotNull String uri) {
+        return INSTANCE.normalize(uri);
+    }
+
+    @NotNull
+    public static UriNormalizerBuilder builder() {
+        return new UriNormalizerBuilder();
+    }
+
+    private final boolean sortQueryParams;
+    private final boolean removeFragment;
+
+    private UriNormalizer(boolean sortQueryParams, boolean removeFragment) {
+        this.sortQueryParams = sortQueryParams;
+        this.removeFragment = removeFragment;
+    }
+
+    /**
+     * Normalizes raw uri.
+     *
+     * @throws InvalidUriException if the uri contains a character that is not allowed or malformed component
+     */
+    @NotNull
+    public String normalize(@NotNull String uri) {
+        expectNonNull(uri, "uri");
+        RawUri rawUri = RawUri.parse(uri);
+        if (!rawUri.isValid()) {
+            throw invalidUri(uri, "Invalid character at position " + rawUri.getErrorPosition());
+        }
+        StringBuilder out = new StringBuilder(uri.length() + 8);
+        int defaultPort = -1;
+        if (rawUri.getSchemeEnd() >= 0) {
+            appendScheme(uri, rawUri.getSchemeEnd(), out);
+            defaultPort = defaultPort(out.toString());
+            out.append(':');
+        }
+        if (rawUri.isOpaque()) {
+            // scheme specific part of RawUri includes the delimiter of an empty fragment
+            int sspEnd = rawUri.getFragmentStart() >= 0 ? rawUri.getFragmentStart() - 1 : uri.length();
+            appendNormalized(uri, rawUri.getSchemeSpecificPartStart(), sspEnd, UriRfc.SCHEME_SPECIFIC_PART, out);
+        } else {
+            boolean authority = rawUri.getHostStart() >= 0;
+            if (authority) {
+                out.append("//");
+                appendAuthority(uri, rawUri, defaultPort, out);
+            }
+            if (authority) {
+                appendAbsolutePath(uri, rawUri.getPathStart(), rawUri.getPathEnd(), out);
+            } else if (startsWith(uri, rawUri.getPathStart(), rawUri.getPathEnd(), '/')) {
+                int pathStart = out.length();
+                appendAbsolutePath(uri, rawUri.getPathStart(), rawUri.getPathEnd(), out);
+                preventAuthority(pathStart, out);
+            } else {
+                appendNormalized(uri, rawUri.getPathStart(), rawUri.getPathEnd(), UriRfc.PATH_SEGMENT, '/', out);
+            }
+            if (rawUri.getQueryStart() >= 0) {
+                out.append('?');
+                appendQuery(uri, rawUri.getQueryStart(), rawUri.getQueryEnd(), out);
+            }
+        }
+        if (rawUri.getFragmentStart() >= 0 && !removeFragment) {
+            out.append('#');
+            appendNormalized(uri, rawUri.getFragmentStart(), uri.length(), UriRfc.FRAGMENT, out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Normalizes raw uri. Returns null if the uri is null or cannot be normalized.
+     */
+    @Nullable
+    public String normalizeOrNull(@Nullable String uri) {
+        if (uri == null) {
+            return null;
+        }
+        try {
+            return normalize(uri);
+        } catch (InvalidUriException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    public String normalize(@NotNull UriComponents uriComponents) {
+        expectNonNull(uriComponents, "uriComponents");
+        StringBuilder out = new StringBuilder(64);
+        String scheme = uriComponents.getScheme();
+        int defaultPort = -1;
+        if (scheme != null) {
+            UriRfc.SCHEME.encode(Strings.lowerCase(scheme), out);
+            defaultPort = defaultPort(out.toString());
+            out.append(':');
+        }
+        String fragment = removeFragment ? null : uriComponents.getFragment();
+        if (uriComponents.isOpaque()) {
+            UriRfc.SCHEME_SPECIFIC_PART.encode(uriComponents.getSchemeSpecificPart(), out);
+        } else {
+            String userInfo = uriComponents.getUserInfo();
+            String host = uriComponents.getHost();
+            if (host != null || userInfo != null || uriComponents.isProtocolRelative()) {
+                out.append("//");
+            }
+            if (userInfo != null) {
+                UriRfc.USER_INFO.encode(userInfo, out);
+                out.append('@');
+            }
+            if (host != null) {
+                appendHost(host, out);
+            }
+            int port = uriComponents.getPort();
+            if (port >= 0 && port != defaultPort) {
+                out.append(':').append(port);
+            }
+            appendPath(uriComponents, host != null || uriComponents.isRootPath(), out);
+            appendQuery(uriComponents.getQueryMultiParams(), out);
+        }
+        if (fragment != null) {
+            out.append('#');
+            UriRfc.FRAGMENT.encode(fragment, out);
+        }
+        return out.toString();
+    }
+
+    private void appendAuthority(String uri, RawUri rawUri, int defaultPort, StringBuilder out) {
+        if (rawUri.getUserInfoEnd() >= 0) {
+            appendNormalized(uri, rawUri.getUserInfoStart(), rawUri.getUserInfoEnd(), UriRfc.USER_INFO, out);
+            out.append('@');
+        }
+        int hostStart = rawUri.getHostStart();
+        int hostEnd = rawUri.getHostEnd();
+        if (startsWith(uri, hostStart, hostEnd, '[')) {
+            String canonical = InetAddressValidator.toCanonicalInetAddress(uri.substring(hostStart, hostEnd));
+            if (canonical == null) {
+                throw invalidUri(uri, "Invalid host: " + uri.substring(hostStart, hostEnd));
+            }
+            out.append(canonical);
+        } else {
+            appendRegularHost(uri, hostStart, hostEnd, out);
+        }
+        if (rawUri.getPortStart() >= 0) {
+            int port = parsePort(uri, rawUri.getPortStart(), rawUri.getPortEnd());
+            if (port >= 0 && port != defaultPort) {
+                out.append(':').append(port);
+            }
+        }
+    }
+
+    // Scheme cannot be percent-encoded: ALPHA *( ALPHA / DIGIT / "+" / "-" / "." )
+    private static void appendScheme(String uri, int end, StringBuilder out) {
+        for (int i = 0; i < end; i++) {
+            char c = uri.charAt(i);
+            boolean valid = isAsciiLetter(c)
+                    || (i > 0 && ((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.'));
+            if (!valid) {
+                throw invalidUri(uri, "Invalid scheme: " + uri.substring(0, end));
+            }
+            out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+    }
+
+    private static void appendRegularHost(String uri, int start, int end, StringBuilder out) {
+        if (uri.indexOf('%', start, end) < 0 && Idn.isAscii(uri, start, end)) {
+            int hostStart = out.length();
+            appendNormalized(uri, start, end, UriRfc.HOST, out);
+            lowerCaseAscii(out, hostStart, out.length());
+            return;
+        }
+        String encoded = Idn.isAscii(uri, start, end)
+                ? uri.substring(start, end)
+                : Idn.percentEncodeNonAscii(uri, start, end);
+        String decoded = UriRfc.HOST.decodeIfValid(encoded, 0, encoded.length());
+        String ascii = decoded == null ? null : Idn.toAsciiOrNull(decoded);
+        if (ascii == null) {
+            throw invalidUri(uri, "Invalid host: " + uri.substring(start, end));
+        }
+        appendHost(ascii, out);
+    }
+
+    // Host from uri components is decoded, characters that are not allowed are encoded again
+    private static void appendHost(String host, StringBuilder out) {
+        if (host.startsWith("[")) {
+            int zone = host.indexOf('%');
+            String address = zone < 0 ? host : host.substring(0, zone) + "]";
+            String canonical = InetAddressValidator.toCanonicalInetAddress(address);
+            if (canonical == null) {
+                throw new InvalidUriException("Invalid host: " + host);
+            }
+            if (zone < 0) {
+                out.append(canonical);
+            } else {
+                out.append(canonical, 0, canonical.length() - 1).append("%25");
+                UriRfc.USER_INFO.encode(host.substring(zone + 1, host.length() - 1), out);
+                out.append(']');
+            }
+            return;
+        }
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c < 0x80 && UriRfc.HOST.isAllowed(c)) {
+                out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+            } else {
+                appendPercentEncoded(host, i, out);
+                i += Character.charCount(host.codePointAt(i)) - 1;
+            }
+        }
+    }
+
+    private static int parsePort(String uri, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        int port = 0;
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c < '0' || c > '9' || (port = port * 10 + (c - '0')) > MAX_PORT_VALUE) {
+                throw invalidUri(uri, "Invalid port: " + uri.substring(start, end));
+            }
+        }
+        return port;
+    }
+
+    // Empty path and a path that ends with a slash end with an empty segment
+    private static void appendAbsolutePath(String uri, int start, int end, StringBuilder out) {
+        PathSegments segments = new PathSegments(out);
+        int i = startsWith(uri, start, end, '/') ? start + 1 : start;
+        while (true) {
+            int segmentEnd = uri.indexOf('/', i, end);
+            if (segmentEnd < 0) {
+                segmentEnd = end;
+            }
+            int segmentStart = out.length();
+            out.append('/');
+            appendNormalized(uri, i, segmentEnd, UriRfc.PATH_SEGMENT, out);
+            segments.added(segmentStart);
+            if (segmentEnd == end) {
+                break;
+            }
+            i = segmentEnd + 1;
+        }
+        segments.finish();
+    }
+
+    // Path without an authority that starts with "//" after removing dot segments would be parsed as an authority.
+    // It is prefixed with "/." like in the WHATWG url standard.
+    private static void preventAuthority(int pathStart, StringBuilder out) {
+        if (out.length() - pathStart >= 2 && out.charAt(pathStart + 1) == '/') {
+            out.insert(pathStart, "/.");
+        }
+    }
+
+    private static void appendPath(UriComponents uriComponents, boolean absolute, StringBuilder out) {
+        List<String> pathSegments = uriComponents.getPathSegments();
+        if (!absolute) {
+            for (int i = 0; i < pathSegments.size(); i++) {
+                if (i > 0) {
+                    out.append('/');
+                }
+                UriRfc.PATH_SEGMENT.encode(pathSegments.get(i), out);
+            }
+            return;
+        }
+        PathSegments segments = new PathSegments(out);
+        for (String pathSegment : pathSegments) {
+            int segmentStart = out.length();
+            out.append('/');
+            UriRfc.PATH_SEGMENT.encode(pathSegment, out);
+            segments.added(segmentStart);
+        }
+        segments.finish();
+    }
+
+    private void appendQuery(String uri, int start, int end, StringBuilder out) {
+        if (!sortQueryParams) {
+            appendNormalized(uri, start, end, UriRfc.QUERY, out);
+            return;
+        }
+        List<String> params = new ArrayList<>();
+        int paramsStart = out.length();
+        int i = start;
+        while (i < end) {
+            int paramEnd = uri.indexOf('&', i, end);
+            if (paramEnd < 0) {
+                paramEnd = end;
+            }
+            if (paramEnd > i) {
+                appendNormalized(uri, i, paramEnd, UriRfc.QUERY, out);
+                params.add(out.substring(paramsStart));
+                out.setLength(paramsStart);
+            }
+            i = paramEnd + 1;
+        }
+        appendSorted(params, out);
+    }
+
+    private void appendQuery(Map<String, List<String>> queryParams, StringBuilder out) {
+        if (queryParams.isEmpty()) {
+            return;
+        }
+        out.append('?');
+        List<String> params = new ArrayList<>();
+        int paramsStart = out.length();
+        queryParams.forEach((name, values) -> {
+            if (values == null || values.isEmpty()) {
+                UriRfc.QUERY_PARAM_NARROW.encode(name, out);
+                params.add(out.substring(paramsStart));
+                out.setLength(paramsStart);
+            } else {
+                for (String value : values) {
+                    UriRfc.QUERY_PARAM_NARROW.encode(name, out);
+                    out.append('=');
+                    UriRfc.QUERY_PARAM_NARROW.encode(value, out);
+                    params.add(out.substring(paramsStart));
+                    out.setLength(paramsStart);
+                }
+            }
+        });
+        if (sortQueryParams) {
+            appendSorted(params, out);
+        } else {
+            out.append(String.join("&", params));
+        }
+    }
+
+    private static void appendSorted(List<String> params, StringBuilder out) {
+        params.sort(UriNormalizer::compareQueryParams);
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                out.append('&');
+            }
+            out.append(params.get(i));
+        }
+    }
+
+    // Orders params by name and then by value, '=' goes first so the name ends before any longer name
+    private static int compareQueryParams(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                if (ca == '=') {
+                    return -1;
+                }
+                if (cb == '=') {
+                    return 1;
+                }
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private static void appendNormalized(String uri, int start, int end, UriRfc rfc, StringBuilder out) {
+        appendNormalized(uri, start, end, rfc, (char) 0, out);
+    }
+
+    /**
+     * Appends the range with percent-encoded unreserved characters decoded,
+     * other percent-encoded sequences upper cased and non-ASCII characters encoded as UTF-8.
+     */
+    private static void appendNormalized(String uri, int start, int end, UriRfc rfc, char separator, StringBuilder out) {
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '%') {
+                int value = i + 2 < end
+                        ? UriRfc.hexValue(uri.charAt(i + 1), uri.charAt(i + 2))
+                        : -1;
+                if (value < 0) {
+                    throw invalidUri(uri, rfc.invalidEncodedMessage(uri.substring(start, end), i - start));
+                }
+                if (isUnreserved(value)) {
+                    out.append((char) value);
+                } else {
+                    out.append('%')
+                            .append(HEX_DIGITS[value >> 4])
+                            .append(HEX_DIGITS[value & 0xF]);
+                }
+                i += 2;
+            } else if (rfc.isAllowed(c) || (c == separator && c != 0)) {
+                out.append(c);
+            } else if (c >= 0x80 && !Character.isSurrogate(c)) {
+                appendPercentEncoded(uri, i, out);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(uri.charAt(i + 1))) {
+                appendPercentEncoded(uri, i, out);
+                i++;
+            } else {
+                throw invalidUri(uri, rfc.invalidEncodedMessage(uri.substring(start, end), i - start));
+            }
+        }
+    }
+
+    // Appends UTF-8 bytes of the code point that starts at the index
+    private static void appendPercentEncoded(String source, int index, StringBuilder out) {
+        int codePoint = source.codePointAt(index);
+        if (codePoint < 0x80) {
+            appendPercentEncodedByte(codePoint, out);
+        } else if (codePoint < 0x800) {
+            appendPercentEncodedByte(0xC0 | (codePoint >> 6), out);
+            appendPercentEncodedByte(0x80 | (codePoint & 0x3F), out);
+        } else if (codePoint < 0x10000) {
+            appendPercentEncodedByte(0xE0 | (codePoint >> 12), out);
+            appendPercentEncodedByte(0x80 | ((codePoint >> 6) & 0x3F), out);
+            appendPercentEncodedByte(0x80 | (codePoint & 0x3F), out);
+        } else {
+            appendPercentEncodedByte(0xF0 | (codePoint >> 18), out);
+            appendPercentEncodedByte(0x80 | ((codePoint >> 12) & 0x3F), out);
+            appendPercentEncodedByte(0x80 | ((codePoint >> 6) & 0x3F), out);
+            appendPercentEncodedByte(0x80 | (codePoint & 0x3F), out);
+        }
+    }
+
+    private static void appendPercentEncodedByte(int value, StringBuilder out) {
+        out.append('%')
+                .append(HEX_DIGITS[value >> 4])
+                .append(HEX_DIGITS[value & 0xF]);
+    }
+
+    private static int defaultPort(String scheme) {
+        return switch (scheme) {
+            case "http", "ws" -> 80;
+            case "https", "wss" -> 443;
+            case "ftp" -> 21;
+            default -> -1;
+        };
+    }
+
+    private static boolean isUnreserved(int c) {
+        return isAsciiLetter((char) c)
+                || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static void lowerCaseAscii(StringBuilder out, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = out.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                out.setCharAt(i, (char) (c + ('a' - 'A')));
+            }
+        }
+    }
+
+    private static boolean startsWith(String uri, int start, int end, char c) {
+        return start < end && uri.charAt(start) == c;
+    }
+
+    private static InvalidUriException invalidUri(String uri, String cause) {
+        return new InvalidUriException("Could not normalize uri: \"" + uri + "\". Cause: " + cause);
+    }
+
+    /**
+     * Removes dot segments (RFC 3986, section 5.2.4) while path segments are appended to the output.
+     */
+    private static final class PathSegments {
+        private final StringBuilder out;
+        private final int pathStart;
+        private int[] starts = new int[8];
+        private int size = 0;
+        private boolean trailingSlash = false;
+
+        PathSegments(StringBuilder out) {
+            this.out = out;
+            this.pathStart = out.length();
+        }
+
+        // Segment prefixed with a slash was appended to the output at the given index
+        void added(int segmentStart) {
+            int length = out.length() - segmentStart - 1;
+            boolean dot = length >= 1 && length <= 2
+                    && out.charAt(segmentStart + 1) == '.'
+                    && out.charAt(out.length() - 1) == '.';
+            if (!dot) {
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, 2 * size);
+                }
+                starts[size++] = segmentStart;
+                trailingSlash = false;
+                return;
+            }
+            out.setLength(segmentStart);
+            if (length == 2 && size > 0) {
+                out.setLength(starts[--size]);
+            }
+            trailingSlash = true;
+        }
+
+        void finish() {
+            if (trailingSlash || out.length() == pathStart) {
+                out.append('/');
+            }
+        }
+    }
+
+    public static class UriNormalizerBuilder {
+        private boolean sortQueryParams = false;
+        private boolean removeFragment = false;
+
+        /**
+         * Sorts query params by name and value. Empty params are removed. Default: false.
+         */
+        public UriNormalizerBuilder sortQueryParams(boolean sortQueryParams) {
+            this.sortQueryParams = sortQueryParams;
+            return this;
+        }
+
+        /**
+         * Removes fragment, that is never sent to the server. Default: false.
+         */
+        public UriNormalizerBuilder removeFragment(boolean removeFragment) {
+            this.removeFragment = removeFragment;
+            return this;
+        }
+
+        public UriNormalizer build() {
+            return new UriNormalizer(sortQueryParams, removeFragment);
+        }
+    }
+}
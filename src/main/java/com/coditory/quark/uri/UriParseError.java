@@ -0,0 +1,20 @@
+package com.coditory.quark.uri;
+
+/**
+ * Reason of a failed {@link UriParseResult}.
+ */
+public enum UriParseError {
+    MALFORMED_URI,
+    INVALID_PERCENT_ENCODING,
+    INVALID_SCHEME,
+    INVALID_SCHEME_SPECIFIC_PART,
+    INVALID_USER_INFO,
+    INVALID_HOST,
+    INVALID_PORT,
+    INVALID_PATH,
+    INVALID_QUERY,
+    INVALID_FRAGMENT,
+    USER_INFO_WITHOUT_HOST,
+    PORT_WITHOUT_HOST,
+    NOT_HTTP_URL
+}
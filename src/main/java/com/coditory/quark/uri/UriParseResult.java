@@ -0,0 +1,155 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.coditory.quark.uri.Strings.lowerCase;
+
+/**
+ * Outcome of parsing that never throws. Holds either parsed {@link UriComponents}
+ * or an error with the position of the offending character in the parsed input.
+ * <p>
+ * Failure does not build an error message upfront. The message is created only when
+ * it is requested with {@link #getErrorMessage()} or {@link #getUriComponents()}.
+ */
+public final class UriParseResult {
+    enum Input {
+        URI, HTTP_URL, QUERY_STRING
+    }
+
+    static UriParseResult success(UriComponents uriComponents) {
+        return new UriParseResult(uriComponents, null, null, null, -1, null, -1, -1);
+    }
+
+    static UriParseResult failure(
+            Input inputType,
+            String input,
+            UriParseError error,
+            int position,
+            @Nullable UriRfc rfc,
+            int sourceStart,
+            int sourceEnd
+    ) {
+        return new UriParseResult(null, inputType, input, error, position, rfc, sourceStart, sourceEnd);
+    }
+
+    private final UriComponents uriComponents;
+    private final Input inputType;
+    private final String input;
+    private final UriParseError error;
+    private final int errorPosition;
+    // rfc and source bounds describe the validated part of the input, they are used to recreate error message
+    private final UriRfc rfc;
+    private final int sourceStart;
+    private final int sourceEnd;
+
+    private UriParseResult(
+            UriComponents uriComponents,
+            Input inputType,
+            String input,
+            UriParseError error,
+            int errorPosition,
+            UriRfc rfc,
+            int sourceStart,
+            int sourceEnd
+    ) {
+        this.uriComponents = uriComponents;
+        this.inputType = inputType;
+        this.input = input;
+        this.error = error;
+        this.errorPosition = errorPosition;
+        this.rfc = rfc;
+        this.sourceStart = sourceStart;
+        this.sourceEnd = sourceEnd;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public boolean isFailure() {
+        return error != null;
+    }
+
+    @NotNull
+    public UriComponents getUriComponents() {
+        if (error != null) {
+            throw toException();
+        }
+        return uriComponents;
+    }
+
+    @Nullable
+    public UriComponents getUriComponentsOrNull() {
+        return uriComponents;
+    }
+
+    @Nullable
+    public UriParseError getError() {
+        return error;
+    }
+
+    /**
+     * Returns index of the character in the parsed input that caused the error or -1 for a successful result.
+     */
+    public int getErrorPosition() {
+        return errorPosition;
+    }
+
+    @Nullable
+    public String getErrorMessage() {
+        if (error == null) {
+            return null;
+        }
+        return switch (inputType) {
+            case URI -> uriErrorMessage();
+            case HTTP_URL -> httpUrlErrorMessage();
+            case QUERY_STRING -> causeMessage();
+        };
+    }
+
+    RuntimeException toException() {
+        if (inputType == Input.HTTP_URL) {
+            if (error == UriParseError.NOT_HTTP_URL) {
+                return new InvalidHttpUrlException(httpUrlErrorMessage(),
+                        new InvalidHttpUrlException("Invalid http url: \"" + input + "\""));
+            }
+            return new InvalidHttpUrlException(httpUrlErrorMessage(), new InvalidUriException(uriErrorMessage()));
+        }
+        return new InvalidUriException(getErrorMessage());
+    }
+
+    private String httpUrlErrorMessage() {
+        return error == UriParseError.NOT_HTTP_URL
+                ? "Could not parse http url: \"" + input + "\""
+                : "Could not parse http url: \"" + input + "\". Cause: " + uriErrorMessage();
+    }
+
+    private String uriErrorMessage() {
+        String cause = causeMessage();
+        return cause == null
+                ? "Could not parse uri: \"" + input + "\""
+                : "Could not parse uri: \"" + input + "\". Cause: " + cause;
+    }
+
+    @Nullable
+    private String causeMessage() {
+        if (rfc != null) {
+            return rfc.invalidEncodedMessage(input.substring(sourceStart, sourceEnd), errorPosition - sourceStart);
+        }
+        return switch (error) {
+            case USER_INFO_WITHOUT_HOST -> "URI with user info must include host";
+            case PORT_WITHOUT_HOST -> "URI with port must include host";
+            case INVALID_SCHEME -> "Invalid scheme: " + lowerCase(UriRfc.SCHEME.decode(input.substring(sourceStart, sourceEnd)));
+            case INVALID_HOST -> "Invalid host: " + lowerCase(UriRfc.HOST.decode(input.substring(sourceStart, sourceEnd)));
+            default -> null;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return error == null
+                ? "UriParseResult{uriComponents=" + uriComponents + '}'
+                : "UriParseResult{error=" + error + ", position=" + errorPosition + '}';
+    }
+}
@@ -0,0 +1,147 @@
+package com.coditory.quark.uri;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.coditory.quark.uri.Preconditions.expectNonNull;
+
+/**
+ * Resolves uri references against a base uri as specified in
+ * <a href="https://www.rfc-editor.org/rfc/rfc3986#section-5.2">RFC 3986, section 5.2</a>.
+ * <p>
+ * Base is parsed once and reused for every reference. Reference is parsed to components and merged
+ * with the parsed base, without building intermediate uri strings.
+ * <p>
+ * {@link UriComponents} do not keep empty path segments, so the trailing slash of the base is recorded
+ * when the resolver is created from a raw base uri. Resolver created from {@link UriComponents} treats the last
+ * path segment as a file name, like when resolving against {@link UriComponents#toUriString()}.
+ * For the same reason a resolved uri does not end with a slash, even if the reference does.
+ */
+public final class UriReferenceResolver {
+    @NotNull
+    public static UriReferenceResolver of(@NotNull String base) {
+        expectNonNull(base, "base");
+        return new UriReferenceResolver(UriComponents.fromUri(base), hasDirectoryPath(base));
+    }
+
+    @NotNull
+    public static UriReferenceResolver of(@NotNull UriComponents base) {
+        expectNonNull(base, "base");
+        return new UriReferenceResolver(base, false);
+    }
+
+    private final UriComponents base;
+    // base path segments that a relative path reference is appended to
+    private final List<String> baseDirectorySegments;
+
+    private UriReferenceResolver(UriComponents base, boolean baseDirectory) {
+        this.base = base;
+        List<String> baseSegments = base.getPathSegments();
+        this.baseDirectorySegments = baseDirectory || baseSegments.isEmpty()
+                ? baseSegments
+                : baseSegments.subList(0, baseSegments.size() - 1);
+    }
+
+    @NotNull
+    public UriComponents getBase() {
+        return base;
+    }
+
+    /**
+     * Resolves the reference against the base, including removal of dot segments.
+     *
+     * @throws InvalidUriException if the reference cannot be parsed or is a relative path for an opaque base
+     */
+    @NotNull
+    public UriComponents resolve(@NotNull String reference) {
+        expectNonNull(reference, "reference");
+        UriComponents ref = reference.isBlank()
+                ? UriComponents.empty()
+                : UriComponentsParser.parse(reference).getUriComponents();
+        if (ref.getScheme() != null) {
+            return ref.isOpaque()
+                    ? ref
+                    : withoutDotSegments(ref, ref.getScheme(), false);
+        }
+        boolean pathEmpty = ref.getPathSegments().isEmpty() && !ref.isRootPath();
+        boolean queryDefined = !ref.getQueryMultiParams().isEmpty() || containsQuery(reference);
+        if (base.isOpaque()) {
+            if (ref.getHost() != null || ref.isProtocolRelative() || !pathEmpty || queryDefined) {
+                throw new InvalidUriException("Could not resolve relative reference against opaque uri: \"" + base + "\"");
+            }
+            return UriComponents.buildOpaque(base.getScheme(), base.getSchemeSpecificPart(), ref.getFragment());
+        }
+        String scheme = base.getScheme();
+        if (ref.getHost() != null || ref.isProtocolRelative()) {
+            return withoutDotSegments(ref, scheme, scheme == null);
+        }
+        if (pathEmpty) {
+            return UriComponents.buildValidatedHierarchical(
+                    scheme, base.getUserInfo(), base.getHost(), base.getPort(), base.isProtocolRelative(),
+                    base.isRootPath(), base.getPathSegments(),
+                    queryDefined ? ref.getQueryMultiParams() : base.getQueryMultiParams(),
+                    ref.getFragment());
+        }
+        List<String> pathSegments;
+        boolean rootPath;
+        if (ref.isRootPath()) {
+            pathSegments = removeDotSegments(ref.getPathSegments(), true);
+            rootPath = true;
+        } else {
+            List<String> merged = new ArrayList<>(baseDirectorySegments.size() + ref.getPathSegments().size());
+            merged.addAll(baseDirectorySegments);
+            merged.addAll(ref.getPathSegments());
+            rootPath = base.isRootPath() || base.getHost() != null;
+            pathSegments = removeDotSegments(merged, rootPath);
+        }
+        return UriComponents.buildValidatedHierarchical(
+                scheme, base.getUserInfo(), base.getHost(), base.getPort(), base.isProtocolRelative(),
+                rootPath, pathSegments, ref.getQueryMultiParams(), ref.getFragment());
+    }
+
+    @Override
+    public String toString() {
+        return "UriReferenceResolver{base=" + base + '}';
+    }
+
+    private static UriComponents withoutDotSegments(UriComponents ref, String scheme, boolean protocolRelative) {
+        List<String> pathSegments = removeDotSegments(ref.getPathSegments(), ref.isRootPath());
+        return UriComponents.buildValidatedHierarchical(
+                scheme, ref.getUserInfo(), ref.getHost(), ref.getPort(), protocolRelative,
+                ref.isRootPath(), pathSegments, ref.getQueryMultiParams(), ref.getFragment());
+    }
+
+    private static boolean hasDirectoryPath(String uri) {
+        RawUri rawUri = RawUri.parse(uri);
+        int pathEnd = rawUri.getPathEnd();
+        return pathEnd > rawUri.getPathStart() && uri.charAt(pathEnd - 1) == '/';
+    }
+
+    // Segments above the root of an absolute path are dropped, a relative path keeps them
+    private static List<String> removeDotSegments(List<String> segments, boolean rootPath) {
+        if (!segments.contains(".") && !segments.contains("..")) {
+            return segments;
+        }
+        List<String> result = new ArrayList<>(segments.size());
+        for (String segment : segments) {
+            if (segment.equals("..")) {
+                if (!result.isEmpty() && !result.get(result.size() - 1).equals("..")) {
+                    result.remove(result.size() - 1);
+                } else if (!rootPath) {
+                    result.add(segment);
+                }
+            } else if (!segment.equals(".")) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsQuery(String reference) {
+        int query = reference.indexOf('?');
+        int fragment = reference.indexOf('#');
+        return query >= 0 && (fragment < 0 || query < fragment);
+    }
+}
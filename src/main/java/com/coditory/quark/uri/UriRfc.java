@@ -1,7 +1,5 @@
 package com.coditory.quark.uri;
 
-import java.util.BitSet;
-
 import static com.coditory.quark.uri.Preconditions.expectNonNull;
 import static java.util.Locale.ROOT;
 
@@ -17,7 +15,11 @@ enum UriRfc {
     QUERY_PARAM_NARROW(UriRfcCharacters.QUERY_PARAM_ALLOWED_NARROW, true),
     FRAGMENT(UriRfcCharacters.FRAGMENT_ALLOWED);
 
-    private final BitSet allowed;
+    private static final int ASCII_SIZE = 128;
+    private final boolean[] allowed;
+    // allowed characters that are copied to the decoded value as they are
+    private final boolean[] literal;
+    private final boolean decodeSpaceAsPlus;
     private final PercentCodec codec;
 
     UriRfc(String allowed) {
@@ -25,7 +27,9 @@ enum UriRfc {
     }
 
     UriRfc(String allowed, boolean decodeSpaceAsPlus) {
-        this.allowed = BitSets.of(allowed);
+        this.allowed = asciiTable(allowed);
+        this.literal = asciiTable(decodeSpaceAsPlus ? allowed.replace("+", "") : allowed);
+        this.decodeSpaceAsPlus = decodeSpaceAsPlus;
         String encode = decodeSpaceAsPlus
                 ? allowed.replaceAll("\\+", "")
                 : allowed;
@@ -36,14 +40,75 @@ enum UriRfc {
     }
 
     String validateAndDecode(String source) {
-        checkValidEncoded(source);
-        return decode(source);
+        expectNonNull(source, "source");
+        return validateAndDecode(source, 0, source.length());
+    }
+
+    String validateAndDecode(String source, int start, int end) {
+        String decoded = decodeIfValid(source, start, end);
+        if (decoded == null) {
+            // invalid input is rare, so it is scanned again only to build the error message
+            checkValidEncoded(source, start, end);
+        }
+        return decoded;
+    }
+
+    /**
+     * Validates and decodes the range in a single pass.
+     * Returns null when the range is not valid, the problem can be located with {@link #indexOfInvalidEncoded}.
+     */
+    String decodeIfValid(String source, int start, int end) {
+        int i = start;
+        char c;
+        while (i < end && (c = source.charAt(i)) < ASCII_SIZE && literal[c]) {
+            i++;
+        }
+        if (i == end) {
+            return source.substring(start, end);
+        }
+        StringBuilder dst = new StringBuilder(end - start);
+        dst.append(source, start, i);
+        // single scratch buffer for all escaped sequences, the first one is the longest possible
+        byte[] bytes = null;
+        while (i < end) {
+            c = source.charAt(i);
+            if (c == '%') {
+                if (bytes == null) {
+                    bytes = new byte[(end - i) / 3];
+                }
+                int count = 0;
+                while (i < end && source.charAt(i) == '%') {
+                    int value = (i + 2) < end
+                            ? hexValue(source.charAt(i + 1), source.charAt(i + 2))
+                            : -1;
+                    if (value < 0) {
+                        return null;
+                    }
+                    bytes[count++] = (byte) value;
+                    i += 3;
+                }
+                PercentDecoder.appendUtf8Decoded(bytes, count, dst);
+            } else if (c < ASCII_SIZE && allowed[c]) {
+                dst.append(c == '+' && decodeSpaceAsPlus ? ' ' : c);
+                i++;
+            } else {
+                return null;
+            }
+        }
+        return dst.toString();
+    }
+
+    // Skips the decoder when the range has nothing to decode
+    String decode(String source, int start, int end) {
+        boolean encoded = source.indexOf('%', start, end) >= 0
+                || (decodeSpaceAsPlus && source.indexOf('+', start, end) >= 0);
+        return encoded
+                ? decode(source.substring(start, end))
+                : source.substring(start, end);
     }
 
     String decode(String source) {
-        StringBuilder builder = new StringBuilder();
-        decode(source, builder);
-        return builder.toString();
+        return codec.decode(source);
     }
 
     void decode(String source, StringBuilder builder) {
@@ -51,9 +116,7 @@ enum UriRfc {
     }
 
     String encode(String source) {
-        StringBuilder builder = new StringBuilder();
-        encode(source, builder);
-        return builder.toString();
+        return codec.encode(source);
     }
 
     void encode(String source, StringBuilder builder) {
@@ -61,35 +124,73 @@ enum UriRfc {
     }
 
     void checkValidEncoded(String source) {
-        String error = checkValidEncodedWithErrorMessage(source);
-        if (error != null) {
-            throw new InvalidUriException(error);
+        expectNonNull(source, "source");
+        int invalid = indexOfInvalidEncoded(source, 0, source.length());
+        if (invalid >= 0) {
+            throw new InvalidUriException(invalidEncodedMessage(source, invalid));
         }
     }
 
-    private String checkValidEncodedWithErrorMessage(String source) {
-        expectNonNull(source, "source");
-        int length = source.length();
-        for (int i = 0; i < length; i++) {
+    void checkValidEncoded(String source, int start, int end) {
+        int invalid = indexOfInvalidEncoded(source, start, end);
+        if (invalid >= 0) {
+            String part = source.substring(start, end);
+            throw new InvalidUriException(invalidEncodedMessage(part, invalid - start));
+        }
+    }
+
+    boolean isAllowed(char c) {
+        return c < ASCII_SIZE && allowed[c];
+    }
+
+    /**
+     * Returns index of the first character from the range that is not allowed
+     * or starts a malformed percent-encoded sequence. Returns -1 when the whole range is valid.
+     */
+    int indexOfInvalidEncoded(String source, int start, int end) {
+        for (int i = start; i < end; i++) {
             char ch = source.charAt(i);
+            if (ch < ASCII_SIZE && allowed[ch]) {
+                continue;
+            }
             if (ch == '%') {
-                if ((i + 2) < length) {
-                    char hex1 = source.charAt(i + 1);
-                    char hex2 = source.charAt(i + 2);
-                    int u = Character.digit(hex1, 16);
-                    int l = Character.digit(hex2, 16);
-                    if (u == -1 || l == -1) {
-                        return "Invalid encoded sequence \"" + source.substring(i) + "\"";
-                    }
-                    i += 2;
-                } else {
-                    return "Invalid encoded sequence \"" + source.substring(i) + "\"";
+                if ((i + 2) >= end
+                        || Character.digit(source.charAt(i + 1), 16) == -1
+                        || Character.digit(source.charAt(i + 2), 16) == -1) {
+                    return i;
                 }
-            } else if (!allowed.get(ch)) {
-                return "Invalid character '" + ch + "' for " + name().toLowerCase(ROOT) + " in \"" + source + "\"";
+                i += 2;
+            } else {
+                return i;
             }
         }
-        return null;
+        return -1;
+    }
+
+    // accepts the same digits as Character.digit, so it matches indexOfInvalidEncoded
+    static int hexValue(char high, char low) {
+        int value = PercentDecoder.hexValue(high, low);
+        if (value >= 0) {
+            return value;
+        }
+        int h = Character.digit(high, 16);
+        int l = Character.digit(low, 16);
+        return h < 0 || l < 0 ? -1 : (h << 4) | l;
     }
 
+    // all allowed characters are ASCII, so a flat table is enough and cheaper than a BitSet
+    private static boolean[] asciiTable(String allowed) {
+        boolean[] table = new boolean[ASCII_SIZE];
+        for (int i = 0; i < allowed.length(); i++) {
+            table[allowed.charAt(i)] = true;
+        }
+        return table;
+    }
+
+    String invalidEncodedMessage(String source, int index) {
+        char ch = source.charAt(index);
+        return ch == '%'
+                ? "Invalid encoded sequence \"" + source.substring(index) + "\""
+                : "Invalid character '" + ch + "' for " + name().toLowerCase(ROOT) + " in \"" + source + "\"";
+    }
 }
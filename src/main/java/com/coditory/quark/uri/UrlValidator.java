@@ -3,13 +3,12 @@ package com.coditory.quark.uri;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.coditory.quark.uri.InetAddressValidator.isValidInetV4Address;
+import static com.coditory.quark.uri.Ports.MAX_PORT_VALUE;
 import static com.coditory.quark.uri.Preconditions.expectNonNull;
-import static com.coditory.quark.uri.Strings.isNullOrEmpty;
 
 public final class UrlValidator {
     private static final UrlValidator INSTANCE = builder().build();
@@ -26,49 +25,80 @@ public final class UrlValidator {
         return INSTANCE.isValid(uriComponents);
     }
 
-    private static final String ALPHA_CHARS = "a-zA-Z";
-    private static final String SPECIAL_CHARS = ";/@&=,.?:+$";
-    private static final String VALID_CHARS = "[^\\s" + SPECIAL_CHARS + "]";
-    private static final String ATOM = VALID_CHARS + '+';
     private static final Pattern SCHEME_PATTERN = Pattern.compile("^\\p{Alpha}[\\p{Alnum}\\+\\-\\.]*");
-    private static final Pattern PATH_PATTERN = Pattern.compile("^(/[-\\w:@&?=+,.!/~*'%$_;]*)?$");
-    private static final Pattern DOMAIN_PATTERN = Pattern.compile("^" + ATOM + "(\\." + ATOM + ")*$");
-    private static final Pattern ATOM_PATTERN = Pattern.compile("^(" + ATOM + ").*?$");
-    private static final Pattern ALPHA_PATTERN = Pattern.compile("^[" + ALPHA_CHARS + "]");
+    // results of the raw url validation
+    private static final int INVALID = 0;
+    private static final int VALID = 1;
+    private static final int NEEDS_DECODING = 2;
     private final boolean allowFragments;
     private final Set<String> allowedSchemes;
+    private final DomainMatcher allowedHosts;
+    private final DomainMatcher blockedHosts;
 
-    UrlValidator(boolean allowFragments, Set<String> allowedSchemes) {
+    UrlValidator(
+            boolean allowFragments,
+            Set<String> allowedSchemes,
+            @Nullable DomainMatcher allowedHosts,
+            @Nullable DomainMatcher blockedHosts
+    ) {
         this.allowFragments = allowFragments;
         this.allowedSchemes = Set.copyOf(allowedSchemes);
+        this.allowedHosts = allowedHosts;
+        this.blockedHosts = blockedHosts;
     }
 
+    /**
+     * Validates url straight on the raw input, without parsing it to {@link UriComponents}.
+     * Url with a percent-encoded scheme, host or port or with an internationalized host
+     * is the only one that is decoded before validation.
+     */
     public boolean isValid(String url) {
         expectNonNull(url, "url");
-        UriComponents uriComponents;
-        try {
-            uriComponents = UriComponents.fromHttpUrl(url);
-        } catch (Exception e) {
+        if (url.isBlank()) {
             return false;
         }
-        return isValid(uriComponents);
+        int result = validateRaw(url);
+        if (result != NEEDS_DECODING) {
+            return result == VALID;
+        }
+        UriComponents uriComponents = UriComponentsParser.parseHttpUrl(url).getUriComponentsOrNull();
+        return uriComponents != null && isValid(uriComponents);
     }
 
     public boolean isValid(UriComponents uriComponents) {
         expectNonNull(uriComponents, "uriComponents");
+        return findError(uriComponents) == null;
+    }
+
+    /**
+     * Returns reason why {@link #isValid(String)} rejects the url or null if the url is valid.
+     */
+    @Nullable
+    UriParseError findError(String url) {
+        if (isValid(url)) {
+            return null;
+        }
+        UriParseResult result = UriComponentsParser.parseHttpUrl(url);
+        return result.isFailure()
+                ? result.getError()
+                : findError(result.getUriComponents());
+    }
+
+    @Nullable
+    private UriParseError findError(UriComponents uriComponents) {
         if (!isValidScheme(uriComponents.getScheme())) {
-            return false;
+            return UriParseError.INVALID_SCHEME;
         }
         if (!isValidHost(uriComponents.getHost())) {
-            return false;
+            return UriParseError.INVALID_HOST;
         }
-        if (!isValidPath(uriComponents.getPath())) {
-            return false;
+        if (!isValidPath(uriComponents.isRootPath(), uriComponents.getPathSegments())) {
+            return UriParseError.INVALID_PATH;
         }
         if (!isValidFragment(uriComponents.getFragment())) {
-            return false;
+            return UriParseError.INVALID_FRAGMENT;
         }
-        return true;
+        return null;
     }
 
     boolean isValidScheme(@Nullable String scheme) {
@@ -82,81 +112,242 @@ public final class UrlValidator {
     }
 
     boolean isValidHost(@Nullable String host) {
-        if (isNullOrEmpty(host)) {
-            return false;
+        String asciiHost = Idn.toAsciiOrNull(host);
+        return HostValidator.isValid(asciiHost) && isAllowedHost(asciiHost, 0, asciiHost.length());
+    }
+
+    private boolean isAllowedHost(String source, int start, int end) {
+        return (allowedHosts == null || allowedHosts.matches(source, start, end))
+                && (blockedHosts == null || !blockedHosts.matches(source, start, end));
+    }
+
+    /**
+     * Path is checked on decoded segments, the same way as if it was encoded with {@link UriComponents#getPath()}.
+     * Segments cannot contain parentheses and ".." is allowed only when it cannot escape the root.
+     */
+    boolean isValidPath(boolean rootPath, List<String> pathSegments) {
+        if (pathSegments.isEmpty()) {
+            return true;
         }
-        boolean hostname = false;
-        boolean ipV4Address = isValidInetV4Address(host);
-        if (!ipV4Address) {
-            hostname = DOMAIN_PATTERN.matcher(host).matches();
-        }
-        if (hostname) {
-            char[] chars = host.toCharArray();
-            int size = 1;
-            for (char element : chars) {
-                if (element == '.') {
-                    size++;
+        if (!rootPath) {
+            // only an empty path passes without the leading slash
+            return pathSegments.size() == 1 && pathSegments.get(0).isEmpty();
+        }
+        int dotPairs = 0;
+        for (String segment : pathSegments) {
+            boolean previousDot = false;
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '(' || c == ')') {
+                    return false;
                 }
-            }
-            String[] domainSegment = new String[size];
-            boolean match = true;
-            int segmentCount = 0;
-            int segmentLength = 0;
-            while (match) {
-                Matcher atomMatcher = ATOM_PATTERN.matcher(host);
-                match = atomMatcher.matches();
-                if (match) {
-                    domainSegment[segmentCount] = atomMatcher.group(1);
-                    segmentLength = domainSegment[segmentCount].length() + 1;
-                    host =
-                            (segmentLength >= host.length())
-                                    ? ""
-                                    : host.substring(segmentLength);
-
-                    segmentCount++;
+                if (c == '.' && previousDot) {
+                    dotPairs++;
                 }
+                previousDot = c == '.';
             }
-            String topLevel = domainSegment[segmentCount - 1];
-            if (topLevel.length() < 2 || topLevel.length() > 4) {
-                return false;
+        }
+        return isValidDotPairs(pathSegments.size(), dotPairs);
+    }
+
+    boolean isValidFragment(@Nullable String fragment) {
+        return fragment == null || allowFragments;
+    }
+
+    // Every segment of an encoded path starts with a slash
+    private static boolean isValidDotPairs(int segments, int dotPairs) {
+        return dotPairs <= 0 || (segments - 2) > dotPairs;
+    }
+
+    // Splits url like RawUri and applies the rules of isValid(UriComponents) to the parts that would be parsed
+    private int validateRaw(String url) {
+        int length = url.length();
+        int schemeEnd = schemeEnd(url);
+        if (schemeEnd < 0 || !url.startsWith("://", schemeEnd)) {
+            return INVALID;
+        }
+        if (url.indexOf('%', 0, schemeEnd) >= 0) {
+            return NEEDS_DECODING;
+        }
+        if (!isAllowedScheme(url, schemeEnd)) {
+            return INVALID;
+        }
+        int authorityStart = schemeEnd + 3;
+        int i = authorityStart;
+        while (i < length && !RawUri.isUserInfoEnd(url.charAt(i))) {
+            i++;
+        }
+        if (i < length && url.charAt(i) == '@') {
+            if (UriRfc.USER_INFO.indexOfInvalidEncoded(url, authorityStart, i) >= 0) {
+                return INVALID;
             }
-            if (!ALPHA_PATTERN.matcher(topLevel.substring(0, 1)).matches()) {
-                return false;
+            i++;
+        } else {
+            i = authorityStart;
+        }
+        int hostStart = i;
+        int hostEnd = hostEnd(url, hostStart);
+        if (hostEnd < 0) {
+            return INVALID;
+        }
+        if (url.indexOf('%', hostStart, hostEnd) >= 0 || !Idn.isAscii(url, hostStart, hostEnd)) {
+            return NEEDS_DECODING;
+        }
+        if (UriRfc.HOST.indexOfInvalidEncoded(url, hostStart, hostEnd) >= 0
+                || HostValidator.classify(url, hostStart, hostEnd) == null
+                || !isAllowedHost(url, hostStart, hostEnd)) {
+            return INVALID;
+        }
+        i = hostEnd;
+        if (i < length && url.charAt(i) == ':') {
+            int portStart = ++i;
+            while (i < length && !RawUri.isAuthorityEnd(url.charAt(i))) {
+                i++;
+            }
+            if (url.indexOf('%', portStart, i) >= 0) {
+                return NEEDS_DECODING;
+            }
+            if (!isValidPort(url, portStart, i)) {
+                return INVALID;
+            }
+        }
+        int pathStart = i;
+        while (i < length && url.charAt(i) != '?' && url.charAt(i) != '#') {
+            i++;
+        }
+        if (!isValidRawPath(url, pathStart, i)) {
+            return INVALID;
+        }
+        if (i < length && url.charAt(i) == '?') {
+            int queryStart = ++i;
+            while (i < length && url.charAt(i) != '#') {
+                i++;
             }
-            if (segmentCount < 2) {
+            if (UriRfc.QUERY.indexOfInvalidEncoded(url, queryStart, i) >= 0) {
+                return INVALID;
+            }
+        }
+        if (i < length) {
+            int fragmentStart = i + 1;
+            if (UriRfc.FRAGMENT.indexOfInvalidEncoded(url, fragmentStart, length) >= 0
+                    || (!allowFragments && fragmentStart < length)) {
+                return INVALID;
+            }
+        }
+        return VALID;
+    }
+
+    private boolean isAllowedScheme(String url, int schemeEnd) {
+        String scheme = schemeEnd == 4 && equalsIgnoreAsciiCase(url, "http")
+                ? "http"
+                : schemeEnd == 5 && equalsIgnoreAsciiCase(url, "https") ? "https" : null;
+        return scheme != null && allowedSchemes.contains(scheme);
+    }
+
+    private static boolean equalsIgnoreAsciiCase(String url, String lowerCaseScheme) {
+        for (int i = 0; i < lowerCaseScheme.length(); i++) {
+            if ((url.charAt(i) | 0x20) != lowerCaseScheme.charAt(i)) {
                 return false;
             }
         }
-        return hostname || ipV4Address;
+        return true;
     }
 
-    boolean isValidPath(@Nullable String path) {
-        if (isNullOrEmpty(path)) {
-            return true;
+    private static int schemeEnd(String url) {
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == ':') {
+                return i > 0 ? i : -1;
+            }
+            if (c == '/' || c == '?' || c == '#') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Returns -1 for an unterminated ip v6 literal, that is parsed as an empty host,
+    // and for an ip v6 literal followed by anything else than a port or the authority end
+    private static int hostEnd(String url, int start) {
+        int length = url.length();
+        int i = start;
+        if (i < length && url.charAt(i) == '[') {
+            int end = RawUri.ipV6HostEnd(url, i);
+            return end >= 0 && RawUri.isIpV6HostSuffix(url, end) ? end : -1;
+        }
+        while (i < length && !RawUri.isHostEnd(url.charAt(i))) {
+            i++;
         }
-        if (!PATH_PATTERN.matcher(path).matches()) {
+        return i;
+    }
+
+    private static boolean isValidPort(String url, int start, int end) {
+        if (start == end) {
             return false;
         }
-        int slashCount = countToken("/", path);
-        int dot2Count = countToken("..", path);
-        return dot2Count <= 0 || (slashCount - 2) > dot2Count;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            value = value * 10 + (c - '0');
+            if (value > MAX_PORT_VALUE) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    boolean isValidFragment(@Nullable String fragment) {
-        return fragment == null || allowFragments;
+    // Same as isValidPath on segments decoded from the raw path
+    private static boolean isValidRawPath(String url, int start, int end) {
+        if (isBlank(url, start, end)) {
+            return true;
+        }
+        int segments = 0;
+        int segmentStart = start;
+        int dotPairs = 0;
+        boolean previousDot = false;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == '/') {
+                segments += i > segmentStart ? 1 : 0;
+                segmentStart = i + 1;
+                previousDot = false;
+                continue;
+            }
+            if (c == '%') {
+                int decoded = i + 2 < end
+                        ? UriRfc.hexValue(url.charAt(i + 1), url.charAt(i + 2))
+                        : -1;
+                if (decoded < 0) {
+                    return false;
+                }
+                // ascii bytes are decoded to the same characters even inside malformed utf-8 sequences
+                c = (char) decoded;
+                i += 2;
+            } else if (!UriRfc.PATH_SEGMENT.isAllowed(c)) {
+                return false;
+            }
+            if (c == '(' || c == ')') {
+                return false;
+            }
+            if (c == '.' && previousDot) {
+                dotPairs++;
+            }
+            previousDot = c == '.';
+        }
+        segments += end > segmentStart ? 1 : 0;
+        return isValidDotPairs(segments, dotPairs);
     }
 
-    private int countToken(String token, String target) {
-        int tokenIndex = 0;
-        int count = 0;
-        while (tokenIndex != -1) {
-            tokenIndex = target.indexOf(token, tokenIndex);
-            if (tokenIndex > -1) {
-                tokenIndex++;
-                count++;
+    private static boolean isBlank(String url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(url.charAt(i))) {
+                return false;
             }
         }
-        return count;
+        return true;
     }
 
     @NotNull
@@ -167,6 +358,8 @@ public final class UrlValidator {
     public static class UrlValidatorBuilder {
         private boolean allowFragments = true;
         private Set<String> allowedSchemes = Set.of("http", "https");
+        private DomainMatcher allowedHosts;
+        private DomainMatcher blockedHosts;
 
         public UrlValidatorBuilder allowFragments(boolean allowFragments) {
             this.allowFragments = allowFragments;
@@ -178,8 +371,24 @@ public final class UrlValidator {
             return this;
         }
 
+        /**
+         * Accepts only urls with a host matched by the matcher. Default: all hosts are accepted.
+         */
+        public UrlValidatorBuilder allowedHosts(DomainMatcher allowedHosts) {
+            this.allowedHosts = expectNonNull(allowedHosts, "allowedHosts");
+            return this;
+        }
+
+        /**
+         * Rejects urls with a host matched by the matcher. Default: no host is rejected.
+         */
+        public UrlValidatorBuilder blockedHosts(DomainMatcher blockedHosts) {
+            this.blockedHosts = expectNonNull(blockedHosts, "blockedHosts");
+            return this;
+        }
+
         public UrlValidator build() {
-            return new UrlValidator(allowFragments, allowedSchemes);
+            return new UrlValidator(allowFragments, allowedSchemes, allowedHosts, blockedHosts);
         }
     }
 }
@@ -0,0 +1,107 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.stream.Stream
+
+class BulkUrlProcessorSpec extends Specification {
+    static final List<String> URLS = [
+            "https://coditory.com/a",
+            "ftp://coditory.com",
+            "http://co ditory.com",
+            "http://coditory.com/..",
+            "http://coditory.com:80a",
+            null
+    ]
+
+    @Unroll
+    def "should validate urls in the input order with virtualThreads=#virtualThreads"() {
+        given:
+            BulkUrlProcessor processor = BulkUrlProcessor.builder()
+                    .chunkSize(64)
+                    .virtualThreads(virtualThreads)
+                    .build()
+            List<String> urls = (0..<1000).collect { URLS[it % URLS.size()] }
+        when:
+            BulkValidationResult result = processor.validate(urls)
+        then:
+            result.size() == 1000
+            (0..<1000).every { result.isValid(it) == (it % URLS.size() == 0) }
+            result.validCount == 167
+            result.invalidCount == 833
+            result.failureCounts == [
+                    (UriParseError.INVALID_HOST)  : 167L,
+                    (UriParseError.INVALID_PORT)  : 166L,
+                    (UriParseError.INVALID_PATH)  : 167L,
+                    (UriParseError.NOT_HTTP_URL)  : 333L
+            ]
+        where:
+            virtualThreads << [false, true]
+    }
+
+    @Unroll
+    def "should parse urls in the input order with virtualThreads=#virtualThreads"() {
+        given:
+            BulkUrlProcessor processor = BulkUrlProcessor.builder()
+                    .chunkSize(64)
+                    .virtualThreads(virtualThreads)
+                    .build()
+            String[] urls = (0..<1000).collect { URLS[it % URLS.size()] } as String[]
+        when:
+            BulkParseResult result = processor.parseHttpUrls(urls)
+        then:
+            result.size() == 1000
+            (0..<1000).every {
+                result.getUriComponentsOrNull(it) == (urls[it] == null ? null : UriComponents.parseHttpUrl(urls[it]).uriComponentsOrNull)
+            }
+            result.getFailureCount(UriParseError.INVALID_HOST) == 167
+            result.getFailureCount(UriParseError.INVALID_PORT) == 166
+            result.getFailureCount(UriParseError.NOT_HTTP_URL) == 333
+            result.failureCount == 666
+            result.successCount == 334
+        where:
+            virtualThreads << [false, true]
+    }
+
+    def "should count null and blank urls as not http urls"() {
+        given:
+            BulkUrlProcessor processor = BulkUrlProcessor.create()
+            List<String> urls = ["https://a.com", null, "", "  ", "ftp://x.com"]
+        when:
+            BulkValidationResult validation = processor.validate(urls)
+            BulkParseResult parsing = processor.parseHttpUrls(urls)
+        then:
+            validation.failureCounts == [(UriParseError.NOT_HTTP_URL): 4L]
+            validation.validCount == 1
+        and:
+            parsing.getFailureCount(UriParseError.NOT_HTTP_URL) == 4
+            parsing.failureCount == 4
+            parsing.successCount == 1
+            parsing.getUriComponentsOrNull(0) == UriComponents.fromHttpUrl("https://a.com")
+            (1..4).every { parsing.getUriComponentsOrNull(it) == null }
+    }
+
+    def "should process a stream"() {
+        given:
+            BulkUrlProcessor processor = BulkUrlProcessor.create()
+        when:
+            BulkValidationResult result = processor.validate(Stream.of("https://coditory.com", "coditory"))
+        then:
+            result.isValid(0)
+            !result.isValid(1)
+            result.failureCounts == [(UriParseError.NOT_HTTP_URL): 1L]
+    }
+
+    def "should validate with the configured validator"() {
+        given:
+            BulkUrlProcessor processor = BulkUrlProcessor.builder()
+                    .urlValidator(UrlValidator.builder().allowFragments(false).build())
+                    .build()
+        when:
+            BulkValidationResult result = processor.validate(["https://coditory.com#a"] as String[])
+        then:
+            !result.isValid(0)
+            result.getFailureCount(UriParseError.INVALID_FRAGMENT) == 1
+    }
+}
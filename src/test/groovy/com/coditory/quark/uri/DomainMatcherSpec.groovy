@@ -0,0 +1,90 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DomainMatcherSpec extends Specification {
+    private static final DomainMatcher matcher = DomainMatcher.of(
+            "coditory.com",
+            ".api.coditory.com",
+            ".example.org",
+            "localhost"
+    )
+
+    @Unroll
+    def "should match host: #host"() {
+        expect:
+            matcher.matches(host as String) == expected
+        where:
+            host                       || expected
+            "coditory.com"             || true
+            "CODITORY.com"             || true
+            "coditory.com."            || true
+            "www.coditory.com"         || false
+            "api.coditory.com"         || true
+            "v1.api.coditory.com"      || true
+            "a.b.v1.api.coditory.com"  || true
+            "example.org"              || true
+            "www.example.org"          || true
+            "localhost"                || true
+            "sub.localhost"            || false
+            "notexample.org"           || false
+            "coditory.com.evil.com"    || false
+            "com"                      || false
+            "x..example.org"           || false
+            ".example.org"             || false
+            ""                         || false
+            null                       || false
+    }
+
+    def "should match host from a source range"() {
+        expect:
+            matcher.matches("http://v1.api.coditory.com/path", 7, 26)
+            !matcher.matches("http://v1.api.coditory.com/path", 7, 20)
+    }
+
+    @Unroll
+    def "should match host of uri: #uri"() {
+        expect:
+            matcher.matches(UriComponents.fromUri(uri)) == expected
+        where:
+            uri                                || expected
+            "https://api.coditory.com/path"    || true
+            "https://user@Coditory.com:8080"   || true
+            "https://coditory.org"             || false
+            "/path"                            || false
+    }
+
+    def "should build matcher with explicit rule types"() {
+        given:
+            DomainMatcher matcher = DomainMatcher.builder()
+                    .addExact("coditory.com")
+                    .addWithSubdomains("example.org")
+                    .addAll(["localhost", ".localhost"])
+                    .build()
+        expect:
+            matcher.size() == 4
+            matcher.matches("coditory.com")
+            !matcher.matches("www.coditory.com")
+            matcher.matches("www.example.org")
+            matcher.matches("a.localhost")
+    }
+
+    def "should count unique rules"() {
+        expect:
+            DomainMatcher.of("coditory.com", "CODITORY.COM", "coditory.com.", ".coditory.com").size() == 2
+            DomainMatcher.empty().isEmpty()
+            !DomainMatcher.empty().matches("coditory.com")
+    }
+
+    @Unroll
+    def "should reject invalid rule: '#rule'"() {
+        when:
+            DomainMatcher.of(rule)
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected valid domain rule. Got: " + rule
+        where:
+            rule << ["", ".", "..coditory.com", "a..coditory.com", "coditory .com", " coditory.com"]
+    }
+}
@@ -0,0 +1,105 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.channels.Channels
+import java.nio.charset.StandardCharsets
+
+class FormUrlEncodedReaderSpec extends Specification {
+    @Unroll
+    def "should read fields: #body"() {
+        expect:
+            read(FormUrlEncodedReader.create(), body) == expected
+        where:
+            body                  || expected
+            ""                    || []
+            "a=b&c=d"             || [["a", "b"], ["c", "d"]]
+            "a+b=c%20d"           || [["a b", "c d"]]
+            "a&b=&=c"             || [["a", ""], ["b", ""], ["c", ""]]
+            "%C5%BC=%C5%BC&&x=1"  || [["ż", "ż"], ["x", "1"]]
+            "+=a&b=1"             || [["b", "1"]]
+    }
+
+    def "should decode escapes split between chunks"() {
+        given:
+            InputStream input = oneByteAtATime("a=%C5%BC%26&b=c")
+            List<List<String>> fields = []
+        when:
+            FormUrlEncodedReader.create().read(input, { name, value -> fields.add([name, value]) })
+        then:
+            fields == [["a", "ż&"], ["b", "c"]]
+    }
+
+    def "should read from channel"() {
+        given:
+            String body = (0..<5000).collect { "field$it=value+$it" }.join("&")
+            InputStream input = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))
+            Map<String, String> fields = [:]
+        when:
+            FormUrlEncodedReader.create().read(Channels.newChannel(input), { name, value -> fields[name] = value })
+        then:
+            fields.size() == 5000
+            fields["field4999"] == "value 4999"
+    }
+
+    def "should report invalid field the same way as query string"() {
+        when:
+            read(FormUrlEncodedReader.create(), "a=b=c")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Invalid character '=' for query_param in \"b=c\""
+    }
+
+    def "should limit field length"() {
+        given:
+            FormUrlEncodedReader reader = FormUrlEncodedReader.builder()
+                    .maxFieldLength(5)
+                    .build()
+        expect:
+            read(reader, "ab=cd&x=y") == [["ab", "cd"], ["x", "y"]]
+
+        when:
+            read(reader, "ab=cde")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Form field exceeds the limit of 5 characters"
+    }
+
+    def "should limit number of fields"() {
+        given:
+            FormUrlEncodedReader reader = FormUrlEncodedReader.builder()
+                    .maxFields(2)
+                    .build()
+        when:
+            read(reader, "a=1&b=2&c=3")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Form exceeds the limit of 2 fields"
+    }
+
+    private static List<List<String>> read(FormUrlEncodedReader reader, String body) {
+        List<List<String>> fields = []
+        reader.read(new StringReader(body), { name, value -> fields.add([name, value]) })
+        return fields
+    }
+
+    private static InputStream oneByteAtATime(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8)
+        return new InputStream() {
+            int index = 0
+
+            @Override
+            int read() {
+                return index < bytes.length ? bytes[index++] & 0xFF : -1
+            }
+
+            @Override
+            int read(byte[] buffer, int offset, int length) {
+                if (index >= bytes.length) return -1
+                buffer[offset] = bytes[index++]
+                return 1
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+
+import java.nio.channels.Channels
+import java.nio.charset.StandardCharsets
+
+class FormUrlEncodedWriterSpec extends Specification {
+    def "should write encoded fields"() {
+        given:
+            StringWriter output = new StringWriter()
+        when:
+            FormUrlEncodedWriter.of(output)
+                    .write("a b", "c&d")
+                    .write("flag", null)
+                    .write("ż", "zażółć gęślą")
+                    .close()
+        then:
+            output.toString() == "a+b=c%26d&flag&%C5%BC=za%C5%BC%C3%B3%C5%82%C4%87+g%C4%99%C5%9Bl%C4%85"
+    }
+
+    def "should write multiple values and map fields in order"() {
+        given:
+            StringWriter output = new StringWriter()
+        when:
+            FormUrlEncodedWriter.of(output)
+                    .writeAll("a", ["1", "2"])
+                    .writeAll([b: ["3"], c: []])
+                    .close()
+        then:
+            output.toString() == "a=1&a=2&b=3&c"
+    }
+
+    def "should use provided codec"() {
+        given:
+            StringWriter output = new StringWriter()
+            PercentCodec codec = PercentCodec.builder()
+                    .addSafeCharacters("/")
+                    .build()
+        when:
+            FormUrlEncodedWriter.of(output, codec)
+                    .write("path", "a/b c")
+                    .close()
+        then:
+            output.toString() == "path=a/b%20c"
+    }
+
+    def "should write body larger than internal buffer to a channel"() {
+        given:
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            FormUrlEncodedWriter writer = FormUrlEncodedWriter.of(Channels.newChannel(output))
+        when:
+            10_000.times { writer.write("field" + it, "value " + it) }
+            writer.close()
+        then:
+            Map<String, String> params = UriComponents
+                    .fromQueryString(output.toString(StandardCharsets.UTF_8))
+                    .queryParams
+            params.size() == 10_000
+            params["field9999"] == "value 9999"
+    }
+
+    def "should pass buffered content on flush"() {
+        given:
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            FormUrlEncodedWriter writer = FormUrlEncodedWriter.of(output)
+        when:
+            writer.write("a", "b")
+        then:
+            output.size() == 0
+
+        when:
+            writer.flush()
+        then:
+            output.toString(StandardCharsets.UTF_8) == "a=b"
+    }
+}
@@ -0,0 +1,151 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class IdnSpec extends Specification {
+    @Unroll
+    def "should convert host to ascii: #host"() {
+        expect:
+            Idn.toAscii(host) == expected
+        where:
+            host                || expected
+            "coditory.com"      || "coditory.com"
+            "bücher.example"    || "xn--bcher-kva.example"
+            "Bücher.Example"    || "xn--bcher-kva.example"
+            "例え.テスト"          || "xn--r8jz45g.xn--zckzah"
+            "bücher。example"    || "xn--bcher-kva.example"
+            "bücher．example"    || "xn--bcher-kva.example"
+            "ｃｏｄｉｔｏｒｙ.ｃｏｍ"  || "coditory.com"
+            "ﬁ.com"             || "fi.com"
+            "faß.de"            || "xn--fa-hia.de"
+            "münchen.de."       || "xn--mnchen-3ya.de."
+    }
+
+    def "should return the same instance for ascii host"() {
+        given:
+            String host = "Coditory.COM"
+        expect:
+            Idn.toAscii(host).is(host)
+            Idn.toUnicode(host).is(host)
+    }
+
+    @Unroll
+    def "should fail to convert invalid host to ascii: #host"() {
+        when:
+            Idn.toAscii(host)
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected valid internationalized host. Got: " + host
+
+        where:
+            host << [
+                    "mü nchen.de",
+                    "bü\tcher.de",
+                    "�.com",
+                    ".com",
+                    "ü" + "a" * 63 + ".com"
+            ]
+    }
+
+    @Unroll
+    def "should return null for invalid host: #host"() {
+        expect:
+            Idn.toAsciiOrNull(host as String) == null
+        where:
+            host << [null, "mü nchen.de"]
+    }
+
+    @Unroll
+    def "should convert host to unicode: #host"() {
+        expect:
+            Idn.toUnicode(host) == expected
+        where:
+            host                       || expected
+            "xn--bcher-kva.example"    || "bücher.example"
+            "XN--BCHER-KVA.example"    || "bücher.example"
+            "xn--r8jz45g.xn--zckzah"   || "例え.テスト"
+            "www.xn--mnchen-3ya.de"    || "www.münchen.de"
+            "xn--zz.com"               || "xn--zz.com"
+            "xn--abc-.com"             || "xn--abc-.com"
+            "xn--.com"                 || "xn--.com"
+    }
+
+    @Unroll
+    def "should convert host in both directions: #host"() {
+        expect:
+            Idn.toUnicode(Idn.toAscii(host)) == host
+        where:
+            host << ["bücher.de", "例え.テスト", "пример.рф", "παράδειγμα.δοκιμή", "مثال.إختبار"]
+    }
+
+    @Unroll
+    def "should parse uri with internationalized host: #uri"() {
+        expect:
+            UriComponents.fromUri(uri).host == expected
+            UriComponents.fromUriLazily(uri).host == expected
+        where:
+            uri                                 || expected
+            "http://münchen.de/path"            || "xn--mnchen-3ya.de"
+            "http://MÜNCHEN.DE/path"            || "xn--mnchen-3ya.de"
+            "http://m%C3%BCnchen.de/path"       || "xn--mnchen-3ya.de"
+            "http://user@例え.テスト:8080"         || "xn--r8jz45g.xn--zckzah"
+            "http://xn--mnchen-3ya.de/path"     || "xn--mnchen-3ya.de"
+    }
+
+    @Unroll
+    def "should fail to parse uri with invalid internationalized host: #uri"() {
+        when:
+            UriComponents.fromUri(uri)
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message.startsWith("Could not parse uri: \"" + uri + "\"")
+        where:
+            uri << [
+                    "http://mü nchen.de/path",
+                    "http://x.c%C3%28/path",
+                    "http://�.com/path"
+            ]
+    }
+
+    @Unroll
+    def "should validate url with internationalized host: #url"() {
+        expect:
+            UrlValidator.isValidUrl(url) == expected
+        where:
+            url                            || expected
+            "https://münchen.de/path"      || true
+            "https://例え.テスト/path"        || true
+            "https://xn--r8jz45g.xn--zckzah" || true
+            "https://mü nchen.de/path"     || false
+            "https://�.com/path"      || false
+    }
+
+    def "should match internationalized host with domain rules"() {
+        given:
+            UrlValidator validator = UrlValidator.builder()
+                    .allowedHosts(DomainMatcher.of(".xn--mnchen-3ya.de"))
+                    .build()
+        expect:
+            validator.isValid("https://www.münchen.de/path")
+            !validator.isValid("https://www.berlin.de/path")
+    }
+
+    def "should set internationalized host in builder"() {
+        when:
+            String uri = UriBuilder.fromUri("https://coditory.com/path")
+                    .setHost("Bücher.DE")
+                    .toUriString()
+        then:
+            uri == "https://xn--bcher-kva.de/path"
+    }
+
+    def "should find public suffix of internationalized host"() {
+        given:
+            PublicSuffixList publicSuffixList = PublicSuffixList.of("中国", "de")
+        expect:
+            publicSuffixList.publicSuffix("www.coditory.中国") == "中国"
+            publicSuffixList.publicSuffix("www.coditory.xn--fiqs8s") == "xn--fiqs8s"
+            publicSuffixList.registrableDomain(UriComponents.fromUri("https://www.münchen.de")) == "xn--mnchen-3ya.de"
+    }
+}
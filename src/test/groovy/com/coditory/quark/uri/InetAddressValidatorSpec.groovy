@@ -86,4 +86,91 @@ class InetAddressValidatorSpec extends Specification {
         where:
             address << invalidIpV6 + validIpV4 + invalidIpV4
     }
+
+    @Unroll
+    def "should parse inet v4 address to long: #address"() {
+        expect:
+            InetAddressValidator.parseInetV4Address(address) == expected
+        where:
+            address           || expected
+            "0.0.0.0"         || 0L
+            "127.0.0.1"       || 0x7F000001L
+            "255.255.255.255" || 0xFFFFFFFFL
+            "127.0.1"         || InetAddressValidator.INVALID_INET_V4_ADDRESS
+            "127.0.0.01"      || InetAddressValidator.INVALID_INET_V4_ADDRESS
+            "127.0.0.256"     || InetAddressValidator.INVALID_INET_V4_ADDRESS
+    }
+
+    def "should parse inet v4 address from a source range"() {
+        expect:
+            InetAddressValidator.parseInetV4Address("http://10.0.0.1:8080", 7, 15) == 0x0A000001L
+    }
+
+    @Unroll
+    def "should parse inet v6 address to longs: #address"() {
+        given:
+            long[] result = new long[2]
+        expect:
+            InetAddressValidator.parseInetV6Address(address, result)
+            result[0] == high
+            result[1] == low
+        where:
+            address                                   || high                   | low
+            "::"                                      || 0L                     | 0L
+            "::1"                                     || 0L                     | 1L
+            "2001:db8::1"                             || 0x20010DB800000000L    | 1L
+            "2001:DB8:3333:4444:5555:6666:7777:8888"  || 0x20010DB833334444L    | 0x5555666677778888L
+            "::ffff:192.168.0.1"                      || 0L                     | 0x0000FFFFC0A80001L
+            "ffff::"                                  || Long.parseUnsignedLong("ffff000000000000", 16) | 0L
+    }
+
+    @Unroll
+    def "should not parse invalid inet v6 address: #address"() {
+        expect:
+            !InetAddressValidator.parseInetV6Address(address, new long[2])
+        where:
+            address << invalidIpV6 + validIpV4 + ["1::2::3", "12345::", "::+1", ""]
+    }
+
+    @Unroll
+    def "should format inet v4 address: #expected"() {
+        expect:
+            InetAddressValidator.formatInetV4Address(address) == expected
+        where:
+            address    || expected
+            0          || "0.0.0.0"
+            0x7F000001 || "127.0.0.1"
+            -1         || "255.255.255.255"
+    }
+
+    @Unroll
+    def "should format canonical inet v6 address: #expected"() {
+        expect:
+            InetAddressValidator.formatInetV6Address(high, low) == expected
+        where:
+            high                  | low                   || expected
+            0L                    | 0L                    || "::"
+            0L                    | 1L                    || "::1"
+            0x20010DB800000000L   | 0x0000000000020001L   || "2001:db8::2:1"
+            0x20010DB800000000L   | 0x0001000000000001L   || "2001:db8::1:0:0:1"
+            0x20010DB800000001L   | 0x0001000100010001L   || "2001:db8:0:1:1:1:1:1"
+            0x0001000000000001L   | 0x0000000000000001L   || "1:0:0:1::1"
+            0L                    | 0x0000FFFFC0A80001L   || "::ffff:192.168.0.1"
+    }
+
+    @Unroll
+    def "should convert to canonical inet address: #address"() {
+        expect:
+            InetAddressValidator.toCanonicalInetAddress(address) == expected
+        where:
+            address                                   || expected
+            "127.0.0.1"                               || "127.0.0.1"
+            "2001:0DB8:0000:0000:0000:0000:0002:0001" || "2001:db8::2:1"
+            "0:0:0:0:0:0:0:1"                         || "::1"
+            "[2001:db8::0:1]"                         || "[2001:db8::1]"
+            "fe80::0001%eth0"                         || "fe80::1%eth0"
+            "2001:db8:0:0::/64"                       || "2001:db8::/64"
+            "coditory.com"                            || null
+            "127.0.0.01"                              || null
+    }
 }
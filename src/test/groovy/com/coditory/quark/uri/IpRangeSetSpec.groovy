@@ -0,0 +1,143 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class IpRangeSetSpec extends Specification {
+    private static final IpRangeSet rangeSet = IpRangeSet.of(
+            "10.0.0.0/8",
+            "169.254.169.254",
+            "192.168.0.0/16",
+            "fc00::/7",
+            "2001:db8:0:1::/64"
+    )
+
+    @Unroll
+    def "should check address in range set: #address"() {
+        expect:
+            rangeSet.contains(address as String) == expected
+        where:
+            address                        || expected
+            "10.0.0.0"                     || true
+            "10.255.255.255"               || true
+            "11.0.0.0"                     || false
+            "9.255.255.255"                || false
+            "169.254.169.254"              || true
+            "169.254.169.253"              || false
+            "192.168.1.1"                  || true
+            "fd00::1"                      || true
+            "fe00::1"                      || false
+            "2001:db8:0:1:ffff::1"         || true
+            "2001:db8:0:2::1"              || false
+            "[fd00::1]"                    || true
+            "[fd00::1%eth0]"               || true
+            "::ffff:10.1.2.3"              || true
+            "::ffff:11.1.2.3"              || false
+            "coditory.com"                 || false
+            "10.0.0"                       || false
+            "[10.0.0.1]"                   || false
+            ""                             || false
+            null                           || false
+    }
+
+    @Unroll
+    def "should check host of uri: #uri"() {
+        expect:
+            rangeSet.contains(UriComponents.fromUri(uri)) == expected
+        where:
+            uri                            || expected
+            "http://10.0.0.1:8080/path"    || true
+            "http://[fd00::1]/path"        || true
+            "http://[fe80::1%25eth0]/path" || false
+            "http://coditory.com/path"     || false
+            "/path"                        || false
+    }
+
+    def "should check parsed addresses"() {
+        given:
+            long[] ipV6 = new long[2]
+            InetAddressValidator.parseInetV6Address("fd00::1", ipV6)
+        expect:
+            rangeSet.containsInetV4Address(InetAddressValidator.parseInetV4Address("10.0.0.1"))
+            !rangeSet.containsInetV4Address(InetAddressValidator.parseInetV4Address("11.0.0.1"))
+            !rangeSet.containsInetV4Address(InetAddressValidator.INVALID_INET_V4_ADDRESS)
+            rangeSet.containsInetV6Address(ipV6[0], ipV6[1])
+    }
+
+    def "should ignore host bits of the CIDR"() {
+        expect:
+            IpRangeSet.of("10.1.2.3/8").contains("10.200.0.1")
+            IpRangeSet.of("2001:db8::1/32").contains("2001:db8:ffff::1")
+    }
+
+    @Unroll
+    def "should match ip v4-mapped CIDR with both address forms: #cidr"() {
+        given:
+            IpRangeSet mapped = IpRangeSet.of(cidr)
+        expect:
+            mapped.contains("10.1.1.1")
+            mapped.contains("::ffff:10.1.1.1")
+            mapped.contains("[::ffff:a01:101]")
+            mapped.contains(UriComponents.fromUri("http://10.1.1.1/"))
+            !mapped.contains("11.1.1.1")
+            !mapped.contains("::ffff:11.1.1.1")
+            !mapped.contains("::10.1.1.1")
+        and:
+            mapped.getInetV4RangeCount() == 1
+            mapped.getInetV6RangeCount() == 0
+            mapped == IpRangeSet.of("10.0.0.0/8")
+        where:
+            cidr << ["::ffff:10.0.0.0/104", "::ffff:a00:0/104", "0:0:0:0:0:ffff:10.20.30.40/104"]
+    }
+
+    def "should match single ip v4-mapped address with both address forms"() {
+        given:
+            IpRangeSet mapped = IpRangeSet.of("::ffff:169.254.169.254")
+        expect:
+            mapped.contains("169.254.169.254")
+            mapped.contains("::ffff:169.254.169.254")
+            !mapped.contains("169.254.169.253")
+            mapped == IpRangeSet.of("169.254.169.254")
+    }
+
+    def "should merge overlapping and adjacent ranges"() {
+        when:
+            IpRangeSet merged = IpRangeSet.of(
+                    "10.0.0.0/8", "10.1.0.0/16", "11.0.0.0/8", "13.0.0.0/8",
+                    "2001:db8::/33", "2001:db8:8000::/33", "::/0"
+            )
+        then:
+            merged.getInetV4RangeCount() == 2
+            merged.getInetV6RangeCount() == 1
+            merged == IpRangeSet.of("::/0", "10.0.0.0/7", "13.0.0.0/8")
+    }
+
+    def "should match every address with zero prefix length"() {
+        given:
+            IpRangeSet all = IpRangeSet.of("0.0.0.0/0", "::/0")
+        expect:
+            all.contains("0.0.0.0")
+            all.contains("255.255.255.255")
+            all.contains("::")
+            all.contains("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")
+    }
+
+    def "should create empty range set"() {
+        expect:
+            IpRangeSet.empty().isEmpty()
+            IpRangeSet.builder().build().isEmpty()
+            !IpRangeSet.empty().contains("10.0.0.1")
+            !IpRangeSet.empty().contains("::1")
+    }
+
+    @Unroll
+    def "should reject invalid CIDR: #cidr"() {
+        when:
+            IpRangeSet.of(cidr)
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected valid CIDR. Got: " + cidr
+        where:
+            cidr << ["10.0.0.0/33", "10.0.0.0/", "10.0.0/8", "/8", "10.0.0.0/x", "::/129", "2001:db8::/-1", "coditory.com"]
+    }
+}
@@ -3,6 +3,11 @@ package com.coditory.quark.uri
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.nio.charset.Charset
+import java.nio.charset.StandardCharsets
+
 import static com.coditory.quark.uri.base.Alphabets.ASCII_CONTROL_CODES
 import static com.coditory.quark.uri.base.Alphabets.ASCII_PRINTABLE
 import static com.coditory.quark.uri.base.Alphabets.URI_UNRESERVED
@@ -44,6 +49,11 @@ class PercentCodecSpec extends Specification {
         then:
             encoded == "++%09%0A"
 
+        when:
+            encoded = codec.encode("a ż ż b")
+        then:
+            encoded == "a+%C5%BC+%C5%BC+b"
+
         when:
             String decoded = codec.decode(encoded)
         then:
@@ -65,4 +75,158 @@ class PercentCodecSpec extends Specification {
         then:
             decoded == "ABCabc®語"
     }
+
+    def "should return the same string when nothing needs encoding"() {
+        given:
+            String input = "abc-._~"
+        expect:
+            PercentCodec.encodeUriComponent(input).is(input)
+    }
+
+    def "should encode malformed surrogate as question mark"() {
+        expect:
+            PercentCodec.encodeUriComponent("a\uD83Cb\uDF09") == "a%3Fb%3F"
+    }
+
+    def "should encode with configured charset"() {
+        given:
+            PercentCodec codec = PercentCodec.builder()
+                    .charset(StandardCharsets.ISO_8859_1)
+                    .build()
+        expect:
+            codec.encode("a®b") == "a%AEb"
+    }
+
+    def "should return the same string when nothing needs decoding"() {
+        given:
+            String input = "a+b-c"
+        expect:
+            PercentCodec.decodeUriComponent(input).is(input)
+            PercentCodec.decodeUriComponentWithPlusAsSpace(input) == "a b-c"
+    }
+
+    def "should not modify output when decoding fails"() {
+        given:
+            StringBuilder builder = new StringBuilder("x")
+        when:
+            PercentCodec.PERCENT_CODEC.decode("abc%2", builder)
+        then:
+            thrown(IllegalArgumentException)
+            builder.toString() == "x"
+    }
+
+    def "should encode and decode bytes"() {
+        given:
+            byte[] input = "a b/ż".getBytes(StandardCharsets.UTF_8)
+        when:
+            byte[] encoded = PercentCodec.PERCENT_CODEC.encode(input)
+        then:
+            new String(encoded, StandardCharsets.US_ASCII) == "a%20b%2F%C5%BC"
+            PercentCodec.PERCENT_CODEC.encodedLength(input, 0, input.length) == encoded.length
+
+        when:
+            byte[] decoded = PercentCodec.PERCENT_CODEC.decode(encoded)
+        then:
+            decoded == input
+    }
+
+    def "should decode bytes in place"() {
+        given:
+            byte[] buffer = "xa+b%2Fc".getBytes(StandardCharsets.US_ASCII)
+        when:
+            int length = PercentCodec.PERCENT_PLUS_CODEC.decode(buffer, 1, buffer.length - 1, buffer, 0)
+        then:
+            new String(buffer, 0, length, StandardCharsets.US_ASCII) == "a b/c"
+    }
+
+    def "should encode and decode direct byte buffers"() {
+        given:
+            ByteBuffer src = ByteBuffer.allocateDirect(16).put("a b".getBytes(StandardCharsets.US_ASCII)).flip()
+            ByteBuffer encoded = ByteBuffer.allocateDirect(16)
+            ByteBuffer decoded = ByteBuffer.allocateDirect(16)
+        when:
+            PercentCodec.PERCENT_CODEC.encode(src, encoded)
+            PercentCodec.PERCENT_CODEC.decode(encoded.flip(), decoded)
+        then:
+            !src.hasRemaining()
+            !encoded.hasRemaining()
+            encoded.limit() == 5
+            decoded.flip() == ByteBuffer.wrap("a b".getBytes(StandardCharsets.US_ASCII))
+    }
+
+    def "should not advance buffers when destination is too small"() {
+        given:
+            ByteBuffer src = ByteBuffer.wrap("a b".getBytes(StandardCharsets.US_ASCII))
+            ByteBuffer dst = ByteBuffer.allocate(4)
+        when:
+            PercentCodec.PERCENT_CODEC.encode(src, dst)
+        then:
+            thrown(BufferOverflowException)
+            src.position() == 0
+            dst.position() == 0
+    }
+
+    def "should reject invalid escape in bytes"() {
+        when:
+            PercentCodec.PERCENT_CODEC.decode(input.getBytes(StandardCharsets.US_ASCII))
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == message
+        where:
+            input  || message
+            "a%2"  || "Incomplete trailing escape (%) pattern"
+            "a%zz" || "Illegal hex characters in escape (%) pattern"
+    }
+
+    @Unroll
+    def "should encode and decode with charset: #charsetName"() {
+        given:
+            PercentCodec codec = PercentCodec.builder()
+                    .charset(Charset.forName(charsetName))
+                    .build()
+        expect:
+            codec.encode(input) == encoded
+            codec.decode(encoded) == input
+        where:
+            charsetName  | input        || encoded
+            "ISO-8859-2" | "zażółć gęś" || "za%BF%F3%B3%E6%20g%EA%B6"
+            "Shift_JIS"  | "東京 abc"     || "%93%8C%8B%9E%20abc"
+    }
+
+    def "should transcode input longer than reused buffers"() {
+        given:
+            PercentCodec codec = PercentCodec.builder()
+                    .charset(Charset.forName("ISO-8859-2"))
+                    .build()
+            String input = "zażółć" * 10_000
+        when:
+            String encoded = codec.encode(input)
+        then:
+            encoded == "za%BF%F3%B3%E6" * 10_000
+            codec.decode(encoded) == input
+        and:
+            codec.encode("zażółć") == "za%BF%F3%B3%E6"
+            codec.decode("za%BF%F3%B3%E6") == "zażółć"
+    }
+
+    def "should replace characters that are not mapped by charset"() {
+        given:
+            PercentCodec codec = PercentCodec.builder()
+                    .charset(Charset.forName("ISO-8859-2"))
+                    .build()
+        expect:
+            codec.encode("a語ż") == "a%3F%BF"
+    }
+
+    @Unroll
+    def "should replace malformed utf-8 sequence: #input"() {
+        expect:
+            PercentCodec.decodeUriComponent(input) == expected
+        where:
+            input          || expected
+            "a%C3"         || "a\uFFFD"
+            "%C3%A9%FFb"   || "é\uFFFDb"
+            "%ED%A0%80"    || "\uFFFD"
+            "%F0%9F%8C%89" || "🌉"
+    }
 }
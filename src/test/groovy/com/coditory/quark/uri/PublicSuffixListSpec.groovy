@@ -0,0 +1,146 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class PublicSuffixListSpec extends Specification {
+    @TempDir
+    Path tempDir
+
+    @Unroll
+    def "should find registrable domain with bundled list: #host"() {
+        expect:
+            PublicSuffixList.bundled().registrableDomain(host as String) == expected
+        where:
+            host                              || expected
+            "com"                             || null
+            "example.com"                     || "example.com"
+            "www.example.com"                 || "example.com"
+            "WwW.Example.COM"                 || "Example.COM"
+            "example.com."                    || "example.com"
+            "www.coditory.co.uk"              || "coditory.co.uk"
+            "co.uk"                           || null
+            "b.example.uk.com"                || "example.uk.com"
+            "example"                         || null
+            "b.example.example"               || "example.example"
+            // wildcard and exception rules
+            "c.mm"                            || null
+            "a.b.c.mm"                        || "b.c.mm"
+            "b.c.kobe.jp"                     || "b.c.kobe.jp"
+            "city.kobe.jp"                    || "city.kobe.jp"
+            "www.city.kobe.jp"                || "city.kobe.jp"
+            "test.ck"                         || null
+            "www.ck"                          || "www.ck"
+            "www.www.ck"                      || "www.ck"
+            // unicode and punycode rules
+            "www.食狮.公司.cn"                 || "食狮.公司.cn"
+            "www.xn--85x722f.xn--55qx5d.cn"   || "xn--85x722f.xn--55qx5d.cn"
+            "xn--55qx5d.cn"                   || null
+            // private domains
+            "coditory.github.io"              || "coditory.github.io"
+            // not valid hosts
+            ".com"                            || null
+            "example..com"                    || null
+            "192.168.0.1"                     || null
+            "[::1]"                           || null
+            ""                                || null
+            null                              || null
+    }
+
+    @Unroll
+    def "should find public suffix with bundled list: #host"() {
+        expect:
+            PublicSuffixList.bundled().publicSuffix(host as String) == expected
+        where:
+            host                    || expected
+            "www.coditory.co.uk"    || "co.uk"
+            "co.uk"                 || "co.uk"
+            "coditory.unknowntld"   || "unknowntld"
+            "a.b.c.mm"              || "c.mm"
+            "www.city.kobe.jp"      || "kobe.jp"
+            "192.168.0.1"           || null
+    }
+
+    def "should find registrable domain of uri host"() {
+        expect:
+            PublicSuffixList.instance().registrableDomain(UriComponents.fromHttpUrl("https://api.coditory.co.uk/path")) == "coditory.co.uk"
+            PublicSuffixList.instance().publicSuffix(UriComponents.fromHttpUrl("https://api.coditory.co.uk/path")) == "co.uk"
+            PublicSuffixList.instance().registrableDomain(UriComponents.fromUri("/path")) == null
+    }
+
+    def "should find registrable domain start in a source range"() {
+        given:
+            String url = "https://www.coditory.co.uk/path"
+            PublicSuffixList list = PublicSuffixList.bundled()
+        expect:
+            list.registrableDomainStart(url, 8, 26) == 12
+            list.publicSuffixStart(url, 8, 26) == 21
+            list.registrableDomainStart(url, 21, 26) == -1
+    }
+
+    def "should check if host is a public suffix"() {
+        expect:
+            PublicSuffixList.bundled().isPublicSuffix("co.uk")
+            PublicSuffixList.bundled().isPublicSuffix("github.io")
+            !PublicSuffixList.bundled().isPublicSuffix("coditory.co.uk")
+    }
+
+    def "should create list from rules"() {
+        given:
+            PublicSuffixList list = PublicSuffixList.of("com", "*.test", "!www.test")
+        expect:
+            list.size() == 3
+            list.registrableDomain("a.b.coditory.com") == "coditory.com"
+            list.registrableDomain("a.b.test") == "a.b.test"
+            list.registrableDomain("a.www.test") == "www.test"
+            list.registrableDomain("a.coditory.org") == "coditory.org"
+    }
+
+    def "should load list from a file and skip private domains"() {
+        given:
+            Path file = tempDir.resolve("public_suffix_list.dat")
+            Files.writeString(file, """
+                // ===BEGIN ICANN DOMAINS===
+                io
+                com
+                // ===END ICANN DOMAINS===
+                // ===BEGIN PRIVATE DOMAINS===
+                github.io
+                // ===END PRIVATE DOMAINS===
+            """.stripIndent())
+        when:
+            PublicSuffixList withPrivate = PublicSuffixList.load(file)
+            PublicSuffixList icannOnly = PublicSuffixList.load(file, false)
+        then:
+            withPrivate.size() == 3
+            withPrivate.registrableDomain("a.coditory.github.io") == "coditory.github.io"
+            icannOnly.size() == 2
+            icannOnly.registrableDomain("a.coditory.github.io") == "github.io"
+    }
+
+    def "should replace default list"() {
+        given:
+            PublicSuffixList previous = PublicSuffixList.instance()
+        when:
+            PublicSuffixList.setInstance(PublicSuffixList.of("uk"))
+        then:
+            PublicSuffixList.instance().registrableDomain("www.coditory.co.uk") == "co.uk"
+        cleanup:
+            PublicSuffixList.setInstance(previous)
+    }
+
+    @Unroll
+    def "should reject invalid rule: '#rule'"() {
+        when:
+            PublicSuffixList.of(rule)
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected valid public suffix rule. Got: " + rule
+        where:
+            rule << ["", "!", "*.", ".com", "com.", "a..com", "a.*.com", "co m"]
+    }
+}
@@ -0,0 +1,57 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class QueryStringScannerSpec extends Specification {
+    @Unroll
+    def "should visit the same params as parsed query string: #query"() {
+        given:
+            Map<String, List<String>> visited = [:]
+        when:
+            QueryStringScanner.forEach(query, { name, value -> visited.computeIfAbsent(name, { [] }).add(value) })
+        then:
+            visited == UriComponents.fromQueryString(query).queryMultiParams
+        where:
+            query << [
+                    "",
+                    "?",
+                    "a=b",
+                    "?a=b&c=d",
+                    "a=A&a=B&b",
+                    "a&b=&=c&&d",
+                    "a+b=c+d&x%2By=%E8%AA%9E",
+                    "+=x&%20=y"
+            ]
+    }
+
+    @Unroll
+    def "should find first value of a param: #query, #name -> #expected"() {
+        expect:
+            QueryStringScanner.find(query, name) == expected
+        where:
+            query                        | name   || expected
+            "a=A&a=B"                    | "a"    || "A"
+            "?x=1&a=A"                   | "a"    || "A"
+            "a&b=B"                      | "a"    || ""
+            "a=A"                        | "b"    || null
+            "ab=A"                       | "a"    || null
+            "a=A"                        | "ab"   || null
+            "a+b=c+d"                    | "a b"  || "c d"
+            "%61%62=c"                   | "ab"   || "c"
+            "%E8%AA%9E=x"                | "語"    || "x"
+            "a%3Db=x"                    | "a=b"  || "x"
+            "+=x"                        | " "    || null
+    }
+
+    def "should decode only the matching value"() {
+        expect:
+            QueryStringScanner.find("a=%zz&b=B", "b") == "B"
+
+        when:
+            QueryStringScanner.find("a=%zz&b=B", "a")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Invalid encoded sequence \"%zz\""
+    }
+}
@@ -0,0 +1,74 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+
+class UriComponentsCacheSpec extends Specification {
+    UriComponentsCache cache = UriComponentsCache.builder()
+            .maxSize(100)
+            .concurrencyLevel(4)
+            .build()
+
+    def "should return the same components for repeated uri"() {
+        when:
+            UriComponents first = cache.fromUri("https://coditory.com/a?b=c")
+            UriComponents second = cache.fromUri("https://coditory.com/a?b=c")
+        then:
+            first.is(second)
+            first == UriComponents.fromUri("https://coditory.com/a?b=c")
+        and:
+            cache.stats.hitCount == 1
+            cache.stats.missCount == 1
+            cache.stats.evictionCount == 0
+            cache.stats.size == 1
+    }
+
+    def "should report the same errors as uncached parsing"() {
+        when:
+            cache.fromUri("https://coditory.com:80a")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Could not parse uri: \"https://coditory.com:80a\". Cause: Invalid character 'a' for port in \"80a\""
+
+        when:
+            cache.fromHttpUrl("ftp://coditory.com")
+        then:
+            thrown(InvalidHttpUrlException)
+        and:
+            cache.fromUriOrNull("https://coditory.com:80a") == null
+            cache.fromHttpUrlOrNull("ftp://coditory.com") == null
+            cache.parseUri("https://coditory.com:80a").error == UriParseError.INVALID_PORT
+    }
+
+    def "should not exceed max size"() {
+        when:
+            (0..<1000).each { cache.fromUri("https://coditory.com/$it") }
+        then:
+            cache.stats.size == 100
+            cache.stats.missCount == 1000
+            cache.stats.evictionCount > 0
+    }
+
+    def "should keep frequently used uris when flooded with unique ones"() {
+        given:
+            List<String> hot = (0..<50).collect { "https://coditory.com/hot/$it".toString() }
+            int cold = 0
+        when:
+            20.times {
+                hot.each { cache.fromUri(it) }
+                200.times { cache.fromUri("https://coditory.com/cold/${cold++}") }
+            }
+            long hits = cache.stats.hitCount
+            hot.each { cache.fromUri(it) }
+        then:
+            cache.stats.hitCount - hits == 50
+    }
+
+    def "should remove all entries on clear"() {
+        given:
+            cache.fromUri("https://coditory.com")
+        when:
+            cache.clear()
+        then:
+            cache.stats.size == 0
+    }
+}
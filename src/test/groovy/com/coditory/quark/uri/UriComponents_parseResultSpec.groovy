@@ -0,0 +1,106 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class UriComponents_parseResultSpec extends Specification {
+    def "should return parsed components in a successful result"() {
+        when:
+            UriParseResult result = UriComponents.parseUri("https://coditory.com/a?b=c")
+        then:
+            result.success
+            !result.failure
+            result.uriComponents == UriComponents.fromUri("https://coditory.com/a?b=c")
+            result.uriComponentsOrNull == result.uriComponents
+            result.error == null
+            result.errorPosition == -1
+            result.errorMessage == null
+    }
+
+    @Unroll
+    def "should return error with position for invalid uri: #uri"() {
+        when:
+            UriParseResult result = UriComponents.parseUri(uri)
+        then:
+            result.failure
+            result.uriComponentsOrNull == null
+            result.error == error
+            result.errorPosition == position
+        where:
+            uri                          || error                                  | position
+            "/test#a\nb"                 || UriParseError.MALFORMED_URI            | 7
+            "1abc:/x"                    || UriParseError.INVALID_SCHEME           | 0
+            "http://co ditory.com"       || UriParseError.INVALID_HOST             | 9
+            "http://coditory.com:80a"    || UriParseError.INVALID_PORT             | 22
+            "http://coditory.com:99999"  || UriParseError.INVALID_PORT             | 20
+            "http://coditory.com/a b"    || UriParseError.INVALID_PATH             | 21
+            "http://coditory.com/a%zz"   || UriParseError.INVALID_PERCENT_ENCODING | 21
+            "http://coditory.com?a=b c"  || UriParseError.INVALID_QUERY            | 23
+            "http://coditory.com?a=b=c"  || UriParseError.INVALID_QUERY            | 23
+            "http://coditory.com?a&b=%"  || UriParseError.INVALID_PERCENT_ENCODING | 24
+            "http://coditory.com#a#b"    || UriParseError.INVALID_FRAGMENT         | 21
+            "http://user@/a"             || UriParseError.USER_INFO_WITHOUT_HOST   | 7
+            "//:80"                      || UriParseError.PORT_WITHOUT_HOST        | 3
+    }
+
+    @Unroll
+    def "should create the same error message as the exception thrown by fromUri: #uri"() {
+        given:
+            UriParseResult result = UriComponents.parseUri(uri)
+        when:
+            UriComponents.fromUri(uri)
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            result.errorMessage == e.message
+        and:
+            InvalidUriException resultException = null
+            try {
+                result.uriComponents
+            } catch (InvalidUriException ex) {
+                resultException = ex
+            }
+            resultException.message == e.message
+        where:
+            uri << [
+                    "/test#a\nb",
+                    "http://coditory.com:80a",
+                    "http://coditory.com:99999",
+                    "http://coditory.com/a%zz",
+                    "http://coditory.com?a=b=c",
+                    "http://coditory.com?a=%C3%A9&b=c d",
+                    "1abc:/x"
+            ]
+    }
+
+    def "should report non http url as an error"() {
+        when:
+            UriParseResult result = UriComponents.parseHttpUrl("ftp://coditory.com")
+        then:
+            result.error == UriParseError.NOT_HTTP_URL
+            result.errorPosition == 0
+            result.errorMessage == "Could not parse http url: \"ftp://coditory.com\""
+
+        when:
+            result.uriComponents
+        then:
+            thrown(InvalidHttpUrlException)
+    }
+
+    def "should return error for invalid query string"() {
+        when:
+            UriParseResult result = UriComponents.parseQueryString("a=b&c=%z")
+        then:
+            result.error == UriParseError.INVALID_PERCENT_ENCODING
+            result.errorPosition == 6
+            result.errorMessage == "Invalid encoded sequence \"%z\""
+    }
+
+    def "should return null from OrNull methods for invalid input"() {
+        expect:
+            UriComponents.fromUriOrNull("http://coditory.com:80a") == null
+            UriComponents.fromQueryStringOrNull("a=b c") == null
+            UriBuilder.fromUriOrNull("http://coditory.com:80a") == null
+            UriBuilder.fromUrlOrNull("ftp://coditory.com") == null
+            !UrlValidator.isValidUrl("http://coditory.com:80a")
+    }
+}
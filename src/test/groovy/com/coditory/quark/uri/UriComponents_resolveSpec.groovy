@@ -0,0 +1,120 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class UriComponents_resolveSpec extends Specification {
+    static final String BASE = "http://a.com/b/c/d;p?q"
+
+    // RFC 3986, section 5.4 (host "a" is replaced with "a.com").
+    // UriComponents do not keep a trailing slash and serialize a query param without value with "=",
+    // so results like "http://a.com/b/c/" and "?y" become "http://a.com/b/c" and "?y=".
+    @Unroll
+    def "should resolve reference: #reference"() {
+        given:
+            UriComponents base = UriComponents.fromUri(BASE)
+        expect:
+            UriReferenceResolver.of(BASE).resolve(reference).toUriString() == expected
+            base.resolve(reference).toUriString() == expected
+            UriComponents.resolve(BASE, reference).toUriString() == expected
+            UriComponents.fromUriLazily(BASE).resolve(reference).toUriString() == expected
+            UriBuilder.fromUri(BASE).resolve(reference).toUriString() == expected
+        and:
+            UriComponents.fromUri(rfc).toUriString() == expected
+        where:
+            reference       | rfc                           || expected
+            "g:h"           | "g:h"                         || "g:h"
+            "g"             | "http://a.com/b/c/g"          || "http://a.com/b/c/g"
+            "./g"           | "http://a.com/b/c/g"          || "http://a.com/b/c/g"
+            "g/"            | "http://a.com/b/c/g/"         || "http://a.com/b/c/g"
+            "/g"            | "http://a.com/g"              || "http://a.com/g"
+            "//g.com"       | "http://g.com"                || "http://g.com"
+            "?y"            | "http://a.com/b/c/d;p?y"      || "http://a.com/b/c/d;p?y="
+            "g?y"           | "http://a.com/b/c/g?y"        || "http://a.com/b/c/g?y="
+            "#s"            | "http://a.com/b/c/d;p?q#s"    || "http://a.com/b/c/d;p?q=#s"
+            "g#s"           | "http://a.com/b/c/g#s"        || "http://a.com/b/c/g#s"
+            "g?y#s"         | "http://a.com/b/c/g?y#s"      || "http://a.com/b/c/g?y=#s"
+            ";x"            | "http://a.com/b/c/;x"         || "http://a.com/b/c/;x"
+            "g;x"           | "http://a.com/b/c/g;x"        || "http://a.com/b/c/g;x"
+            "g;x?y#s"       | "http://a.com/b/c/g;x?y#s"    || "http://a.com/b/c/g;x?y=#s"
+            ""              | "http://a.com/b/c/d;p?q"      || "http://a.com/b/c/d;p?q="
+            "."             | "http://a.com/b/c/"           || "http://a.com/b/c"
+            "./"            | "http://a.com/b/c/"           || "http://a.com/b/c"
+            ".."            | "http://a.com/b/"             || "http://a.com/b"
+            "../"           | "http://a.com/b/"             || "http://a.com/b"
+            "../g"          | "http://a.com/b/g"            || "http://a.com/b/g"
+            "../.."         | "http://a.com/"               || "http://a.com"
+            "../../"        | "http://a.com/"               || "http://a.com"
+            "../../g"       | "http://a.com/g"              || "http://a.com/g"
+            "../../../g"    | "http://a.com/g"              || "http://a.com/g"
+            "../../../../g" | "http://a.com/g"              || "http://a.com/g"
+            "/./g"          | "http://a.com/g"              || "http://a.com/g"
+            "/../g"         | "http://a.com/g"              || "http://a.com/g"
+            "g."            | "http://a.com/b/c/g."         || "http://a.com/b/c/g."
+            ".g"            | "http://a.com/b/c/.g"         || "http://a.com/b/c/.g"
+            "g.."           | "http://a.com/b/c/g.."        || "http://a.com/b/c/g.."
+            "..g"           | "http://a.com/b/c/..g"        || "http://a.com/b/c/..g"
+            "./../g"        | "http://a.com/b/g"            || "http://a.com/b/g"
+            "./g/."         | "http://a.com/b/c/g/"         || "http://a.com/b/c/g"
+            "g/./h"         | "http://a.com/b/c/g/h"        || "http://a.com/b/c/g/h"
+            "g/../h"        | "http://a.com/b/c/h"          || "http://a.com/b/c/h"
+            "g;x=1/./y"     | "http://a.com/b/c/g;x=1/y"    || "http://a.com/b/c/g;x=1/y"
+            "g;x=1/../y"    | "http://a.com/b/c/y"          || "http://a.com/b/c/y"
+            "g?y/./x"       | "http://a.com/b/c/g?y/./x"    || "http://a.com/b/c/g?y%2F.%2Fx="
+            "g?y/../x"      | "http://a.com/b/c/g?y/../x"   || "http://a.com/b/c/g?y%2F..%2Fx="
+            "g#s/./x"       | "http://a.com/b/c/g#s/./x"    || "http://a.com/b/c/g#s/./x"
+            "g#s/../x"      | "http://a.com/b/c/g#s/../x"   || "http://a.com/b/c/g#s/../x"
+            "http:g"        | "http:g"                      || "http:g"
+    }
+
+    def "should keep last segment of base that ends with slash"() {
+        given:
+            UriReferenceResolver resolver = UriReferenceResolver.of("https://coditory.com/blog/")
+        expect:
+            resolver.resolve("post?x=1").toUriString() == "https://coditory.com/blog/post?x=1"
+            resolver.resolve("../about").toUriString() == "https://coditory.com/about"
+            resolver.resolve(".").toUriString() == "https://coditory.com/blog"
+            UriComponents.resolve("https://coditory.com/blog/", "post").toUriString() == "https://coditory.com/blog/post"
+        and:
+            UriReferenceResolver.of("https://coditory.com/blog").resolve("post").toUriString() == "https://coditory.com/post"
+    }
+
+    def "should treat last segment of parsed base as file name"() {
+        given:
+            UriComponents base = UriComponents.fromUri("https://coditory.com/blog/")
+        expect:
+            base.resolve("post").toUriString() == "https://coditory.com/post"
+            UriReferenceResolver.of(base).resolve("post").toUriString() == "https://coditory.com/post"
+            UriBuilder.fromUri("https://coditory.com/blog/").resolve("post").toUriString() == "https://coditory.com/post"
+    }
+
+    @Unroll
+    def "should resolve against base: #base + #reference"() {
+        expect:
+            UriComponents.fromUri(base).resolve(reference).toUriString() == expected
+        where:
+            base                             | reference          || expected
+            "https://coditory.com"           | "a/b"              || "https://coditory.com/a/b"
+            "https://coditory.com/a?x=1#f"   | "#g"               || "https://coditory.com/a?x=1#g"
+            "https://coditory.com/a?x=1"     | "//other.com/../b" || "https://other.com/b"
+            "//coditory.com/a/b"             | "//other.com/c"    || "//other.com/c"
+            "a/b/c"                          | "../../../d"       || "../d"
+            "mailto:john@coditory.com"       | "#f"               || "mailto:john@coditory.com#f"
+    }
+
+    def "should fail to resolve invalid reference"() {
+        when:
+            UriComponents.fromUri("https://coditory.com").resolve("a b")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Could not parse uri: \"a b\". Cause: Invalid character ' ' for path_segment in \"a b\""
+    }
+
+    def "should fail to resolve relative path against opaque uri"() {
+        when:
+            UriComponents.fromUri("mailto:john@coditory.com").resolve("a")
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Could not resolve relative reference against opaque uri: \"mailto:john@coditory.com\""
+    }
+}
@@ -0,0 +1,140 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import java.nio.file.Path
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+class UriFingerprintSetSpec extends Specification {
+    @TempDir
+    Path tempDir
+
+    def "should add and find uris in exact mode"() {
+        given:
+            UriFingerprintSet set = UriFingerprintSet.builder()
+                    .expectedSize(100)
+                    .build()
+        expect:
+            set.exact
+            set.add("https://coditory.com/a")
+            set.add(UriComponents.fromUri("https://coditory.com/b"))
+        and:
+            !set.add("HTTPS://CODITORY.COM/a")
+            !set.add(UriComponents.fromUriLazily("https://coditory.com/b"))
+        and:
+            set.contains("https://coditory.com/a")
+            set.contains(UriComponents.fromUri("https://coditory.com/b"))
+            !set.contains("https://coditory.com/c")
+            !set.contains(null as UriComponents)
+            set.size() == 2
+    }
+
+    def "should handle zero fingerprint"() {
+        given:
+            UriFingerprintSet set = UriFingerprintSet.builder().build()
+        expect:
+            !set.contains(0)
+            set.add(0)
+            !set.add(0)
+            set.contains(0)
+            set.size() == 1
+    }
+
+    def "should fail to add invalid uri"() {
+        given:
+            UriFingerprintSet set = UriFingerprintSet.builder().build()
+        when:
+            set.add("https://coditory.com/a b")
+        then:
+            thrown(InvalidUriException)
+    }
+
+    def "should fail when exact set is full"() {
+        given:
+            UriFingerprintSet set = UriFingerprintSet.builder()
+                    .expectedSize(10)
+                    .build()
+        when:
+            (1..100).each { set.add(it as long) }
+        then:
+            IllegalStateException e = thrown(IllegalStateException)
+            e.message == "Uri fingerprint set is full. Expected size: 10"
+            set.size() == 16
+    }
+
+    def "should add fingerprints concurrently"() {
+        given:
+            UriFingerprintSet set = UriFingerprintSet.builder()
+                    .expectedSize(100_000)
+                    .build()
+            ExecutorService executor = Executors.newFixedThreadPool(4)
+        when:
+            List<Integer> added = (1..4).collect {
+                executor.submit({
+                    int count = 0
+                    for (long i = 1; i <= 100_000; i++) {
+                        if (set.add(i)) count++
+                    }
+                    return count
+                } as Callable<Integer>)
+            }*.get()
+        then:
+            added.sum() == 100_000
+            set.size() == 100_000
+            (1..100_000).every { set.contains(it as long) }
+            !set.contains(100_001)
+        cleanup:
+            executor.shutdown()
+    }
+
+    def "should find all added fingerprints in bloom filter mode"() {
+        given:
+            UriFingerprintSet set = UriFingerprintSet.builder()
+                    .expectedSize(10_000)
+                    .falsePositiveRate(0.01)
+                    .build()
+            Random random = new Random(42)
+            List<Long> fingerprints = (1..10_000).collect { random.nextLong() }
+        when:
+            fingerprints.each { set.add(it) }
+        then:
+            !set.exact
+            fingerprints.every { set.contains(it) }
+        and:
+            int falsePositives = (1..10_000).count { set.contains(random.nextLong()) }
+            falsePositives < 200
+        and:
+            set.memorySize() < 10_000 * 2
+    }
+
+    def "should store fingerprints in memory mapped file"() {
+        given:
+            Path file = tempDir.resolve("seen.bin")
+            UriFingerprintSet set = UriFingerprintSet.builder()
+                    .expectedSize(1000)
+                    .memoryMapped(file)
+                    .build()
+        when:
+            set.add("https://coditory.com/a")
+            set.flush()
+        then:
+            set.contains("https://coditory.com/a")
+            !set.contains("https://coditory.com/b")
+            file.toFile().length() == set.memorySize()
+    }
+
+    @Unroll
+    def "should reject invalid false positive rate: #rate"() {
+        when:
+            UriFingerprintSet.builder().falsePositiveRate(rate)
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected falsePositiveRate in range (0, 1). Got: " + rate
+        where:
+            rate << [0d, 1d, -0.5d]
+    }
+}
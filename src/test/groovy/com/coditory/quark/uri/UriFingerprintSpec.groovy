@@ -0,0 +1,62 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class UriFingerprintSpec extends Specification {
+    @Unroll
+    def "should compute stable fingerprint: #uri"() {
+        when:
+            UriFingerprint fingerprint = UriFingerprint.of(uri)
+        then:
+            fingerprint.toHexString() == expected
+            fingerprint.high == Long.parseUnsignedLong(expected.substring(0, 16), 16)
+            fingerprint.low == Long.parseUnsignedLong(expected.substring(16), 16)
+            UriFingerprint.fingerprint64(uri) == fingerprint.high
+        where:
+            uri                               || expected
+            "https://coditory.com/path?q=1"   || "43b0b49c0e9bfc56a77089a58bd2945f"
+            "http://münchen.de/a%20b"         || "6602375b0ee30111862d872ca5998109"
+            ""                                || "00000000000000000000000000000000"
+    }
+
+    @Unroll
+    def "should compute equal fingerprints for uris that serialize equally: #first, #second"() {
+        given:
+            UriComponents firstUri = UriComponents.fromUri(first)
+            UriComponents secondUri = UriComponents.fromUri(second)
+        expect:
+            firstUri.toUriString() == secondUri.toUriString()
+            firstUri.fingerprint() == secondUri.fingerprint()
+            firstUri.fingerprint64() == secondUri.fingerprint64()
+        where:
+            first                              | second
+            "HTTP://CODITORY.COM/a"            | "http://coditory.com/a"
+            "https://coditory.com/"            | "https://coditory.com"
+            "https://coditory.com/%7Ea?x=%41"  | "https://coditory.com/~a?x=A"
+    }
+
+    def "should compute different fingerprints for different uris"() {
+        expect:
+            UriFingerprint.of("https://coditory.com/a") != UriFingerprint.of("https://coditory.com/b")
+            UriFingerprint.fingerprint64("https://coditory.com/a?x=1") != UriFingerprint.fingerprint64("https://coditory.com/a?x=2")
+    }
+
+    def "should compute the same fingerprint for raw, parsed, lazily parsed and built uri"() {
+        given:
+            String uri = "https://user@coditory.com:8080/a/b?x=1&y=2#frag"
+            UriFingerprint expected = UriComponents.fromUri(uri).fingerprint()
+        expect:
+            UriFingerprint.of(uri) == expected
+            UriComponents.fromUriLazily(uri).fingerprint() == expected
+            UriBuilder.fromUri(uri).toUriComponents().fingerprint() == expected
+            UriComponents.fromUri(uri).toUriString() == uri
+    }
+
+    def "should fail to compute fingerprint of invalid uri"() {
+        when:
+            UriFingerprint.of("https://coditory.com/a b")
+        then:
+            thrown(InvalidUriException)
+    }
+}
@@ -0,0 +1,149 @@
+package com.coditory.quark.uri
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class UriNormalizerSpec extends Specification {
+    private static final UriNormalizer normalizer = UriNormalizer.instance()
+
+    @Unroll
+    def "should normalize uri: #uri"() {
+        expect:
+            normalizer.normalize(uri) == expected
+        where:
+            uri                                             || expected
+            "HTTP://www.Example.COM/"                       || "http://www.example.com/"
+            "http://example.com"                            || "http://example.com/"
+            "http://example.com/%7euser/%7Ejoe"             || "http://example.com/~user/~joe"
+            "http://example.com/%2fa%3f"                    || "http://example.com/%2Fa%3F"
+            "http://example.com/%41%62%2D%5F"               || "http://example.com/Ab-_"
+            "http://example.com:80/"                        || "http://example.com/"
+            "https://example.com:443/"                      || "https://example.com/"
+            "https://example.com:80/"                       || "https://example.com:80/"
+            "http://example.com:/"                          || "http://example.com/"
+            "http://example.com:0080/"                      || "http://example.com/"
+            "http://User%3aInfo@Example.com/"               || "http://User%3AInfo@example.com/"
+            "http://[2001:0DB8:0:0:0:0:0:1]:8080/"          || "http://[2001:db8::1]:8080/"
+            "http://münchen.de/"                            || "http://xn--mnchen-3ya.de/"
+            "http://m%C3%BCnchen.de/"                       || "http://xn--mnchen-3ya.de/"
+            "http://example.com/é?q=ü#ß"                    || "http://example.com/%C3%A9?q=%C3%BC#%C3%9F"
+            "http://example.com/?b=%7e&a#%7eFrag"           || "http://example.com/?b=~&a#~Frag"
+            "mailto:John.Doe%40example.com?subject=%7eHi"   || "mailto:John.Doe%40example.com?subject=~Hi"
+            "//Example.com/a"                               || "//example.com/a"
+            "ht%74p://example.com/"                         || "http://example.com/"
+    }
+
+    @Unroll
+    def "should remove dot segments: #path"() {
+        expect:
+            normalizer.normalize("http://example.com" + path) == "http://example.com" + expected
+        where:
+            path                        || expected
+            "/a/b/c/./../../g"          || "/a/g"
+            "/mid/content=5/../6"       || "/mid/6"
+            "/a/b/.."                   || "/a/"
+            "/a/b/."                    || "/a/b/"
+            "/a//b/../"                 || "/a//"
+            "/../a"                     || "/a"
+            "/.."                       || "/"
+            "/%2E%2e/a/%2e"             || "/a/"
+            "/a/.../b"                  || "/a/.../b"
+    }
+
+    @Unroll
+    def "should keep dot segments of relative path: #uri"() {
+        expect:
+            normalizer.normalize(uri) == expected
+        where:
+            uri              || expected
+            "../a/./b"       || "../a/./b"
+            "/a/./b/../c"    || "/a/c"
+    }
+
+    def "should sort query params and remove fragment"() {
+        given:
+            UriNormalizer normalizer = UriNormalizer.builder()
+                    .sortQueryParams(true)
+                    .removeFragment(true)
+                    .build()
+        expect:
+            normalizer.normalize("http://example.com/?b=2&a=1&a=0&&c&ab=1#frag") ==
+                    "http://example.com/?a=0&a=1&ab=1&b=2&c"
+    }
+
+    @Unroll
+    def "should normalize uri components: #uri"() {
+        expect:
+            normalizer.normalize(UriComponents.fromUri(uri)) == expected
+        where:
+            uri                                         || expected
+            "HTTP://www.Example.COM:80"                 || "http://www.example.com/"
+            "http://example.com/a/./b/../c?q=%7e#%7e"   || "http://example.com/a/c?q=~#~"
+            "http://[2001:0DB8::1]:443/"                || "http://[2001:db8::1]:443/"
+            "http://[FE80::1%25eth0]/"                  || "http://[fe80::1%25eth0]/"
+            "mailto:John.Doe@example.com"               || "mailto:John.Doe@example.com"
+    }
+
+    @Unroll
+    def "should not turn path into authority: #uri"() {
+        when:
+            String normalized = normalizer.normalize(uri)
+        then:
+            normalized == expected
+            normalizer.normalize(normalized) == expected
+            UriComponents.fromUri(normalized).host == null
+        where:
+            uri                 || expected
+            "http:/.//evil.com" || "http:/.//evil.com"
+            "/.//evil.com/x"    || "/.//evil.com/x"
+            "/.//_"             || "/.//_"
+            "http:/a/..//b"     || "http:/.//b"
+    }
+
+    @Unroll
+    def "should normalize opaque uri with fragment: #uri"() {
+        expect:
+            normalizer.normalize(uri) == expected
+            normalizer.normalize(expected) == expected
+        where:
+            uri          || expected
+            "mailto:a#"  || "mailto:a#"
+            "mailto:a#b" || "mailto:a#b"
+    }
+
+    def "should produce different keys for raw uri and uri components with bare query param names"() {
+        given:
+            String uri = "http://x.com/?a&b=:"
+        expect:
+            normalizer.normalize(uri) == "http://x.com/?a&b=:"
+            normalizer.normalize(UriComponents.fromUri(uri)) == "http://x.com/?a=&b=%3A"
+    }
+
+    def "should normalize raw uri and uri components in the same way"() {
+        given:
+            String uri = "HTTPS://User@Example.COM:443/a/./b/../%7ec?q=%C3%A9#frag"
+        expect:
+            normalizer.normalize(uri) == normalizer.normalize(UriComponents.fromUri(uri))
+            normalizer.normalize(uri) == "https://User@example.com/a/~c?q=%C3%A9#frag"
+    }
+
+    @Unroll
+    def "should fail to normalize invalid uri: #uri"() {
+        when:
+            normalizer.normalize(uri)
+        then:
+            InvalidUriException e = thrown(InvalidUriException)
+            e.message == "Could not normalize uri: \"" + uri + "\". Cause: " + cause
+        and:
+            normalizer.normalizeOrNull(uri) == null
+        where:
+            uri                         || cause
+            "http://example.com/%zz"    || "Invalid encoded sequence \"%zz\""
+            "http://example.com/a b"    || "Invalid character ' ' for path_segment in \"a b\""
+            "http://example.com:99999/" || "Invalid port: 99999"
+            "http://[::g]/"             || "Invalid host: [::g]"
+            "%41%7eb://x/"              || "Invalid scheme: %41%7eb"
+            "a~b://x/"                  || "Invalid scheme: a~b"
+            "1a://x/"                   || "Invalid scheme: 1a"
+    }
+}
@@ -16,7 +16,12 @@ class UrlValidatorSpec extends Specification {
                     "http://coditory.com/a%20b",
                     "http://coditory.com/a%E8%AA%9Eb",
                     "http://coditory.com/a/b/c",
-                    "http://coditory.com/test?a=b&a=b&a=c"
+                    "http://coditory.com/test?a=b&a=b&a=c",
+                    "http://api.eu-west-1.internal.coditory.com",
+                    "http://127.0.0.1",
+                    "http://192.168.0.255:8080/a",
+                    "http://[::1]/a",
+                    "http://[2001:db8::ff00:42:8329]:8080"
             ]
     }
 
@@ -38,6 +43,14 @@ class UrlValidatorSpec extends Specification {
                     "http://coditory.",
                     "http://.com",
                     "http://",
+                    "http://coditory..com",
+                    "http://256.0.0.1",
+                    "http://01.0.0.1",
+                    "http://[::g]",
+                    "http://[1::2::3]",
+                    "http://[::1]evil.com/",
+                    "http://[::1]x:80",
+                    "http://[::1]]/",
                     // invalid port
                     "http://coditory.com:-5",
                     "http://coditory.com:65636",
@@ -48,6 +61,92 @@ class UrlValidatorSpec extends Specification {
                     "http://coditory.com/../",
                     "http://coditory.com/../file",
                     "http://coditory.com/abc/../../file",
+                    "http://coditory.com/a/%2E%2E/b",
+                    "http://coditory.com/a(b)",
+                    "http://coditory.com/a%28b",
+                    // invalid query and fragment
+                    "http://coditory.com?a=%zz",
+                    "http://coditory.com#a#b",
             ]
     }
+
+    @Unroll
+    def "should validate the same way raw and parsed url: #input"() {
+        given:
+            UriComponents uriComponents = UriComponents.fromHttpUrlOrNull(input)
+        expect:
+            UrlValidator.isValidUrl(input) == expected
+            uriComponents == null || UrlValidator.isValidUrl(uriComponents) == expected
+        where:
+            input                                  || expected
+            "HTTPS://Coditory.COM/a/b"             || true
+            "ht%74p://coditory.com"                || true
+            "http://co%64itory.com:8%30"           || true
+            "http://coditory.com:0080/a/b/c/../d"  || true
+            "http://coditory.com/a/../../d"        || false
+            "http://coditory.com/a//b/../c"        || true
+            "http://coditory.com/a%C3%A9?q=%C3%A9" || true
+            "http://coditory.com:"                 || false
+            "http://[::1/64]"                      || false
+    }
+
+    @Unroll
+    def "should reject text after ip v6 literal: #input"() {
+        when:
+            UriParseResult result = UriComponents.parseHttpUrl(input)
+        then:
+            !UrlValidator.isValidUrl(input)
+            result.failure
+            result.error == UriParseError.INVALID_HOST
+        where:
+            input << [
+                    "http://[::1]evil.com/",
+                    "http://[::1]x:80",
+                    "http://[::1]]/"
+            ]
+    }
+
+    def "should reject fragments when they are not allowed"() {
+        given:
+            UrlValidator validator = UrlValidator.builder()
+                    .allowFragments(false)
+                    .build()
+        expect:
+            validator.isValid("http://coditory.com#")
+            !validator.isValid("http://coditory.com#a")
+            !validator.isValid(UriComponents.fromHttpUrl("http://coditory.com#a"))
+    }
+
+    def "should validate only allowed schemes"() {
+        given:
+            UrlValidator validator = UrlValidator.builder()
+                    .allowedSchemes(Set.of("https"))
+                    .build()
+        expect:
+            validator.isValid("https://coditory.com")
+            !validator.isValid("http://coditory.com")
+            !validator.isValid("ftp://coditory.com")
+    }
+
+    @Unroll
+    def "should validate only allowed and not blocked hosts: #url"() {
+        given:
+            UrlValidator validator = UrlValidator.builder()
+                    .allowedHosts(DomainMatcher.of(".coditory.com", "example.org"))
+                    .blockedHosts(DomainMatcher.of("admin.coditory.com"))
+                    .build()
+        expect:
+            validator.isValid(url) == expected
+            validator.isValid(UriComponents.fromHttpUrl(url)) == expected
+        where:
+            url                              || expected
+            "http://coditory.com"            || true
+            "https://API.Coditory.com/path"  || true
+            "http://a.admin.coditory.com"    || true
+            "http://example.org:8080"        || true
+            "http://admin.coditory.com"      || false
+            "http://%61dmin.coditory.com"    || false
+            "http://api.example.org"         || false
+            "http://coditory.com.evil.com"   || false
+    }
 }